@@ -32,6 +32,7 @@ import be.yildizgames.common.model.EntityId;
 import be.yildizgames.module.physics.AbstractMovableObject;
 import be.yildizgames.module.physics.BaseBody;
 import be.yildizgames.module.physics.bullet.internal.BulletBodyImplementation;
+import be.yildizgames.module.physics.bullet.shape.BulletShapeProvider;
 
 /**
  * Common class for kinematic, static and dynamic bodies.
@@ -60,6 +61,16 @@ abstract class BulletBody extends AbstractMovableObject implements Native, BaseB
      */
     private final NativePointer world;
 
+    /**
+     * Shape used by the body.
+     */
+    private final NativePointer shape;
+
+    /**
+     * Provider of the shape, notified when the body no longer uses it.
+     */
+    private final BulletShapeProvider shapeProvider;
+
     /**
      * Flag to check if the object but be ignored in the physic simulation.
      */
@@ -71,9 +82,14 @@ abstract class BulletBody extends AbstractMovableObject implements Native, BaseB
      * @param pointerAddress Pointer to the native object.
      * @param worldPointer   Pointer of the associated world.
      * @param id             Object unique Id.
+     * @param shape          Shape used by the body.
+     * @param shapeProvider  Provider of the shape, notified when the body is deleted.
      */
-    BulletBody(BulletBodyImplementation implementation, final NativePointer pointerAddress, final NativePointer worldPointer, final EntityId id) {
+    BulletBody(BulletBodyImplementation implementation, final NativePointer pointerAddress, final NativePointer worldPointer, final EntityId id,
+               final NativePointer shape, final BulletShapeProvider shapeProvider) {
         super();
+        this.shape = shape;
+        this.shapeProvider = shapeProvider;
         this.pointer = pointerAddress;
         this.world = worldPointer;
         this.sleeping = false;
@@ -88,6 +104,7 @@ abstract class BulletBody extends AbstractMovableObject implements Native, BaseB
     public final void delete() {
         this.nativeBody.delete(this.pointer.getPointerAddress(), this.world.getPointerAddress());
         this.pointer.delete();
+        this.shapeProvider.releaseShape(this.shape);
     }
 
     @Override
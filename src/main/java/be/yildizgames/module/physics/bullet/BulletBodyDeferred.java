@@ -0,0 +1,101 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import be.yildizgames.module.physics.bullet.internal.BulletBodyImplementation;
+
+/**
+ * Body implementation recording the mutations in a command buffer while its world is in deferred mode, and calling the
+ * native code immediately otherwise. The calls which cannot be recorded are rejected while an asynchronous step runs.
+ *
+ * @author Grégory Van den Borre
+ */
+class BulletBodyDeferred implements BulletBodyImplementation {
+
+    /**
+     * Buffer receiving the mutations.
+     */
+    final BulletCommandBuffer commands;
+
+    /**
+     * Mode of the world containing the body.
+     */
+    final BulletWorldMode mode;
+
+    /**
+     * Implementation used for the immediate calls.
+     */
+    private final BulletBodyImplementation immediate;
+
+    /**
+     * Create a new instance.
+     *
+     * @param commands  Buffer receiving the mutations.
+     * @param mode      Mode of the world containing the body.
+     * @param immediate Implementation used for the immediate calls.
+     */
+    BulletBodyDeferred(final BulletCommandBuffer commands, final BulletWorldMode mode, final BulletBodyImplementation immediate) {
+        super();
+        this.commands = commands;
+        this.mode = mode;
+        this.immediate = immediate;
+    }
+
+    @Override
+    public final void setActivate(final long pointerAddress, final boolean activate) {
+        if (this.mode.isDeferred()) {
+            this.commands.add(BulletCommandBuffer.SET_ACTIVATE, pointerAddress, activate);
+        } else {
+            this.immediate.setActivate(pointerAddress, activate);
+        }
+    }
+
+    @Override
+    public final void delete(final long pointerAddress, final long worldPointer) {
+        if (this.mode.isDeferred()) {
+            this.commands.add(BulletCommandBuffer.DELETE_BODY, pointerAddress, false);
+        } else {
+            this.immediate.delete(pointerAddress, worldPointer);
+        }
+    }
+
+    @Override
+    public final void scale(final long pointerAddress, final float x, final float y, final float z) {
+        this.mode.checkNotStepping();
+        this.immediate.scale(pointerAddress, x, y, z);
+    }
+
+    @Override
+    public final float[] getPosition(final long pointerAddress) {
+        this.mode.checkNotStepping();
+        return this.immediate.getPosition(pointerAddress);
+    }
+
+    @Override
+    public final float[] getDirection(final long pointerAddress) {
+        this.mode.checkNotStepping();
+        return this.immediate.getDirection(pointerAddress);
+    }
+}
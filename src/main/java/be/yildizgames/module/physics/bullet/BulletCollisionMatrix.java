@@ -0,0 +1,112 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import java.util.Arrays;
+
+/**
+ * Table telling which collision groups can collide with each other, used by the broadphase to drop the pairs of objects
+ * whose groups are disabled before any narrowphase test is done. The groups are identified by their bit index, from 0 to
+ * 31, matching the bits given to BulletPhysicObjectBuilder#withCollisionFilter. All the groups collide by default.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletCollisionMatrix {
+
+    /**
+     * Number of groups.
+     */
+    public static final int GROUPS = Integer.SIZE;
+
+    /**
+     * For each group, the bits of the groups it collides with.
+     */
+    private final int[] rows = new int[GROUPS];
+
+    /**
+     * Create a new matrix where all the groups collide with each other.
+     */
+    public BulletCollisionMatrix() {
+        super();
+        Arrays.fill(this.rows, -1);
+    }
+
+    /**
+     * Let two groups collide.
+     *
+     * @param groupA First group bit index.
+     * @param groupB Second group bit index.
+     * @return This matrix.
+     * @throws IllegalArgumentException if a group is not between 0 and 31.
+     */
+    public BulletCollisionMatrix enable(final int groupA, final int groupB) {
+        check(groupA);
+        check(groupB);
+        this.rows[groupA] |= 1 << groupB;
+        this.rows[groupB] |= 1 << groupA;
+        return this;
+    }
+
+    /**
+     * Prevent two groups from colliding.
+     *
+     * @param groupA First group bit index.
+     * @param groupB Second group bit index.
+     * @return This matrix.
+     * @throws IllegalArgumentException if a group is not between 0 and 31.
+     */
+    public BulletCollisionMatrix disable(final int groupA, final int groupB) {
+        check(groupA);
+        check(groupB);
+        this.rows[groupA] &= ~(1 << groupB);
+        this.rows[groupB] &= ~(1 << groupA);
+        return this;
+    }
+
+    /**
+     * @param groupA First group bit index.
+     * @param groupB Second group bit index.
+     * @return <code>true</code> if the groups can collide.
+     * @throws IllegalArgumentException if a group is not between 0 and 31.
+     */
+    public boolean isEnabled(final int groupA, final int groupB) {
+        check(groupA);
+        check(groupB);
+        return (this.rows[groupA] & (1 << groupB)) != 0;
+    }
+
+    /**
+     * @return A copy of the rows, to give to the native code.
+     */
+    int[] getRows() {
+        return this.rows.clone();
+    }
+
+    private static void check(final int group) {
+        if (group < 0 || group >= GROUPS) {
+            throw new IllegalArgumentException("Group must be between 0 and " + (GROUPS - 1));
+        }
+    }
+}
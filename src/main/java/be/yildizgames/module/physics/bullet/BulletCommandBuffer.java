@@ -0,0 +1,216 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Off heap buffer recording the mutations issued while a world is in deferred mode, the native code applies all of
+ * them in the update call, before stepping the simulation.
+ * Each command contains the operation as an int, a flag as an int, the native object pointer as a long and 4 float
+ * values, the operation values must match the yz::World::Command ones.
+ *
+ * @author Grégory Van den Borre
+ */
+final class BulletCommandBuffer {
+
+    static final int SET_GRAVITY = 0;
+
+    static final int SET_ACTIVATE = 1;
+
+    static final int DELETE_BODY = 2;
+
+    static final int DELETE_GHOST = 3;
+
+    static final int DYNAMIC_POSITION = 4;
+
+    static final int DYNAMIC_ORIENTATION = 5;
+
+    static final int APPLY_FORCE = 6;
+
+    static final int KINEMATIC_POSITION = 7;
+
+    static final int KINEMATIC_ROTATION = 8;
+
+    static final int GHOST_POSITION = 9;
+
+    static final int SET_TIME_STEP = 10;
+
+    /**
+     * Size of a command in bytes, must match the native COMMAND_SIZE value.
+     */
+    static final int COMMAND_SIZE = 32;
+
+    private static final int OPERATION = 0;
+
+    private static final int FLAG = 4;
+
+    private static final int POINTER = 8;
+
+    private static final int VALUE_1 = 16;
+
+    private static final int VALUE_2 = 20;
+
+    private static final int VALUE_3 = 24;
+
+    private static final int VALUE_4 = 28;
+
+    /**
+     * Direct buffer shared with the native code.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Number of commands recorded since the last flush.
+     */
+    private int size;
+
+    /**
+     * Create a new command buffer, it will grow if more commands are recorded.
+     *
+     * @param capacity Initial number of commands the buffer can contain.
+     */
+    BulletCommandBuffer(final int capacity) {
+        super();
+        this.buffer = allocate(capacity);
+    }
+
+    /**
+     * Record a command using only a flag.
+     *
+     * @param operation Operation to execute.
+     * @param pointer   Native object pointer address.
+     * @param flag      Flag value.
+     */
+    void add(final int operation, final long pointer, final boolean flag) {
+        this.add(operation, pointer, flag ? 1 : 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Record a command using a flag value and a float value.
+     *
+     * @param operation Operation to execute.
+     * @param pointer   Native object pointer address.
+     * @param flag      Flag value.
+     * @param value     Float value.
+     */
+    void add(final int operation, final long pointer, final int flag, final float value) {
+        this.add(operation, pointer, flag, value, 0, 0, 0);
+    }
+
+    /**
+     * Record a command using 3 float values.
+     *
+     * @param operation Operation to execute.
+     * @param pointer   Native object pointer address.
+     * @param x         First value.
+     * @param y         Second value.
+     * @param z         Third value.
+     */
+    void add(final int operation, final long pointer, final float x, final float y, final float z) {
+        this.add(operation, pointer, 0, x, y, z, 0);
+    }
+
+    /**
+     * Record a command using 4 float values.
+     *
+     * @param operation Operation to execute.
+     * @param pointer   Native object pointer address.
+     * @param w         First value.
+     * @param x         Second value.
+     * @param y         Third value.
+     * @param z         Fourth value.
+     */
+    void add(final int operation, final long pointer, final float w, final float x, final float y, final float z) {
+        this.add(operation, pointer, 0, w, x, y, z);
+    }
+
+    /**
+     * @return The number of commands recorded since the last flush.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * @return The direct buffer to give to the native code.
+     */
+    ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * Remove all the commands, to be called once the native code applied them.
+     */
+    void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Move all the commands to another buffer, so new commands can be recorded while the other buffer is being applied.
+     *
+     * @param target Buffer receiving the commands, its previous content is discarded.
+     */
+    void transferTo(final BulletCommandBuffer target) {
+        if (target.buffer.capacity() < this.buffer.capacity()) {
+            target.buffer = allocate(this.buffer.capacity() / COMMAND_SIZE);
+        }
+        final ByteBuffer content = this.buffer.duplicate();
+        content.clear().limit(this.size * COMMAND_SIZE);
+        final ByteBuffer destination = target.buffer.duplicate();
+        destination.clear();
+        destination.put(content);
+        target.size = this.size;
+        this.size = 0;
+    }
+
+    private void add(final int operation, final long pointer, final int flag, final float v1, final float v2, final float v3, final float v4) {
+        if (this.size == this.buffer.capacity() / COMMAND_SIZE) {
+            this.grow();
+        }
+        final int offset = this.size * COMMAND_SIZE;
+        this.buffer.putInt(offset + OPERATION, operation);
+        this.buffer.putInt(offset + FLAG, flag);
+        this.buffer.putLong(offset + POINTER, pointer);
+        this.buffer.putFloat(offset + VALUE_1, v1);
+        this.buffer.putFloat(offset + VALUE_2, v2);
+        this.buffer.putFloat(offset + VALUE_3, v3);
+        this.buffer.putFloat(offset + VALUE_4, v4);
+        this.size++;
+    }
+
+    private void grow() {
+        final ByteBuffer larger = allocate(Math.max(1, this.size * 2));
+        final ByteBuffer content = this.buffer.duplicate();
+        content.clear();
+        larger.put(content);
+        this.buffer = larger;
+    }
+
+    private static ByteBuffer allocate(final int capacity) {
+        return ByteBuffer.allocateDirect(capacity * COMMAND_SIZE).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Off heap buffer receiving the contact points found by a contact query, one record per point.
+ * The values are read in place, so reading a result does not allocate anything.
+ * Each record contains the id of the touched object as a long, the contact point X, Y, Z values on the touched object,
+ * the contact normal X, Y, Z values on the touched object and the distance between the objects as floats, followed by 4
+ * padding bytes, it uses the same layout as the BulletHitBuffer records.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletContactBuffer {
+
+    /**
+     * Size of a record in bytes, must match the native HIT_RECORD_SIZE value.
+     */
+    static final int RECORD_SIZE = BulletHitBuffer.RECORD_SIZE;
+
+    /**
+     * Direct buffer shared with the native code.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Number of records currently available.
+     */
+    private int size;
+
+    /**
+     * Create a new buffer, it will grow if more contacts must be written in it.
+     *
+     * @param capacity Initial number of records the buffer can contain.
+     * @throws IllegalArgumentException if capacity is negative.
+     */
+    public BulletContactBuffer(final int capacity) {
+        super();
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity is negative");
+        }
+        this.buffer = allocate(capacity);
+    }
+
+    /**
+     * @return The number of records available.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @param index Record index.
+     * @return The id of the touched object.
+     */
+    public long getId(final int index) {
+        return this.buffer.getLong(this.offset(index) + BulletHitBuffer.ID);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The contact point X value.
+     */
+    public float getX(final int index) {
+        return this.buffer.getFloat(this.offset(index) + BulletHitBuffer.POINT_X);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The contact point Y value.
+     */
+    public float getY(final int index) {
+        return this.buffer.getFloat(this.offset(index) + BulletHitBuffer.POINT_Y);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The contact point Z value.
+     */
+    public float getZ(final int index) {
+        return this.buffer.getFloat(this.offset(index) + BulletHitBuffer.POINT_Z);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The contact normal X value, pointing from the touched object to the queried one.
+     */
+    public float getNormalX(final int index) {
+        return this.buffer.getFloat(this.offset(index) + BulletHitBuffer.NORMAL_X);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The contact normal Y value, pointing from the touched object to the queried one.
+     */
+    public float getNormalY(final int index) {
+        return this.buffer.getFloat(this.offset(index) + BulletHitBuffer.NORMAL_Y);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The contact normal Z value, pointing from the touched object to the queried one.
+     */
+    public float getNormalZ(final int index) {
+        return this.buffer.getFloat(this.offset(index) + BulletHitBuffer.NORMAL_Z);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The distance between the objects at this point, negative when they interpenetrate.
+     */
+    public float getDistance(final int index) {
+        return this.buffer.getFloat(this.offset(index) + BulletHitBuffer.FRACTION);
+    }
+
+    /**
+     * @return The direct buffer to give to the native code.
+     */
+    ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * @return The number of records the buffer can contain.
+     */
+    int capacity() {
+        return this.buffer.capacity() / RECORD_SIZE;
+    }
+
+    /**
+     * Replace the buffer by a larger one if it cannot contain the given number of records, the content is not kept.
+     *
+     * @param capacity Number of records the buffer must be able to contain.
+     */
+    void ensureCapacity(final int capacity) {
+        if (capacity > this.capacity()) {
+            this.buffer = allocate(Math.max(capacity, this.capacity() * 2));
+        }
+    }
+
+    /**
+     * @param size Number of records written by the native code.
+     */
+    void setSize(final int size) {
+        this.size = size;
+    }
+
+    private int offset(final int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return index * RECORD_SIZE;
+    }
+
+    private static ByteBuffer allocate(final int capacity) {
+        return ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+    }
+}
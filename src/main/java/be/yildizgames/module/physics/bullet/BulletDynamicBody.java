@@ -30,8 +30,7 @@ import be.yildizgames.common.jni.NativePointer;
 import be.yildizgames.common.model.EntityId;
 import be.yildizgames.module.physics.DynamicBody;
 import be.yildizgames.module.physics.bullet.internal.BulletDynamicBodyImplementation;
-import jni.BulletBodyNative;
-import jni.BulletDynamicBodyNative;
+import be.yildizgames.module.physics.bullet.shape.BulletShapeProvider;
 
 /**
  * Bullet dynamic body.
@@ -48,9 +47,7 @@ final class BulletDynamicBody extends BulletBody implements DynamicBody {
     /**
      * Contains the native calls.
      */
-    private final BulletDynamicBodyNative bodyNative = new BulletDynamicBodyNative();
-
-    private final BulletBodyNative bulletBodyNative = new BulletBodyNative();
+    private final BulletDynamicBodyImplementation bodyNative;
 
     /**
      * Body current mass.
@@ -63,16 +60,20 @@ final class BulletDynamicBody extends BulletBody implements DynamicBody {
      * @param bodyPointer  Pointer of the associated btbody object.
      * @param worldPointer Pointer of the associated btdiscreetworld object containing the body.
      * @param id           Body unique identifier.
+     * @param shape        Shape used by the body.
+     * @param shapeProvider Provider of the shape, notified when the body is deleted.
      */
-    BulletDynamicBody(final BulletDynamicBodyImplementation implementation, final NativePointer bodyPointer, final NativePointer worldPointer, final EntityId id, final float mass) {
-        super(implementation, bodyPointer, worldPointer, id);
+    BulletDynamicBody(final BulletDynamicBodyImplementation implementation, final NativePointer bodyPointer, final NativePointer worldPointer, final EntityId id, final float mass,
+                      final NativePointer shape, final BulletShapeProvider shapeProvider) {
+        super(implementation, bodyPointer, worldPointer, id, shape, shapeProvider);
         this.pointer = bodyPointer;
+        this.bodyNative = implementation;
         this.mass = mass;
     }
 
     @Override
     public Point3D getPosition() {
-        var v = this.bulletBodyNative.getPosition(this.pointer.getPointerAddress());
+        var v = this.bodyNative.getPosition(this.pointer.getPointerAddress());
         return Point3D.valueOf(v[0], v[1], v[2]);
     }
 
@@ -83,7 +84,7 @@ final class BulletDynamicBody extends BulletBody implements DynamicBody {
 
     @Override
     public Point3D getDirection() {
-        var v = this.bulletBodyNative.getDirection(this.pointer.getPointerAddress());
+        var v = this.bodyNative.getDirection(this.pointer.getPointerAddress());
         return Point3D.valueOf(v[0], v[1], v[2]);
     }
 
@@ -31,7 +31,8 @@ import be.yildizgames.common.jni.NativePointer;
 import be.yildizgames.common.model.EntityId;
 import be.yildizgames.module.physics.AbstractMovableObject;
 import be.yildizgames.module.physics.GhostObject;
-import jni.BulletGhostObjectNative;
+import be.yildizgames.module.physics.bullet.internal.BulletGhostObjectImplementation;
+import be.yildizgames.module.physics.bullet.shape.BulletShapeProvider;
 
 /**
  * A ghost object is meant only to be aware of objects colliding it, it is useful as trigger for example.
@@ -54,19 +55,36 @@ final class BulletGhostObject extends AbstractMovableObject implements GhostObje
     /**
      * Contains the native calls.
      */
-    private final BulletGhostObjectNative ghostNative = new BulletGhostObjectNative();
+    private final BulletGhostObjectImplementation ghostNative;
 
     private final EntityId id;
 
+    /**
+     * Shape used by the ghost object.
+     */
+    private final NativePointer shape;
+
+    /**
+     * Provider of the shape, notified when the ghost object no longer uses it.
+     */
+    private final BulletShapeProvider shapeProvider;
+
     /**
      * Create a new instance.
      *
+     * @param implementation Contains the native calls.
      * @param id             Unique identifier.
      * @param pointerAddress Native address.
      * @param world          World containing this object native address.
+     * @param shape          Shape used by the ghost object.
+     * @param shapeProvider  Provider of the shape, notified when the ghost object is deleted.
      */
-    BulletGhostObject(final EntityId id, final NativePointer pointerAddress, final NativePointer world) {
+    BulletGhostObject(final BulletGhostObjectImplementation implementation, final EntityId id, final NativePointer pointerAddress, final NativePointer world,
+                      final NativePointer shape, final BulletShapeProvider shapeProvider) {
         super();
+        this.ghostNative = implementation;
+        this.shape = shape;
+        this.shapeProvider = shapeProvider;
         this.id = id;
         this.pointer = pointerAddress;
         this.worldPointer = world;
@@ -81,6 +99,7 @@ final class BulletGhostObject extends AbstractMovableObject implements GhostObje
     public void delete() {
         this.ghostNative.delete(this.pointer.getPointerAddress(), this.worldPointer.getPointerAddress());
         this.pointer.delete();
+        this.shapeProvider.releaseShape(this.shape);
     }
 
     @Override
@@ -0,0 +1,88 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import be.yildizgames.module.physics.bullet.internal.BulletGhostObjectImplementation;
+
+/**
+ * Ghost object implementation recording the mutations in a command buffer while its world is in deferred mode.
+ *
+ * @author Grégory Van den Borre
+ */
+final class BulletGhostObjectDeferred implements BulletGhostObjectImplementation {
+
+    /**
+     * Buffer receiving the mutations.
+     */
+    private final BulletCommandBuffer commands;
+
+    /**
+     * Mode of the world containing the ghost.
+     */
+    private final BulletWorldMode mode;
+
+    /**
+     * Implementation used for the immediate calls.
+     */
+    private final BulletGhostObjectImplementation immediate;
+
+    /**
+     * Create a new instance.
+     *
+     * @param commands  Buffer receiving the mutations.
+     * @param mode      Mode of the world containing the ghost.
+     * @param immediate Implementation used for the immediate calls.
+     */
+    BulletGhostObjectDeferred(final BulletCommandBuffer commands, final BulletWorldMode mode, final BulletGhostObjectImplementation immediate) {
+        super();
+        this.commands = commands;
+        this.mode = mode;
+        this.immediate = immediate;
+    }
+
+    @Override
+    public void delete(final long pointerAddress, final long worldPointer) {
+        if (this.mode.isDeferred()) {
+            this.commands.add(BulletCommandBuffer.DELETE_GHOST, pointerAddress, false);
+        } else {
+            this.immediate.delete(pointerAddress, worldPointer);
+        }
+    }
+
+    @Override
+    public void setPosition(final long pointerAddress, final float x, final float y, final float z) {
+        if (this.mode.isDeferred()) {
+            this.commands.add(BulletCommandBuffer.GHOST_POSITION, pointerAddress, x, y, z);
+        } else {
+            this.immediate.setPosition(pointerAddress, x, y, z);
+        }
+    }
+
+    @Override
+    public float[] getPosition(final long pointerAddress) {
+        this.mode.checkNotStepping();
+        return this.immediate.getPosition(pointerAddress);
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Off heap buffer receiving the results of many rays thrown in a single native call, one record per ray in the order
+ * they were added to the BulletRayBatch.
+ * The values are read in place, so reading a result does not allocate anything.
+ * Each record contains the id of the hit object as a long, the hit point X, Y, Z values, the hit normal X, Y, Z values
+ * and the hit fraction of the ray length as floats, followed by a hit flag as an int.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletHitBuffer {
+
+    /**
+     * Id written in the records of the rays which hit nothing, the same value as the simple ray casts.
+     */
+    public static final long NO_HIT = -1L;
+
+    /**
+     * Size of a record in bytes, must match the native HIT_RECORD_SIZE value.
+     */
+    static final int RECORD_SIZE = 40;
+
+    static final int ID = 0;
+
+    static final int POINT_X = 8;
+
+    static final int POINT_Y = 12;
+
+    static final int POINT_Z = 16;
+
+    static final int NORMAL_X = 20;
+
+    static final int NORMAL_Y = 24;
+
+    static final int NORMAL_Z = 28;
+
+    static final int FRACTION = 32;
+
+    static final int HIT = 36;
+
+    /**
+     * Direct buffer shared with the native code.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Number of records currently available.
+     */
+    private int size;
+
+    /**
+     * Create a new buffer, it will grow if more results must be written in it.
+     *
+     * @param capacity Initial number of records the buffer can contain.
+     * @throws IllegalArgumentException if capacity is negative.
+     */
+    public BulletHitBuffer(final int capacity) {
+        super();
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity is negative");
+        }
+        this.buffer = allocate(capacity);
+    }
+
+    /**
+     * @return The number of records available.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @param index Record index.
+     * @return <code>true</code> if the ray hit an object, if not the other values are meaningless.
+     */
+    public boolean hasHit(final int index) {
+        return this.buffer.getInt(this.offset(index) + HIT) != 0;
+    }
+
+    /**
+     * @param index Record index.
+     * @return The id of the hit object, NO_HIT if the ray hit nothing.
+     */
+    public long getId(final int index) {
+        return this.buffer.getLong(this.offset(index) + ID);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The hit point X value.
+     */
+    public float getX(final int index) {
+        return this.buffer.getFloat(this.offset(index) + POINT_X);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The hit point Y value.
+     */
+    public float getY(final int index) {
+        return this.buffer.getFloat(this.offset(index) + POINT_Y);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The hit point Z value.
+     */
+    public float getZ(final int index) {
+        return this.buffer.getFloat(this.offset(index) + POINT_Z);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The normal X value of the hit surface.
+     */
+    public float getNormalX(final int index) {
+        return this.buffer.getFloat(this.offset(index) + NORMAL_X);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The normal Y value of the hit surface.
+     */
+    public float getNormalY(final int index) {
+        return this.buffer.getFloat(this.offset(index) + NORMAL_Y);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The normal Z value of the hit surface.
+     */
+    public float getNormalZ(final int index) {
+        return this.buffer.getFloat(this.offset(index) + NORMAL_Z);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The position of the hit point along the ray, from 0 at the origin to 1 at the destination.
+     */
+    public float getFraction(final int index) {
+        return this.buffer.getFloat(this.offset(index) + FRACTION);
+    }
+
+    /**
+     * @return The direct buffer to give to the native code.
+     */
+    ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * @return The number of records the buffer can contain.
+     */
+    int capacity() {
+        return this.buffer.capacity() / RECORD_SIZE;
+    }
+
+    /**
+     * Replace the buffer by a larger one if it cannot contain the given number of records, the content is not kept.
+     *
+     * @param capacity Number of records the buffer must be able to contain.
+     */
+    void ensureCapacity(final int capacity) {
+        if (capacity > this.capacity()) {
+            this.buffer = allocate(Math.max(capacity, this.capacity() * 2));
+        }
+    }
+
+    /**
+     * @param size Number of records written by the native code.
+     */
+    void setSize(final int size) {
+        this.size = size;
+    }
+
+    private int offset(final int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return index * RECORD_SIZE;
+    }
+
+    private static ByteBuffer allocate(final int capacity) {
+        return ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+    }
+}
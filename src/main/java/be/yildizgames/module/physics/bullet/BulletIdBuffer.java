@@ -0,0 +1,134 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Off heap buffer receiving the ids of the objects found by a region query, each id is stored as a long.
+ * The values are read in place, so reading a result does not allocate anything, and the buffer can be reused for
+ * every query.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletIdBuffer {
+
+    /**
+     * Size of an id in bytes.
+     */
+    static final int RECORD_SIZE = Long.BYTES;
+
+    /**
+     * Direct buffer shared with the native code.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Number of ids currently available.
+     */
+    private int size;
+
+    /**
+     * Create a new buffer, it will grow if more ids must be written in it.
+     *
+     * @param capacity Initial number of ids the buffer can contain.
+     * @throws IllegalArgumentException if capacity is negative.
+     */
+    public BulletIdBuffer(final int capacity) {
+        super();
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity is negative");
+        }
+        this.buffer = allocate(capacity);
+    }
+
+    /**
+     * @return The number of ids available.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @param index Id index.
+     * @return The id at the given index.
+     */
+    public long getId(final int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return this.buffer.getLong(index * RECORD_SIZE);
+    }
+
+    /**
+     * @param id Id to look for.
+     * @return <code>true</code> if the id is one of the available ones.
+     */
+    public boolean contains(final long id) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.buffer.getLong(i * RECORD_SIZE) == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The direct buffer to give to the native code.
+     */
+    ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * @return The number of ids the buffer can contain.
+     */
+    int capacity() {
+        return this.buffer.capacity() / RECORD_SIZE;
+    }
+
+    /**
+     * Replace the buffer by a larger one if it cannot contain the given number of ids, the content is not kept.
+     *
+     * @param capacity Number of ids the buffer must be able to contain.
+     */
+    void ensureCapacity(final int capacity) {
+        if (capacity > this.capacity()) {
+            this.buffer = allocate(Math.max(capacity, this.capacity() * 2));
+        }
+    }
+
+    /**
+     * @param size Number of ids written by the native code.
+     */
+    void setSize(final int size) {
+        this.size = size;
+    }
+
+    private static ByteBuffer allocate(final int capacity) {
+        return ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+    }
+}
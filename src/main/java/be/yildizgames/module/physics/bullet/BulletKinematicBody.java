@@ -30,7 +30,7 @@ import be.yildizgames.common.jni.NativePointer;
 import be.yildizgames.common.model.EntityId;
 import be.yildizgames.module.physics.KinematicBody;
 import be.yildizgames.module.physics.bullet.internal.BulletKinematicBodyImplementation;
-import jni.BulletBodyNative;
+import be.yildizgames.module.physics.bullet.shape.BulletShapeProvider;
 
 /**
  * A kinematic body is intended to be moved manually, it has a mass of 0 and is not affected by physic forces.
@@ -50,17 +50,18 @@ final class BulletKinematicBody extends BulletBody implements KinematicBody {
      */
     private final BulletKinematicBodyImplementation bodyNative;
 
-    private final BulletBodyNative bulletBodyNative = new BulletBodyNative();
-
     /**
      * Full constructor.
      *
      * @param bodyPointer  Pointer of the associated btbody object.
      * @param worldPointer Pointer of the associated btdiscreetworld object containing the body.
      * @param id           Body unique identifier.
+     * @param shape        Shape used by the body.
+     * @param shapeProvider Provider of the shape, notified when the body is deleted.
      */
-    BulletKinematicBody(BulletKinematicBodyImplementation implementation,final NativePointer bodyPointer, final NativePointer worldPointer, final EntityId id) {
-        super(implementation, bodyPointer, worldPointer, id);
+    BulletKinematicBody(BulletKinematicBodyImplementation implementation,final NativePointer bodyPointer, final NativePointer worldPointer, final EntityId id,
+                        final NativePointer shape, final BulletShapeProvider shapeProvider) {
+        super(implementation, bodyPointer, worldPointer, id, shape, shapeProvider);
         this.pointer = bodyPointer;
         this.bodyNative = implementation;
     }
@@ -87,7 +88,7 @@ final class BulletKinematicBody extends BulletBody implements KinematicBody {
 
     @Override
     public Point3D getPosition() {
-        var v = this.bulletBodyNative.getPosition(this.pointer.getPointerAddress());
+        var v = this.bodyNative.getPosition(this.pointer.getPointerAddress());
         return Point3D.valueOf(v[0], v[1], v[2]);
     }
 
@@ -96,7 +97,7 @@ final class BulletKinematicBody extends BulletBody implements KinematicBody {
      */
     @Override
     public Point3D getDirection() {
-        var v = this.bulletBodyNative.getDirection(this.pointer.getPointerAddress());
+        var v = this.bodyNative.getDirection(this.pointer.getPointerAddress());
         return Point3D.valueOf(v[0], v[1], v[2]);
     }
 }
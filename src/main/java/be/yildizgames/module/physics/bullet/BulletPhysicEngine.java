@@ -29,6 +29,8 @@ import be.yildizgames.module.physics.BasePhysicEngine;
 import be.yildizgames.module.physics.PhysicWorld;
 import jni.BulletWorldNative;
 
+import java.util.Objects;
+
 /**
  * Bullet implementation for the physic engine.
  *
@@ -39,6 +41,21 @@ public final class BulletPhysicEngine extends BasePhysicEngine {
 
     private static final System.Logger LOGGER = System.getLogger(BulletPhysicEngine.class.getName());
 
+    /**
+     * Flag to create multithreaded worlds, set once a task scheduler is available.
+     */
+    private boolean multithread;
+
+    /**
+     * Scheduler updating the worlds in parallel, created on first use.
+     */
+    private BulletWorldScheduler scheduler;
+
+    /**
+     * Shapes shared between all the worlds of this engine.
+     */
+    private final BulletShapeRegistry shapeRegistry;
+
     /**
      * Simple constructor, load the native lib.
      * @param loader Loader for the native libraries.
@@ -54,7 +71,10 @@ public final class BulletPhysicEngine extends BasePhysicEngine {
                 "libBulletCollision",
                 "libBulletDynamics",
                 "libBulletInverseDynamics",
+                "libBulletFileLoader",
+                "libBulletWorldImporter",
                 "libyildizbullet");
+        this.shapeRegistry = new BulletShapeRegistry(new BulletWorldNative());
         LOGGER.log(System.Logger.Level.INFO, "Initializing Bullet physic engine complete.");
     }
 
@@ -68,8 +88,60 @@ public final class BulletPhysicEngine extends BasePhysicEngine {
         return new BulletPhysicEngine(loader);
     }
 
+    /**
+     * Create a new world, typed to give access to the Bullet specific features.
+     * @return The created world.
+     */
+    public BulletWorld createBulletWorld() {
+        return (BulletWorld) this.createWorld();
+    }
+
+    /**
+     * Run the simulation of the worlds created after this call on several threads.
+     * If the scheduler is not available in the native library, the worlds keep using a single thread.
+     * The task scheduler is global and not reentrant: two multithreaded worlds must never be updated at the same time,
+     * the world scheduler of this engine serializes their steps.
+     * @param scheduler Bullet task scheduler to use.
+     * @param threads Number of threads to use, limited to the maximum supported by the scheduler.
+     * @return <code>true</code> if the scheduler is used, <code>false</code> if it is not available.
+     * @throws NullPointerException if scheduler is null.
+     * @throws IllegalArgumentException if threads is not positive.
+     */
+    public boolean setTaskScheduler(final BulletTaskScheduler scheduler, final int threads) {
+        Objects.requireNonNull(scheduler);
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        this.multithread = new BulletWorldNative().setTaskScheduler(scheduler.value, threads);
+        if (this.multithread) {
+            LOGGER.log(System.Logger.Level.INFO, "Bullet task scheduler " + scheduler + " using " + threads + " threads.");
+        } else {
+            LOGGER.log(System.Logger.Level.WARNING, "Bullet task scheduler " + scheduler + " not available, using a single thread.");
+        }
+        return this.multithread;
+    }
+
+    /**
+     * Provide the scheduler updating many worlds in parallel, using one thread per available processor.
+     * @return The world scheduler of this engine.
+     */
+    public synchronized BulletWorldScheduler getWorldScheduler() {
+        if (this.scheduler == null) {
+            this.scheduler = new BulletWorldScheduler(Runtime.getRuntime().availableProcessors());
+        }
+        return this.scheduler;
+    }
+
+    /**
+     * Provide the registry sharing the shapes between the worlds, to monitor them or release the unused meshes.
+     * @return The shape registry of this engine.
+     */
+    public BulletShapeRegistry getShapeRegistry() {
+        return this.shapeRegistry;
+    }
+
     @Override
     protected PhysicWorld createPhysicWorldImpl() {
-        return new BulletWorld(new BulletWorldNative());
+        return new BulletWorld(new BulletWorldNative(), this.shapeRegistry, this.multithread);
     }
 }
@@ -31,33 +31,145 @@ import be.yildizgames.module.physics.bullet.exception.IdNotProvidedException;
 import be.yildizgames.module.physics.bullet.exception.ShapeNotProvidedException;
 import be.yildizgames.module.physics.bullet.internal.BulletBodyImplementation;
 import be.yildizgames.module.physics.bullet.internal.BulletDynamicBodyImplementation;
+import be.yildizgames.module.physics.bullet.internal.BulletGhostObjectImplementation;
 import be.yildizgames.module.physics.bullet.internal.BulletKinematicBodyImplementation;
+import be.yildizgames.module.physics.bullet.shape.BulletCompoundShape;
+import be.yildizgames.module.physics.bullet.shape.BulletConvexHull;
 import be.yildizgames.module.physics.bullet.shape.BulletShapeProvider;
 import jni.BulletBodyNative;
 import jni.BulletDynamicBodyNative;
+import jni.BulletGhostObjectNative;
 import jni.BulletKinematicBodyNative;
 import jni.BulletWorldNative;
 
 /**
+ * Builder for the Bullet physic objects, also accepting the Bullet specific shapes.
+ *
  * @author Grégory Van den Borre
  */
-class BulletPhysicObjectBuilder extends PhysicObjectBuilder {
+public class BulletPhysicObjectBuilder extends PhysicObjectBuilder {
+
+    /**
+     * Collision group and mask of the static bodies when no filter is given.
+     */
+    static final int STATIC_GROUP = 2;
+
+    static final int STATIC_MASK = ~STATIC_GROUP;
+
+    /**
+     * Collision group and mask of the kinematic bodies when no filter is given, the group contains the bits 1 and 2 as
+     * the native code used the collision flags of the body, which are static and kinematic for a body without mass.
+     */
+    static final int KINEMATIC_GROUP = 3;
+
+    static final int KINEMATIC_MASK = 6;
+
+    /**
+     * Collision group and mask of the dynamic bodies when no filter is given.
+     */
+    static final int DYNAMIC_GROUP = 1;
+
+    static final int DYNAMIC_MASK = -1;
+
+    /**
+     * Collision group and mask of the ghost objects when no filter is given.
+     */
+    static final int GHOST_GROUP = 4;
+
+    static final int GHOST_MASK = 2;
 
     private final BulletShapeProvider provider;
 
+    /**
+     * <code>true</code> if the group and mask were given, <code>false</code> to use the default ones of each object type.
+     */
+    private boolean filtered;
+
+    private int group;
+
+    private int mask;
+
+    private BulletConvexHull hull;
+
+    private BulletCompoundShape compound;
+
     private final NativePointer worldPointer;
 
     private final BulletWorldNative worldNative = new BulletWorldNative();
 
-    private final BulletBodyImplementation bodyImplementation = new BulletBodyNative();
+    private final BulletBodyImplementation bodyImplementation;
+
+    private final BulletDynamicBodyImplementation dynamicBodyImplementation;
 
-    private final BulletDynamicBodyImplementation dynamicBodyImplementation = new BulletDynamicBodyNative();
+    private final BulletKinematicBodyImplementation kinematicBodyImplementation;
 
-    private final BulletKinematicBodyImplementation kinematicBodyImplementation = new BulletKinematicBodyNative();
+    private final BulletGhostObjectImplementation ghostImplementation;
 
     BulletPhysicObjectBuilder(BulletShapeProvider provider, NativePointer worldPointer) {
+        this(provider, worldPointer, new BulletBodyNative(), new BulletDynamicBodyNative(), new BulletKinematicBodyNative(), new BulletGhostObjectNative());
+    }
+
+    /**
+     * Create a builder giving to the built objects the implementations to use for their native calls.
+     *
+     * @param provider                    Provider for the shapes.
+     * @param worldPointer                Pointer of the world containing the built objects.
+     * @param bodyImplementation          Implementation for the static bodies.
+     * @param dynamicBodyImplementation   Implementation for the dynamic bodies.
+     * @param kinematicBodyImplementation Implementation for the kinematic bodies.
+     * @param ghostImplementation         Implementation for the ghost objects.
+     */
+    BulletPhysicObjectBuilder(BulletShapeProvider provider, NativePointer worldPointer,
+                              BulletBodyImplementation bodyImplementation,
+                              BulletDynamicBodyImplementation dynamicBodyImplementation,
+                              BulletKinematicBodyImplementation kinematicBodyImplementation,
+                              BulletGhostObjectImplementation ghostImplementation) {
         this.provider = provider;
         this.worldPointer = worldPointer;
+        this.bodyImplementation = bodyImplementation;
+        this.dynamicBodyImplementation = dynamicBodyImplementation;
+        this.kinematicBodyImplementation = kinematicBodyImplementation;
+        this.ghostImplementation = ghostImplementation;
+    }
+
+    /**
+     * Use a convex hull as shape, cheaper than a mesh for moving objects.
+     *
+     * @param hull Shape to use.
+     * @return This builder.
+     */
+    public BulletPhysicObjectBuilder withShape(final BulletConvexHull hull) {
+        this.hull = hull;
+        return this;
+    }
+
+    /**
+     * Use a compound of boxes, spheres and convex hulls as shape.
+     *
+     * @param compound Shape to use.
+     * @return This builder.
+     */
+    public BulletPhysicObjectBuilder withShape(final BulletCompoundShape compound) {
+        this.compound = compound;
+        return this;
+    }
+
+    /**
+     * Set the collision group of the built object and the groups it can collide with, two objects collide only if the
+     * group of each one is in the mask of the other. Without filter, the static bodies use the group 2 and collide with
+     * all the other groups, the kinematic bodies use the groups 1 and 2 and collide with the groups 2 and 4, the
+     * dynamic bodies use the group 1 and collide with all the groups, and the ghost objects use the group 4 and collide
+     * with the group 2.
+     *
+     * @param group Collision group bits of the object.
+     * @param mask  Collision group bits the object can collide with.
+     * @return This builder.
+     */
+    public BulletPhysicObjectBuilder withCollisionFilter(final int group, final int mask) {
+        this.filtered = true;
+        this.group = group;
+        this.mask = mask;
+        return this;
     }
 
     @Override
@@ -65,8 +177,10 @@ class BulletPhysicObjectBuilder extends PhysicObjectBuilder {
         if(this.id == null) {
             throw new IdNotProvidedException();
         }
-        final long bodyAddress = this.worldNative.createStaticBody(this.worldPointer.getPointerAddress(), this.getShapePointer().getPointerAddress(), id.value, position.x, position.y, position.z, direction.x, direction.y, direction.z);
-        return new BulletStaticBody(this.bodyImplementation, NativePointer.create(bodyAddress), this.worldPointer, position, direction, id);
+        final NativePointer shape = this.getShapePointer();
+        final long bodyAddress = this.worldNative.createStaticBody(this.worldPointer.getPointerAddress(), shape.getPointerAddress(), id.value, position.x, position.y, position.z, direction.x, direction.y, direction.z,
+                this.getGroup(STATIC_GROUP), this.getMask(STATIC_MASK));
+        return new BulletStaticBody(this.bodyImplementation, NativePointer.create(bodyAddress), this.worldPointer, position, direction, id, shape, this.provider);
     }
 
     @Override
@@ -74,8 +188,10 @@ class BulletPhysicObjectBuilder extends PhysicObjectBuilder {
         if(this.id == null) {
             throw new IdNotProvidedException();
         }
-        final long bodyAddress = this.worldNative.createKinematicBody(this.worldPointer.getPointerAddress(), this.getShapePointer().getPointerAddress(), id.value, position.x, position.y, position.z);
-        return new BulletKinematicBody(this.kinematicBodyImplementation, NativePointer.create(bodyAddress), this.worldPointer, id);
+        final NativePointer shape = this.getShapePointer();
+        final long bodyAddress = this.worldNative.createKinematicBody(this.worldPointer.getPointerAddress(), shape.getPointerAddress(), id.value, position.x, position.y, position.z,
+                this.getGroup(KINEMATIC_GROUP), this.getMask(KINEMATIC_MASK));
+        return new BulletKinematicBody(this.kinematicBodyImplementation, NativePointer.create(bodyAddress), this.worldPointer, id, shape, this.provider);
     }
 
     @Override
@@ -83,8 +199,10 @@ class BulletPhysicObjectBuilder extends PhysicObjectBuilder {
         if(this.id == null) {
             throw new IdNotProvidedException();
         }
-        final long bodyAddress = this.worldNative.createDynamicBody(this.worldPointer.getPointerAddress(), this.getShapePointer().getPointerAddress(), id.value, position.x, position.y, position.z, mass);
-        return new BulletDynamicBody(dynamicBodyImplementation, NativePointer.create(bodyAddress), this.worldPointer, id, mass);
+        final NativePointer shape = this.getShapePointer();
+        final long bodyAddress = this.worldNative.createDynamicBody(this.worldPointer.getPointerAddress(), shape.getPointerAddress(), id.value, position.x, position.y, position.z, mass,
+                this.getGroup(DYNAMIC_GROUP), this.getMask(DYNAMIC_MASK));
+        return new BulletDynamicBody(dynamicBodyImplementation, NativePointer.create(bodyAddress), this.worldPointer, id, mass, shape, this.provider);
     }
 
     @Override
@@ -92,10 +210,19 @@ class BulletPhysicObjectBuilder extends PhysicObjectBuilder {
         if(this.id == null) {
             throw new IdNotProvidedException();
         }
-        final long ghostAddress = this.worldNative.createGhostObject(this.worldPointer.getPointerAddress(), this.getShapePointer().getPointerAddress(), id.value, position.x, position.y, position.z);
-        return new BulletGhostObject(id, NativePointer.create(ghostAddress), this.worldPointer);
+        final NativePointer shape = this.getShapePointer();
+        final long ghostAddress = this.worldNative.createGhostObject(this.worldPointer.getPointerAddress(), shape.getPointerAddress(), id.value, position.x, position.y, position.z,
+                this.getGroup(GHOST_GROUP), this.getMask(GHOST_MASK));
+        return new BulletGhostObject(this.ghostImplementation, id, NativePointer.create(ghostAddress), this.worldPointer, shape, this.provider);
     }
 
+    private int getGroup(final int defaultGroup) {
+        return this.filtered ? this.group : defaultGroup;
+    }
+
+    private int getMask(final int defaultMask) {
+        return this.filtered ? this.mask : defaultMask;
+    }
 
     private NativePointer getShapePointer() {
         if(this.box != null) {
@@ -106,6 +233,10 @@ class BulletPhysicObjectBuilder extends PhysicObjectBuilder {
             return this.provider.getShape(plane);
         } else if (this.mesh != null) {
             return this.provider.getShape(this.mesh);
+        } else if (this.hull != null) {
+            return this.provider.getShape(this.hull);
+        } else if (this.compound != null) {
+            return this.provider.getShape(this.compound);
         }
         throw new ShapeNotProvidedException();
     }
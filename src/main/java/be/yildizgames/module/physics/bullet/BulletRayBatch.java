@@ -0,0 +1,150 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import be.yildizgames.common.geometry.Point3D;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Off heap buffer containing the origin and destination of many rays, to throw them in a single native call with
+ * BulletWorld#throwRays.
+ * Each record contains the origin X, Y, Z values followed by the destination X, Y, Z values as floats.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletRayBatch {
+
+    /**
+     * Size of a record in bytes, must match the native RAY_RECORD_SIZE value.
+     */
+    static final int RECORD_SIZE = 24;
+
+    private static final int ORIGIN_X = 0;
+
+    private static final int ORIGIN_Y = 4;
+
+    private static final int ORIGIN_Z = 8;
+
+    private static final int DESTINATION_X = 12;
+
+    private static final int DESTINATION_Y = 16;
+
+    private static final int DESTINATION_Z = 20;
+
+    /**
+     * Direct buffer shared with the native code.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Number of records currently added.
+     */
+    private int size;
+
+    /**
+     * Create a new batch, it will grow if more rays are added to it.
+     *
+     * @param capacity Initial number of rays the batch can contain.
+     * @throws IllegalArgumentException if capacity is negative.
+     */
+    public BulletRayBatch(final int capacity) {
+        super();
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity is negative");
+        }
+        this.buffer = allocate(capacity);
+    }
+
+    /**
+     * Add a ray.
+     *
+     * @param origin      Ray origin.
+     * @param destination Ray destination.
+     * @throws NullPointerException if origin or destination is null.
+     */
+    public void add(final Point3D origin, final Point3D destination) {
+        this.add(origin.x, origin.y, origin.z, destination.x, destination.y, destination.z);
+    }
+
+    /**
+     * Add a ray.
+     *
+     * @param originX      Ray origin X value.
+     * @param originY      Ray origin Y value.
+     * @param originZ      Ray origin Z value.
+     * @param destinationX Ray destination X value.
+     * @param destinationY Ray destination Y value.
+     * @param destinationZ Ray destination Z value.
+     */
+    public void add(final float originX, final float originY, final float originZ,
+                    final float destinationX, final float destinationY, final float destinationZ) {
+        if (this.size == this.buffer.capacity() / RECORD_SIZE) {
+            this.grow();
+        }
+        int offset = this.size * RECORD_SIZE;
+        this.buffer.putFloat(offset + ORIGIN_X, originX);
+        this.buffer.putFloat(offset + ORIGIN_Y, originY);
+        this.buffer.putFloat(offset + ORIGIN_Z, originZ);
+        this.buffer.putFloat(offset + DESTINATION_X, destinationX);
+        this.buffer.putFloat(offset + DESTINATION_Y, destinationY);
+        this.buffer.putFloat(offset + DESTINATION_Z, destinationZ);
+        this.size++;
+    }
+
+    /**
+     * Remove all the rays, the capacity is kept.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * @return The number of rays added.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return The direct buffer to give to the native code.
+     */
+    ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    private void grow() {
+        var larger = allocate(Math.max(1, this.size * 2));
+        var content = this.buffer.duplicate();
+        content.clear();
+        larger.put(content);
+        this.buffer = larger;
+    }
+
+    private static ByteBuffer allocate(final int capacity) {
+        return ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+    }
+}
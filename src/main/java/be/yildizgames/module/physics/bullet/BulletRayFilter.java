@@ -0,0 +1,161 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import be.yildizgames.common.model.EntityId;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reusable filter for the ray casts, evaluated in native code.
+ * A ray only hits the objects whose collision group is in the filter mask, whose collision mask contains the filter
+ * group, and whose id is not excluded.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletRayFilter {
+
+    /**
+     * Group used by the objects when none is specified.
+     */
+    public static final int DEFAULT_GROUP = 1;
+
+    /**
+     * Mask matching every group.
+     */
+    public static final int ALL_GROUPS = -1;
+
+    private int group = DEFAULT_GROUP;
+
+    private int mask = ALL_GROUPS;
+
+    /**
+     * Direct buffer shared with the native code, containing the excluded ids.
+     */
+    private ByteBuffer excluded = allocate(4);
+
+    /**
+     * Number of excluded ids.
+     */
+    private int excludedCount;
+
+    /**
+     * Create a filter accepting every object.
+     */
+    public BulletRayFilter() {
+        super();
+    }
+
+    /**
+     * @param group Collision group of the ray.
+     * @return This filter.
+     */
+    public BulletRayFilter setGroup(final int group) {
+        this.group = group;
+        return this;
+    }
+
+    /**
+     * @param mask Collision groups the ray can hit.
+     * @return This filter.
+     */
+    public BulletRayFilter setMask(final int mask) {
+        this.mask = mask;
+        return this;
+    }
+
+    /**
+     * Prevent the ray to hit an object.
+     *
+     * @param id Id of the object to ignore.
+     * @return This filter.
+     */
+    public BulletRayFilter exclude(final long id) {
+        if (this.excludedCount == this.excluded.capacity() / Long.BYTES) {
+            var larger = allocate(this.excludedCount * 2);
+            var content = this.excluded.duplicate();
+            content.clear();
+            larger.put(content);
+            this.excluded = larger;
+        }
+        this.excluded.putLong(this.excludedCount * Long.BYTES, id);
+        this.excludedCount++;
+        return this;
+    }
+
+    /**
+     * Prevent the ray to hit an object.
+     *
+     * @param id Id of the object to ignore.
+     * @return This filter.
+     * @throws NullPointerException if id is null.
+     */
+    public BulletRayFilter exclude(final EntityId id) {
+        return this.exclude(id.value);
+    }
+
+    /**
+     * Remove all the excluded ids, the capacity is kept.
+     *
+     * @return This filter.
+     */
+    public BulletRayFilter clearExcluded() {
+        this.excludedCount = 0;
+        return this;
+    }
+
+    /**
+     * @return The collision group of the ray.
+     */
+    public int getGroup() {
+        return this.group;
+    }
+
+    /**
+     * @return The collision groups the ray can hit.
+     */
+    public int getMask() {
+        return this.mask;
+    }
+
+    /**
+     * @return The number of excluded ids.
+     */
+    public int getExcludedCount() {
+        return this.excludedCount;
+    }
+
+    /**
+     * @return The direct buffer containing the excluded ids, to give to the native code.
+     */
+    ByteBuffer getExcluded() {
+        return this.excluded;
+    }
+
+    private static ByteBuffer allocate(final int capacity) {
+        return ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder());
+    }
+}
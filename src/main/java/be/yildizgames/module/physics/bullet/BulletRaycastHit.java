@@ -0,0 +1,121 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reusable holder receiving the closest hit of a ray thrown with BulletWorld#throwRay, so throwing rays in a loop does
+ * not allocate anything. The values are exact: the id is kept as a long and the coordinates as floats.
+ * The content is replaced by each ray thrown with this holder.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletRaycastHit {
+
+    /**
+     * Direct buffer shared with the native code, containing a single BulletHitBuffer record.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BulletHitBuffer.RECORD_SIZE).order(ByteOrder.nativeOrder());
+
+    /**
+     * Create an empty holder.
+     */
+    public BulletRaycastHit() {
+        super();
+        this.buffer.putLong(BulletHitBuffer.ID, BulletHitBuffer.NO_HIT);
+    }
+
+    /**
+     * @return <code>true</code> if the last ray hit an object, if not the other values are meaningless.
+     */
+    public boolean hasHit() {
+        return this.buffer.getInt(BulletHitBuffer.HIT) != 0;
+    }
+
+    /**
+     * @return The id of the hit object, BulletHitBuffer#NO_HIT if the ray hit nothing.
+     */
+    public long getId() {
+        return this.buffer.getLong(BulletHitBuffer.ID);
+    }
+
+    /**
+     * @return The hit point X value.
+     */
+    public float getX() {
+        return this.buffer.getFloat(BulletHitBuffer.POINT_X);
+    }
+
+    /**
+     * @return The hit point Y value.
+     */
+    public float getY() {
+        return this.buffer.getFloat(BulletHitBuffer.POINT_Y);
+    }
+
+    /**
+     * @return The hit point Z value.
+     */
+    public float getZ() {
+        return this.buffer.getFloat(BulletHitBuffer.POINT_Z);
+    }
+
+    /**
+     * @return The normal X value of the hit surface.
+     */
+    public float getNormalX() {
+        return this.buffer.getFloat(BulletHitBuffer.NORMAL_X);
+    }
+
+    /**
+     * @return The normal Y value of the hit surface.
+     */
+    public float getNormalY() {
+        return this.buffer.getFloat(BulletHitBuffer.NORMAL_Y);
+    }
+
+    /**
+     * @return The normal Z value of the hit surface.
+     */
+    public float getNormalZ() {
+        return this.buffer.getFloat(BulletHitBuffer.NORMAL_Z);
+    }
+
+    /**
+     * @return The position of the hit point along the ray, from 0 at the origin to 1 at the destination.
+     */
+    public float getFraction() {
+        return this.buffer.getFloat(BulletHitBuffer.FRACTION);
+    }
+
+    /**
+     * @return The direct buffer to give to the native code.
+     */
+    ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+}
@@ -0,0 +1,500 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import be.yildizgames.common.jni.NativePointer;
+import be.yildizgames.common.shape.Box;
+import be.yildizgames.common.shape.Plane;
+import be.yildizgames.common.shape.Sphere;
+import be.yildizgames.module.physics.PhysicMesh;
+import be.yildizgames.module.physics.bullet.internal.BulletShapeImplementation;
+import be.yildizgames.module.physics.bullet.shape.BulletCapsule;
+import be.yildizgames.module.physics.bullet.shape.BulletCompoundShape;
+import be.yildizgames.module.physics.bullet.shape.BulletConvexHull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Engine wide cache of the native shapes, shared by all the worlds.
+ * Each shape counts the objects using it, a box, sphere, plane, convex hull or compound shape is deleted as soon as it is no longer used, a
+ * mesh shape is kept as it is expensive to load, until evictUnusedMeshes is called.
+ * The mesh shapes are identified by the absolute path of their file and loaded from a memory mapped buffer, the
+ * acceleration structure of a triangle mesh is cached in a file next to it, named with the mesh content hash.
+ * This class is thread safe.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletShapeRegistry {
+
+    private static final System.Logger LOGGER = System.getLogger(BulletShapeRegistry.class.getName());
+
+    /**
+     * Alignment required by the native structures used in place.
+     */
+    private static final int ALIGNMENT = 16;
+
+    /**
+     * Number of hash bytes used in the cache file names.
+     */
+    private static final int HASH_LENGTH = 16;
+
+    /**
+     * Minimum size of the buffer receiving a decomposed mesh.
+     */
+    private static final int DECOMPOSITION_BUFFER_SIZE = 65536;
+
+    private static final String MESH_EXTENSION = ".bullet";
+
+    private static final String BVH_EXTENSION = ".bvh";
+
+    /**
+     * Native calls to create and delete the shapes.
+     */
+    private final BulletShapeImplementation shapeNative;
+
+    /**
+     * Shapes by their definition, the meshes use their file path.
+     */
+    private final Map<Object, Entry> shapes = new HashMap<>();
+
+    /**
+     * Shapes by the pointer given to their users.
+     */
+    private final Map<NativePointer, Entry> pointers = new IdentityHashMap<>();
+
+    private long hits;
+
+    private long misses;
+
+    private long nativeBytes;
+
+    /**
+     * Create an empty registry.
+     *
+     * @param shapeNative Native calls to create and delete the shapes.
+     */
+    BulletShapeRegistry(final BulletShapeImplementation shapeNative) {
+        super();
+        this.shapeNative = shapeNative;
+    }
+
+    /**
+     * Retrieve the shape matching a box, creating it if needed, and count one more user.
+     *
+     * @param box Shape definition.
+     * @return The pointer to the native shape.
+     */
+    synchronized NativePointer acquire(final Box box) {
+        return this.acquire(box, () -> this.newEntry(box, false, this.shapeNative.createBoxShape(box.width, box.height, box.depth), null));
+    }
+
+    /**
+     * Retrieve the shape matching a sphere, creating it if needed, and count one more user.
+     *
+     * @param sphere Shape definition.
+     * @return The pointer to the native shape.
+     */
+    synchronized NativePointer acquire(final Sphere sphere) {
+        return this.acquire(sphere, () -> this.newEntry(sphere, false, this.shapeNative.createSphereShape(sphere.radius), null));
+    }
+
+    /**
+     * Retrieve the shape matching a capsule, creating it if needed, and count one more user.
+     *
+     * @param capsule Shape definition.
+     * @return The pointer to the native shape.
+     */
+    synchronized NativePointer acquire(final BulletCapsule capsule) {
+        return this.acquire(capsule, () -> this.newEntry(capsule, false, this.shapeNative.createCapsuleShape(capsule.radius, capsule.height), null));
+    }
+
+    /**
+     * Retrieve the shape matching a plane, creating it if needed, and count one more user.
+     *
+     * @param plane Shape definition.
+     * @return The pointer to the native shape.
+     */
+    synchronized NativePointer acquire(final Plane plane) {
+        return this.acquire(plane, () -> this.newEntry(plane, false, this.shapeNative.createPlaneShape(plane.width, plane.depth), null));
+    }
+
+    /**
+     * Retrieve the shape matching a convex hull, creating it if needed, and count one more user.
+     *
+     * @param hull Shape definition.
+     * @return The pointer to the native shape.
+     */
+    synchronized NativePointer acquire(final BulletConvexHull hull) {
+        return this.acquire(hull, () -> this.newEntry(hull, false, this.shapeNative.createConvexHullShape(hull.getPoints()), null));
+    }
+
+    /**
+     * Retrieve the shape matching a compound, creating it if needed, and count one more user.
+     * The children shapes are shared as any other shape, the compound uses them until it is deleted.
+     *
+     * @param compound Shape definition.
+     * @return The pointer to the native shape.
+     */
+    synchronized NativePointer acquire(final BulletCompoundShape compound) {
+        return this.acquire(compound, () -> {
+            final long shape = this.shapeNative.createCompoundShape();
+            final List<NativePointer> children = new ArrayList<>(compound.getChildren().size());
+            for (final BulletCompoundShape.Child child : compound.getChildren()) {
+                final NativePointer childShape = this.acquireChild(child.shape);
+                children.add(childShape);
+                this.shapeNative.addCompoundChild(shape, childShape.getPointerAddress(), child.x, child.y, child.z,
+                        child.orientationX, child.orientationY, child.orientationZ, child.orientationW);
+            }
+            return new Entry(compound, NativePointer.create(shape), false, this.shapeNative.getShapeMemorySize(shape), null, children);
+        });
+    }
+
+    /**
+     * Retrieve the shape matching a mesh, loading it if needed, and count one more user.
+     * The acceleration structure of a triangle mesh is read from its cache file if it exists, otherwise it is built
+     * and the cache file is written for the next loadings.
+     *
+     * @param mesh Shape definition.
+     * @return The pointer to the native shape.
+     * @throws IllegalStateException if the mesh file does not exist.
+     */
+    synchronized NativePointer acquire(final PhysicMesh mesh) {
+        final Path file = Paths.get(mesh.file).toAbsolutePath().normalize();
+        final String key = file.toString();
+        return this.acquire(key, () -> {
+            if (Files.notExists(file)) {
+                throw new IllegalStateException("No physic trimesh for " + file);
+            }
+            final ByteBuffer data = map(file);
+            final Path cache = getBvhCacheFile(file, data);
+            final ByteBuffer bvh = Files.exists(cache) ? map(cache) : null;
+            final long shape = this.shapeNative.deserializeMesh(data, data.limit(), bvh, bvh == null ? 0 : bvh.limit());
+            if (bvh == null) {
+                this.writeBvhCache(shape, cache);
+            }
+            return this.newEntry(key, true, shape, bvh);
+        });
+    }
+
+    /**
+     * Build the acceleration structure cache file of every mesh in a directory not having one yet, to be run as a
+     * build step so the meshes are loaded without computing it.
+     *
+     * @param directory Directory containing the .bullet mesh files.
+     * @return The number of written cache files.
+     * @throws IllegalStateException if the directory or a mesh file cannot be read.
+     */
+    public synchronized int precook(final Path directory) {
+        final List<Path> files;
+        try (Stream<Path> content = Files.list(directory)) {
+            files = content
+                    .filter(f -> f.getFileName().toString().endsWith(MESH_EXTENSION))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot list the meshes in " + directory, e);
+        }
+        int cooked = 0;
+        for (final Path file : files) {
+            final ByteBuffer data = map(file);
+            final Path cache = getBvhCacheFile(file, data);
+            if (Files.notExists(cache)) {
+                final long shape = this.shapeNative.deserializeMesh(data, data.limit(), null, 0);
+                if (this.writeBvhCache(shape, cache)) {
+                    cooked++;
+                }
+                this.shapeNative.deleteShape(shape);
+            }
+        }
+        return cooked;
+    }
+
+    /**
+     * Split a triangle mesh in its connected parts and write a compound of their convex hulls in a .bullet file, to
+     * be run offline as a build step. The written file is then used as any other mesh, giving a shape cheap enough
+     * for dynamic objects.
+     * Parts are connected when their triangles share a vertex, a mesh intended to be decomposed must then model each
+     * convex part separately.
+     *
+     * @param mesh Triangle mesh file to decompose.
+     * @param output File to write the compound shape to.
+     * @throws IllegalStateException if a file cannot be read or written.
+     */
+    public void decompose(final Path mesh, final Path output) {
+        ByteBuffer data = map(mesh);
+        ByteBuffer result = ByteBuffer.allocateDirect(Math.max(data.limit(), DECOMPOSITION_BUFFER_SIZE));
+        int size = this.shapeNative.decomposeMesh(data, data.limit(), result);
+        if (size > result.capacity()) {
+            data = map(mesh);
+            result = ByteBuffer.allocateDirect(size);
+            size = this.shapeNative.decomposeMesh(data, data.limit(), result);
+        }
+        result.limit(size);
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (result.hasRemaining()) {
+                channel.write(result);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write the decomposed mesh " + output, e);
+        }
+    }
+
+    /**
+     * Count one user less for a shape, the box, sphere and plane shapes are deleted once they have no user.
+     *
+     * @param shape Pointer returned by one of the acquire methods.
+     * @throws IllegalStateException if the shape is not used.
+     */
+    synchronized void release(final NativePointer shape) {
+        final Entry entry = this.pointers.get(shape);
+        if (entry == null || entry.users == 0) {
+            throw new IllegalStateException("Shape is not used");
+        }
+        entry.users--;
+        if (entry.users == 0 && !entry.mesh) {
+            this.delete(entry);
+        }
+    }
+
+    /**
+     * Delete the mesh shapes no object is using anymore.
+     *
+     * @return The number of deleted shapes.
+     */
+    public synchronized int evictUnusedMeshes() {
+        int evicted = 0;
+        final Iterator<Entry> iterator = this.shapes.values().iterator();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if (entry.users == 0) {
+                iterator.remove();
+                this.pointers.remove(entry.pointer);
+                this.deleteNative(entry);
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * @return The current usage statistics.
+     */
+    public synchronized BulletShapeStatistics getStatistics() {
+        return new BulletShapeStatistics(this.hits, this.misses, this.shapes.size(), this.nativeBytes);
+    }
+
+    /**
+     * Map a serialized mesh file in memory, the pages are only read when the native importer parses them.
+     * The mapping is private as the importer rewrites some data in place, the changes are never written to the file.
+     * If the file cannot be opened for writing, which a private mapping requires, it is read in a direct buffer.
+     * In both cases, the content starts on a 16 bytes boundary.
+     *
+     * @param file File to map.
+     * @return A direct buffer containing the file content, limited to the file size.
+     * @throws IllegalStateException if the file cannot be read or is larger than 2GB.
+     */
+    private static ByteBuffer map(final Path file) {
+        try {
+            final long size = Files.size(file);
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Physic trimesh too large: " + file);
+            }
+            if (Files.isWritable(file)) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    return channel.map(FileChannel.MapMode.PRIVATE, 0, size);
+                }
+            }
+            final ByteBuffer buffer = ByteBuffer.allocateDirect((int) size + ALIGNMENT);
+            buffer.position((ALIGNMENT - buffer.alignmentOffset(0, ALIGNMENT)) % ALIGNMENT);
+            final ByteBuffer data = buffer.slice().limit((int) size);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (data.hasRemaining() && channel.read(data) >= 0) {
+                    //reading until the buffer is full
+                }
+            }
+            return data.flip();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read physic trimesh " + file, e);
+        }
+    }
+
+    /**
+     * Compute the cache file of the acceleration structure of a mesh, named from the mesh content hash so a modified
+     * mesh never uses a stale structure.
+     *
+     * @param file Mesh file.
+     * @param data Mesh file content, not modified.
+     * @return The cache file, next to the mesh file.
+     */
+    private static Path getBvhCacheFile(final Path file, final ByteBuffer data) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(data.duplicate());
+        final byte[] hash = digest.digest();
+        final StringBuilder name = new StringBuilder(file.getFileName().toString()).append('.');
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            name.append(Character.forDigit((hash[i] >> 4) & 0xF, 16)).append(Character.forDigit(hash[i] & 0xF, 16));
+        }
+        return file.resolveSibling(name.append(BVH_EXTENSION).toString());
+    }
+
+    /**
+     * Write the acceleration structure of a triangle mesh shape in its cache file.
+     * The structure is written in a temporary file moved once complete, so a partially written cache is never read.
+     * Failing to write the cache is not an error, the structure is built again on the next loading.
+     *
+     * @param shape Pointer of the mesh shape.
+     * @param cache File to write.
+     * @return <code>true</code> if the file is written, <code>false</code> if the shape has no acceleration structure
+     * or the file cannot be written.
+     */
+    private boolean writeBvhCache(final long shape, final Path cache) {
+        final int size = this.shapeNative.getMeshBvhSize(shape);
+        if (size == 0) {
+            return false;
+        }
+        try {
+            final Path temporary = Files.createTempFile(cache.getParent(), cache.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final MappedByteBuffer output = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                this.shapeNative.serializeMeshBvh(shape, output);
+                output.force();
+            }
+            Files.move(temporary, cache, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Cannot write the mesh cache " + cache, e);
+            return false;
+        }
+    }
+
+    private Entry newEntry(final Object key, final boolean mesh, final long shape, final ByteBuffer retained) {
+        return new Entry(key, NativePointer.create(shape), mesh, this.shapeNative.getShapeMemorySize(shape), retained, List.of());
+    }
+
+    private NativePointer acquireChild(final Object shape) {
+        if (shape instanceof Box) {
+            return this.acquire((Box) shape);
+        } else if (shape instanceof Sphere) {
+            return this.acquire((Sphere) shape);
+        }
+        return this.acquire((BulletConvexHull) shape);
+    }
+
+    private NativePointer acquire(final Object key, final Supplier<Entry> factory) {
+        Entry entry = this.shapes.get(key);
+        if (entry == null) {
+            entry = factory.get();
+            this.shapes.put(key, entry);
+            this.pointers.put(entry.pointer, entry);
+            this.nativeBytes += entry.bytes;
+            this.misses++;
+        } else {
+            this.hits++;
+        }
+        entry.users++;
+        return entry.pointer;
+    }
+
+    private void delete(final Entry entry) {
+        this.shapes.remove(entry.key);
+        this.pointers.remove(entry.pointer);
+        this.deleteNative(entry);
+    }
+
+    private void deleteNative(final Entry entry) {
+        this.shapeNative.deleteShape(entry.pointer.getPointerAddress());
+        entry.pointer.delete();
+        this.nativeBytes -= entry.bytes;
+        for (final NativePointer child : entry.children) {
+            this.release(child);
+        }
+    }
+
+    /**
+     * Native shape with its number of users.
+     */
+    private static final class Entry {
+
+        private final Object key;
+
+        private final NativePointer pointer;
+
+        private final boolean mesh;
+
+        /**
+         * Estimated native memory used by the shape.
+         */
+        private final long bytes;
+
+        /**
+         * Native data used in place by the shape, kept as long as the shape exists.
+         */
+        private final ByteBuffer retained;
+
+        /**
+         * Shapes used by a compound shape, released once it is deleted.
+         */
+        private final List<NativePointer> children;
+
+        /**
+         * Number of objects using the shape.
+         */
+        private int users;
+
+        private Entry(final Object key, final NativePointer pointer, final boolean mesh, final long bytes, final ByteBuffer retained,
+                      final List<NativePointer> children) {
+            super();
+            this.key = key;
+            this.pointer = pointer;
+            this.mesh = mesh;
+            this.bytes = bytes;
+            this.retained = retained;
+            this.children = children;
+        }
+    }
+}
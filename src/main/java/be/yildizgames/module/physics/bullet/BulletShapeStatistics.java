@@ -0,0 +1,94 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+/**
+ * Usage statistics of a BulletShapeRegistry, taken at a given time.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletShapeStatistics {
+
+    /**
+     * Number of requests served by an existing shape.
+     */
+    private final long hits;
+
+    /**
+     * Number of requests which had to create a native shape.
+     */
+    private final long misses;
+
+    /**
+     * Number of native shapes currently alive.
+     */
+    private final int liveShapes;
+
+    /**
+     * Estimated native memory used by the live shapes, in bytes.
+     */
+    private final long nativeBytes;
+
+    BulletShapeStatistics(final long hits, final long misses, final int liveShapes, final long nativeBytes) {
+        super();
+        this.hits = hits;
+        this.misses = misses;
+        this.liveShapes = liveShapes;
+        this.nativeBytes = nativeBytes;
+    }
+
+    /**
+     * @return The number of requests served by an existing shape.
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return The number of requests which had to create a native shape.
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * @return The number of native shapes currently alive, used or not.
+     */
+    public int getLiveShapes() {
+        return this.liveShapes;
+    }
+
+    /**
+     * @return The estimated native memory used by the live shapes, in bytes.
+     */
+    public long getNativeBytes() {
+        return this.nativeBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "hits: " + this.hits + ", misses: " + this.misses + ", live shapes: " + this.liveShapes + ", native bytes: " + this.nativeBytes;
+    }
+}
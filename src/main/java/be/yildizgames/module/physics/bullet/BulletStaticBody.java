@@ -29,6 +29,7 @@ import be.yildizgames.common.jni.NativePointer;
 import be.yildizgames.common.model.EntityId;
 import be.yildizgames.module.physics.StaticBody;
 import be.yildizgames.module.physics.bullet.internal.BulletBodyImplementation;
+import be.yildizgames.module.physics.bullet.shape.BulletShapeProvider;
 
 /**
  * A static body is intended to stay at its original position and will never move, it has a mass of 0 and is not affected by physic forces.
@@ -48,9 +49,12 @@ final class BulletStaticBody extends BulletBody implements StaticBody {
      * @param pointerAddress Pointer to the native object.
      * @param worldPointer   World pointer address.
      * @param id             Associated id.
+     * @param shape          Shape used by the body.
+     * @param shapeProvider  Provider of the shape, notified when the body is deleted.
      */
-    BulletStaticBody(BulletBodyImplementation implementation, final NativePointer pointerAddress, final NativePointer worldPointer, final Point3D position, final Point3D direction, final EntityId id) {
-        super(implementation, pointerAddress, worldPointer, id);
+    BulletStaticBody(BulletBodyImplementation implementation, final NativePointer pointerAddress, final NativePointer worldPointer, final Point3D position, final Point3D direction, final EntityId id,
+                     final NativePointer shape, final BulletShapeProvider shapeProvider) {
+        super(implementation, pointerAddress, worldPointer, id, shape, shapeProvider);
         this.position = position;
         this.direction = direction;
     }
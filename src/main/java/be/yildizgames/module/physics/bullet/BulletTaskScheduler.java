@@ -0,0 +1,63 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+/**
+ * Task schedulers Bullet can use to run a multithreaded simulation, the OpenMP, TBB and PPL ones are only available if
+ * the native library was built with their support.
+ *
+ * @author Grégory Van den Borre
+ */
+public enum BulletTaskScheduler {
+
+    /**
+     * Thread pool provided by Bullet.
+     */
+    DEFAULT(0),
+
+    /**
+     * OpenMP based scheduler.
+     */
+    OPENMP(1),
+
+    /**
+     * Intel Threading Building Blocks based scheduler.
+     */
+    TBB(2),
+
+    /**
+     * Microsoft Parallel Patterns Library based scheduler.
+     */
+    PPL(3);
+
+    /**
+     * Value used in native code.
+     */
+    final int value;
+
+    BulletTaskScheduler(final int value) {
+        this.value = value;
+    }
+}
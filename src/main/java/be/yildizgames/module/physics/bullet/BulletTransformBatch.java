@@ -0,0 +1,169 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import be.yildizgames.common.jni.Native;
+import be.yildizgames.module.physics.GhostObject;
+import be.yildizgames.module.physics.KinematicBody;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Off heap buffer containing the new position and orientation of many kinematic bodies and ghost objects, to apply
+ * them in a single native call with BulletWorld#applyTransforms.
+ * Each record contains the native pointer of the object as a long, followed by the position X, Y, Z values and by the
+ * orientation quaternion X, Y, Z, W values as floats, using the same layout as BulletTransformBuffer.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletTransformBatch {
+
+    private static final int POINTER = 0;
+
+    private static final int POSITION_X = 8;
+
+    private static final int POSITION_Y = 12;
+
+    private static final int POSITION_Z = 16;
+
+    private static final int ORIENTATION_X = 20;
+
+    private static final int ORIENTATION_Y = 24;
+
+    private static final int ORIENTATION_Z = 28;
+
+    private static final int ORIENTATION_W = 32;
+
+    /**
+     * Direct buffer shared with the native code.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Number of records currently added.
+     */
+    private int size;
+
+    /**
+     * Create a new batch, it will grow if more objects are added to it.
+     *
+     * @param capacity Initial number of records the batch can contain.
+     * @throws IllegalArgumentException if capacity is negative.
+     */
+    public BulletTransformBatch(final int capacity) {
+        super();
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity is negative");
+        }
+        this.buffer = allocate(capacity);
+    }
+
+    /**
+     * Add the new position and orientation of a kinematic body.
+     *
+     * @param body Body to move, must have been built by this module.
+     * @param x    Position X value.
+     * @param y    Position Y value.
+     * @param z    Position Z value.
+     * @param qx   Orientation quaternion X value.
+     * @param qy   Orientation quaternion Y value.
+     * @param qz   Orientation quaternion Z value.
+     * @param qw   Orientation quaternion W value.
+     * @throws ClassCastException if the body was not built by this module.
+     */
+    public void add(final KinematicBody body, final float x, final float y, final float z,
+                    final float qx, final float qy, final float qz, final float qw) {
+        this.add(((Native) body).getPointer().getPointerAddress(), x, y, z, qx, qy, qz, qw);
+    }
+
+    /**
+     * Add the new position and orientation of a ghost object.
+     *
+     * @param ghost Ghost object to move, must have been built by this module.
+     * @param x     Position X value.
+     * @param y     Position Y value.
+     * @param z     Position Z value.
+     * @param qx    Orientation quaternion X value.
+     * @param qy    Orientation quaternion Y value.
+     * @param qz    Orientation quaternion Z value.
+     * @param qw    Orientation quaternion W value.
+     * @throws ClassCastException if the ghost object was not built by this module.
+     */
+    public void add(final GhostObject ghost, final float x, final float y, final float z,
+                    final float qx, final float qy, final float qz, final float qw) {
+        this.add(((Native) ghost).getPointer().getPointerAddress(), x, y, z, qx, qy, qz, qw);
+    }
+
+    /**
+     * Remove all the records, the capacity is kept.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * @return The number of records added.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return The direct buffer to give to the native code.
+     */
+    ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    private void add(final long pointer, final float x, final float y, final float z,
+                     final float qx, final float qy, final float qz, final float qw) {
+        if (this.size == this.buffer.capacity() / BulletTransformBuffer.RECORD_SIZE) {
+            this.grow();
+        }
+        int offset = this.size * BulletTransformBuffer.RECORD_SIZE;
+        this.buffer.putLong(offset + POINTER, pointer);
+        this.buffer.putFloat(offset + POSITION_X, x);
+        this.buffer.putFloat(offset + POSITION_Y, y);
+        this.buffer.putFloat(offset + POSITION_Z, z);
+        this.buffer.putFloat(offset + ORIENTATION_X, qx);
+        this.buffer.putFloat(offset + ORIENTATION_Y, qy);
+        this.buffer.putFloat(offset + ORIENTATION_Z, qz);
+        this.buffer.putFloat(offset + ORIENTATION_W, qw);
+        this.size++;
+    }
+
+    private void grow() {
+        var larger = allocate(Math.max(1, this.size * 2));
+        var content = this.buffer.duplicate();
+        content.clear();
+        larger.put(content);
+        this.buffer = larger;
+    }
+
+    private static ByteBuffer allocate(final int capacity) {
+        return ByteBuffer.allocateDirect(capacity * BulletTransformBuffer.RECORD_SIZE).order(ByteOrder.nativeOrder());
+    }
+}
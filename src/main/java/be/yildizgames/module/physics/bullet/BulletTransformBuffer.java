@@ -0,0 +1,198 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Off heap buffer receiving the id, position and orientation of many objects in a single native call.
+ * The values are read in place, so reading a transform does not allocate anything.
+ * Each record contains the id as a long, followed by the position X, Y, Z values and by the orientation quaternion
+ * X, Y, Z, W values as floats, the record is padded to keep the ids aligned.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletTransformBuffer {
+
+    /**
+     * Size of a record in bytes, must match the native TRANSFORM_RECORD_SIZE value.
+     */
+    static final int RECORD_SIZE = 40;
+
+    private static final int ID = 0;
+
+    private static final int POSITION_X = 8;
+
+    private static final int POSITION_Y = 12;
+
+    private static final int POSITION_Z = 16;
+
+    private static final int ORIENTATION_X = 20;
+
+    private static final int ORIENTATION_Y = 24;
+
+    private static final int ORIENTATION_Z = 28;
+
+    private static final int ORIENTATION_W = 32;
+
+    /**
+     * Direct buffer shared with the native code.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Number of records currently available.
+     */
+    private int size;
+
+    /**
+     * Create a new buffer, it will grow if more objects must be written in it.
+     *
+     * @param capacity Initial number of records the buffer can contain.
+     * @throws IllegalArgumentException if capacity is negative.
+     */
+    public BulletTransformBuffer(final int capacity) {
+        super();
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity is negative");
+        }
+        this.buffer = allocate(capacity);
+    }
+
+    /**
+     * @return The number of records available.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @param index Record index.
+     * @return The id of the object.
+     */
+    public long getId(final int index) {
+        return this.buffer.getLong(this.offset(index) + ID);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The position X value.
+     */
+    public float getX(final int index) {
+        return this.buffer.getFloat(this.offset(index) + POSITION_X);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The position Y value.
+     */
+    public float getY(final int index) {
+        return this.buffer.getFloat(this.offset(index) + POSITION_Y);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The position Z value.
+     */
+    public float getZ(final int index) {
+        return this.buffer.getFloat(this.offset(index) + POSITION_Z);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The orientation quaternion X value.
+     */
+    public float getOrientationX(final int index) {
+        return this.buffer.getFloat(this.offset(index) + ORIENTATION_X);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The orientation quaternion Y value.
+     */
+    public float getOrientationY(final int index) {
+        return this.buffer.getFloat(this.offset(index) + ORIENTATION_Y);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The orientation quaternion Z value.
+     */
+    public float getOrientationZ(final int index) {
+        return this.buffer.getFloat(this.offset(index) + ORIENTATION_Z);
+    }
+
+    /**
+     * @param index Record index.
+     * @return The orientation quaternion W value.
+     */
+    public float getOrientationW(final int index) {
+        return this.buffer.getFloat(this.offset(index) + ORIENTATION_W);
+    }
+
+    /**
+     * @return The direct buffer to give to the native code.
+     */
+    ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * @return The number of records the buffer can contain.
+     */
+    int capacity() {
+        return this.buffer.capacity() / RECORD_SIZE;
+    }
+
+    /**
+     * Replace the buffer by a larger one if it cannot contain the given number of records, the content is not kept.
+     *
+     * @param capacity Number of records the buffer must be able to contain.
+     */
+    void ensureCapacity(final int capacity) {
+        if (capacity > this.capacity()) {
+            this.buffer = allocate(Math.max(capacity, this.capacity() * 2));
+        }
+    }
+
+    /**
+     * @param size Number of records written by the native code.
+     */
+    void setSize(final int size) {
+        this.size = size;
+    }
+
+    private int offset(final int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return index * RECORD_SIZE;
+    }
+
+    private static ByteBuffer allocate(final int capacity) {
+        return ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+    }
+}
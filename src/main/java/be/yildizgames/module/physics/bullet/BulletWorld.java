@@ -25,7 +25,6 @@
 package be.yildizgames.module.physics.bullet;
 
 import be.yildizgames.common.gameobject.CollisionListener;
-import be.yildizgames.common.gameobject.CollisionResult;
 import be.yildizgames.common.geometry.Point3D;
 import be.yildizgames.common.jni.Native;
 import be.yildizgames.common.jni.NativePointer;
@@ -36,44 +35,70 @@ import be.yildizgames.common.shape.Sphere;
 import be.yildizgames.common.time.Timer;
 import be.yildizgames.module.physics.*;
 import be.yildizgames.module.physics.bullet.internal.BulletWorldImplementation;
+import be.yildizgames.module.physics.bullet.shape.BulletCapsule;
+import be.yildizgames.module.physics.bullet.shape.BulletCompoundShape;
+import be.yildizgames.module.physics.bullet.shape.BulletConvexHull;
 import be.yildizgames.module.physics.bullet.shape.BulletShapeProvider;
+import jni.BulletBodyNative;
+import jni.BulletDynamicBodyNative;
+import jni.BulletGhostObjectNative;
+import jni.BulletKinematicBodyNative;
 
-import java.io.File;
+import java.nio.LongBuffer;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Bullet implementation for an abstract world, provide basic facilities to create and manage bullet objects.
  *
  * @author Grégory Van den Borre
  */
-final class BulletWorld implements PhysicWorld, Native, BulletShapeProvider {
+public final class BulletWorld implements PhysicWorld, Native, BulletShapeProvider {
+
+    /**
+     * Number of values before the collision pairs in the collision buffer.
+     */
+    private static final int COLLISION_HEADER_SIZE = 4;
+
+    /**
+     * Initial number of commands the deferred command buffer can contain.
+     */
+    private static final int COMMAND_BUFFER_INITIAL_CAPACITY = 256;
 
     /**
      * Contains all listeners to notify when a collision occurs or is lost.
      */
-    private final List<CollisionListener> collisionListeners = new ArrayList<>();
+    private final List<PrimitiveCollisionListener> collisionListeners = new ArrayList<>();
     /**
      * Contains all listeners to notify when a collision occurs or is lost with a ghost object.
      */
-    private final List<CollisionListener> ghostCollisionListeners = new ArrayList<>();
+    private final List<PrimitiveCollisionListener> ghostCollisionListeners = new ArrayList<>();
     /**
-     * Contains The pointer for the btshape associated to PhysicMesh object.
+     * Engine wide registry providing the shapes.
      */
-    private final Map<String, NativePointer> shapeList = new HashMap<>();
+    private final BulletShapeRegistry shapes;
     /**
-     * Contains The pointer for the btshape associated to Box object.
+     * Number of users of each shape acquired by this world, released when the world is deleted.
      */
-    private final Map<Box, NativePointer> boxList = new HashMap<>();
-
+    private final Map<NativePointer, Integer> shapeLeases = new IdentityHashMap<>();
     /**
-     * Contains The pointer for the btshape associated to Plane object.
+     * Convex shapes used by the sweeps, leased once per definition and kept until the world is deleted.
      */
-    private final Map<Plane, NativePointer> planeList = new HashMap<>();
-
+    private final Map<Object, NativePointer> sweepShapes = new HashMap<>();
+    /**
+     * Buffer given to the native code when only the existence of a contact between two objects is needed.
+     */
+    private final BulletContactBuffer pairContacts = new BulletContactBuffer(1);
     /**
-     * Contains The pointer for the btshape associated to Sphere object.
+     * Shapes released by deleted objects, given back to the registry once the next step removed these objects.
      */
-    private final Map<Sphere, NativePointer> sphereList = new HashMap<>();
+    private final List<NativePointer> pendingReleases = new ArrayList<>();
+    /**
+     * Shapes to give back to the registry once the asynchronous step in progress is completed.
+     */
+    private final List<NativePointer> stepReleases = new ArrayList<>();
     /**
      * Contains the native calls.
      */
@@ -82,105 +107,321 @@ final class BulletWorld implements PhysicWorld, Native, BulletShapeProvider {
      * Pointer address to the native associated yz::World.
      */
     private final NativePointer pointer;
+    /**
+     * Flag set if the simulation is stepped on the threads of the engine task scheduler.
+     */
+    private final boolean multithread;
     /**
      * Timer to compute time between 2 updates.
      */
     private final Timer timer = new Timer();
     /**
-     * Contains all collisions between objects for the current physic state.
+     * State computed by the synchronous updates.
      */
-    private List<CollisionResult> collisions = new ArrayList<>();
+    private final BulletWorldSnapshot state = new BulletWorldSnapshot();
     /**
-     * Contains all collisions between objects and ghost objects for the current physic state.
+     * Commands applied by the asynchronous step in progress, the game thread keeps recording in the other buffer.
      */
-    private List<CollisionResult> ghostCollisions = new ArrayList<>();
+    private final BulletCommandBuffer stepCommands = new BulletCommandBuffer(COMMAND_BUFFER_INITIAL_CAPACITY);
+    /**
+     * Snapshots alternately written by the asynchronous steps.
+     */
+    private final BulletWorldSnapshot[] snapshots = {new BulletWorldSnapshot(), new BulletWorldSnapshot()};
+    /**
+     * Index of the last published snapshot.
+     */
+    private int published;
+    /**
+     * Asynchronous step in progress, null if none.
+     */
+    private CompletableFuture<BulletWorldSnapshot> asyncStep;
+    /**
+     * Dedicated thread running the asynchronous steps, created on first use.
+     */
+    private ExecutorService physicsThread;
+    /**
+     * Mutations recorded in deferred mode, applied by the native code at the beginning of the next update.
+     */
+    private final BulletCommandBuffer commands = new BulletCommandBuffer(COMMAND_BUFFER_INITIAL_CAPACITY);
+    /**
+     * Mutation mode of this world, shared with the objects it creates.
+     */
+    private final BulletWorldMode mode = new BulletWorldMode();
     /**
      * Current gravity applied on this world.
      */
     private Point3D gravity = Point3D.ZERO;
 
     /**
-     * Create the world and update it to initiate the inner timer.
+     * Create a single threaded world and update it to initiate the inner timer.
      */
     BulletWorld(BulletWorldImplementation implementation) {
+        this(implementation, new BulletShapeRegistry(implementation), false);
+    }
+
+    /**
+     * Create the world and update it to initiate the inner timer.
+     *
+     * @param implementation Contains the native calls.
+     * @param shapes         Registry providing the shapes.
+     * @param multithread    <code>true</code> to step the simulation on the threads of the engine task scheduler.
+     */
+    BulletWorld(BulletWorldImplementation implementation, BulletShapeRegistry shapes, boolean multithread) {
         super();
         this.worldNative = implementation;
-        this.pointer = NativePointer.create(this.worldNative.constructor());
+        this.shapes = shapes;
+        this.multithread = multithread;
+        this.pointer = NativePointer.create(this.worldNative.constructor(multithread));
         this.update();
     }
 
     @Override
     public void update() {
-        final var newCollisions = this.getCollisionList();
-        final var oldCollisions = this.collisions;
-        for (final CollisionResult pair : newCollisions) {
-            if (!oldCollisions.contains(pair)) {
-                this.collisionListeners.forEach(l -> l.newCollision(pair));
-            }
+        this.updateSimulation();
+        this.notifyListeners();
+    }
+
+    /**
+     * Step the simulation without notifying the listeners, so the events can be dispatched on another thread, they
+     * remain available until the next update.
+     */
+    void updateSimulation() {
+        this.completeAsyncStep();
+        this.step(this.commands, this.timer.getActionTime(), this.state);
+        this.commands.clear();
+        this.releaseShapes(this.pendingReleases);
+    }
+
+    /**
+     * Notify the listeners about the collision events of the last synchronous update.
+     */
+    void notifyListeners() {
+        this.dispatch(this.state);
+    }
+
+    /**
+     * Step the simulation on a dedicated physics thread, so the game logic can run meanwhile.
+     * The step started by the previous call is completed first: its snapshot is published and the collision listeners
+     * are notified on the calling thread.
+     * The world switches to deferred mode, so the mutations of the world and of all its objects issued while the step
+     * runs are applied by the next one. The calls which cannot be recorded(object creation, scale, direction, object
+     * positions, transform batches and collision matrix) throw an IllegalStateException while the step runs.
+     * Calling the other native queries(ray casts, transforms, region and contact queries) while a step is running is
+     * not supported, wait for the returned future to complete before doing so.
+     *
+     * @return A future completed with the snapshot of the started step.
+     */
+    public CompletableFuture<BulletWorldSnapshot> updateAsync() {
+        this.completeAsyncStep();
+        this.mode.setDeferred(true);
+        if (this.physicsThread == null) {
+            this.physicsThread = Executors.newSingleThreadExecutor(r -> {
+                final Thread thread = new Thread(r, "bullet-physics");
+                thread.setDaemon(true);
+                return thread;
+            });
         }
+        final BulletWorldSnapshot target = this.snapshots[1 - this.published];
+        final long time = this.timer.getActionTime();
+        this.commands.transferTo(this.stepCommands);
+        this.stepReleases.addAll(this.pendingReleases);
+        this.pendingReleases.clear();
+        this.asyncStep = CompletableFuture.supplyAsync(() -> {
+            this.step(this.stepCommands, time, target);
+            this.readTransforms(target.getTransforms());
+            return target;
+        }, this.physicsThread);
+        this.mode.setStep(this.asyncStep);
+        return this.asyncStep;
+    }
 
-        for (final CollisionResult pair : oldCollisions) {
-            if (!newCollisions.contains(pair)) {
-                this.collisionListeners.forEach(l -> l.lostCollision(pair));
-            }
+    /**
+     * @return The snapshot of the last completed asynchronous step, it remains valid until the next call to updateAsync.
+     */
+    public BulletWorldSnapshot getSnapshot() {
+        return this.snapshots[this.published];
+    }
+
+    /**
+     * Wait for the asynchronous step in progress if any, publish its snapshot and notify the listeners.
+     */
+    private void completeAsyncStep() {
+        if (this.asyncStep != null) {
+            final CompletableFuture<BulletWorldSnapshot> step = this.asyncStep;
+            this.asyncStep = null;
+            final BulletWorldSnapshot snapshot = step.join();
+            this.mode.setStep(null);
+            this.published = snapshot == this.snapshots[0] ? 0 : 1;
+            this.releaseShapes(this.stepReleases);
+            this.dispatch(snapshot);
+        }
+    }
+
+    /**
+     * Apply the commands, step the simulation and retrieve the collision events.
+     *
+     * @param stepCommands Commands to apply before stepping.
+     * @param time         Time since the previous step.
+     * @param target       Snapshot receiving the collision events.
+     */
+    private void step(final BulletCommandBuffer stepCommands, final long time, final BulletWorldSnapshot target) {
+        int size = this.worldNative.update(this.pointer.getPointerAddress(), time,
+                stepCommands.getBuffer(), stepCommands.size(), target.getCollisionBuffer());
+        if (size > target.getCollisionCapacity()) {
+            target.allocateCollisionBuffer(size);
+            size = this.worldNative.getCollisionResult(this.pointer.getPointerAddress(), target.getCollisionBuffer());
         }
-        this.collisions.clear();
-        this.collisions = newCollisions;
+        target.setCollisionSize(size);
+    }
 
-        // Ghost objects
-        final var newGhostCollisions = this.getGhostCollisionList();
-        final var oldGhostCollisions = this.ghostCollisions;
+    /**
+     * Notify the listeners about the collision events of a snapshot.
+     *
+     * @param snapshot Snapshot containing the events.
+     */
+    private void dispatch(final BulletWorldSnapshot snapshot) {
+        if (snapshot.getCollisionSize() < COLLISION_HEADER_SIZE) {
+            return;
+        }
+        final LongBuffer events = snapshot.getCollisionEvents();
+        int index = COLLISION_HEADER_SIZE;
+        index = dispatchStarted(events, index, events.get(0), this.collisionListeners);
+        index = dispatchEnded(events, index, events.get(1), this.collisionListeners);
+        index = dispatchStarted(events, index, events.get(2), this.ghostCollisionListeners);
+        dispatchEnded(events, index, events.get(3), this.ghostCollisionListeners);
+    }
 
-        for (final CollisionResult pair : newGhostCollisions) {
-            if (!oldGhostCollisions.contains(pair)) {
-                this.ghostCollisionListeners.forEach(l -> l.newCollision(pair));
+    /**
+     * Notify the listeners about the collisions started during the last step, the events are read in place from the
+     * buffer shared with the native code, so nothing is allocated while dispatching.
+     *
+     * @param events    Buffer containing the collision events.
+     * @param index     Index of the first pair to read.
+     * @param pairs     Number of pairs to read.
+     * @param listeners Listeners to notify.
+     * @return The index following the last read pair.
+     */
+    private static int dispatchStarted(final LongBuffer events, final int index, final long pairs, final List<PrimitiveCollisionListener> listeners) {
+        final int end = index + (int) pairs * 2;
+        final int listenerCount = listeners.size();
+        for (int i = index; i < end; i += 2) {
+            for (int l = 0; l < listenerCount; l++) {
+                listeners.get(l).newCollision(events.get(i), events.get(i + 1));
             }
         }
+        return end;
+    }
 
-        for (final CollisionResult pair : oldGhostCollisions) {
-            if (!newGhostCollisions.contains(pair)) {
-                this.ghostCollisionListeners.forEach(l -> l.lostCollision(pair));
+    /**
+     * Notify the listeners about the collisions ended during the last step.
+     *
+     * @param events    Buffer containing the collision events.
+     * @param index     Index of the first pair to read.
+     * @param pairs     Number of pairs to read.
+     * @param listeners Listeners to notify.
+     * @return The index following the last read pair.
+     */
+    private static int dispatchEnded(final LongBuffer events, final int index, final long pairs, final List<PrimitiveCollisionListener> listeners) {
+        final int end = index + (int) pairs * 2;
+        final int listenerCount = listeners.size();
+        for (int i = index; i < end; i += 2) {
+            for (int l = 0; l < listenerCount; l++) {
+                listeners.get(l).lostCollision(events.get(i), events.get(i + 1));
             }
         }
-        this.ghostCollisions.clear();
-        this.ghostCollisions = newGhostCollisions;
-    }
-
-    private List<CollisionResult> getCollisionList() {
-        final long[] result = this.worldNative.update(this.pointer.getPointerAddress(), this.timer.getActionTime());
-        final List<CollisionResult> foundCollisions = new ArrayList<>(result.length);
-        for (int i = 0; i < result.length; i += 2) {
-            long first = result[i];
-            long second = result[i + 1];
-            if (first != 0L && second != 0L) {
-                EntityId e1 = EntityId.valueOf(first);
-                EntityId e2 = EntityId.valueOf(second);
-                if (!e1.equals(e2)) {
-                    foundCollisions.add(new CollisionResult(e1, e2));
-                }
-            }
+        return end;
+    }
+
+    /**
+     * Read the id, position and orientation of all the dynamic and kinematic bodies of this world in a single native call.
+     *
+     * @param transforms Buffer receiving the transforms, it grows if it is too small to contain all the bodies.
+     * @return The number of bodies written in the buffer.
+     * @throws NullPointerException if transforms is null.
+     */
+    public int readTransforms(final BulletTransformBuffer transforms) {
+        return this.readTransforms(transforms, false);
+    }
+
+    /**
+     * Read the id, position and orientation of all the dynamic and kinematic bodies of this world, interpolated between
+     * the last two fixed steps according to the time elapsed since the last one.
+     * This lets the rendering run smoothly at a higher rate than the simulation.
+     *
+     * @param transforms Buffer receiving the transforms, it grows if it is too small to contain all the bodies.
+     * @return The number of bodies written in the buffer.
+     * @throws NullPointerException if transforms is null.
+     */
+    public int readInterpolatedTransforms(final BulletTransformBuffer transforms) {
+        return this.readTransforms(transforms, true);
+    }
+
+    private int readTransforms(final BulletTransformBuffer transforms, final boolean interpolated) {
+        int size = this.worldNative.getTransforms(this.pointer.getPointerAddress(), transforms.getBuffer(), interpolated);
+        if (size > transforms.capacity()) {
+            transforms.ensureCapacity(size);
+            size = this.worldNative.getTransforms(this.pointer.getPointerAddress(), transforms.getBuffer(), interpolated);
         }
-        return foundCollisions;
-    }
-
-    private List<CollisionResult> getGhostCollisionList() {
-        final long[] result = this.worldNative.getGhostCollisionResult(this.pointer.getPointerAddress());
-        final List<CollisionResult> foundCollisions = new ArrayList<>();
-        for (int i = 0; i < result.length; i += 2) {
-            if (result[i] != 0 && result[i + 1] != 0) {
-                    var e1 = EntityId.valueOf(result[i]);
-                    var e2 = EntityId.valueOf(result[i + 1]);
-                    // FIXME in native code, do not return already existing
-                    // collision, use event instead(collision event will
-                    // populate a list, clean it once retrieved, collision lost
-                    // will populate another list, clean it once retrieved)
-                    if (!e1.equals(e2)) {
-                        foundCollisions.add(new CollisionResult(e1, e2));
-                    }
+        transforms.setSize(size);
+        return size;
+    }
 
-            }
+    /**
+     * Set the fixed time step used by the simulation, the time elapsed between two updates is consumed by steps of this
+     * duration, the remaining time is used to interpolate the transforms.
+     * If more than maxSubSteps steps would be needed, the exceeding time is dropped to avoid spiraling under load.
+     * The default values are 1/60 second and 7 steps.
+     *
+     * @param step        Duration of a simulation step, in seconds.
+     * @param maxSubSteps Maximum number of steps done in one update.
+     * @throws IllegalArgumentException if step or maxSubSteps is not positive.
+     */
+    public void setTimeStep(final float step, final int maxSubSteps) {
+        if (step <= 0) {
+            throw new IllegalArgumentException("Time step must be positive");
         }
-        return foundCollisions;
+        if (maxSubSteps <= 0) {
+            throw new IllegalArgumentException("Maximum sub steps must be positive");
+        }
+        if (this.mode.isDeferred()) {
+            this.commands.add(BulletCommandBuffer.SET_TIME_STEP, 0L, maxSubSteps, step);
+        } else {
+            this.worldNative.setTimeStep(this.pointer.getPointerAddress(), step, maxSubSteps);
+        }
+    }
+
+    /**
+     * Read the id, position and orientation of the dynamic bodies moved by the simulation during the last update.
+     * Sleeping and static bodies are not part of the result, so the cost only depends on the number of moving bodies.
+     *
+     * @param transforms Buffer receiving the transforms, it grows if it is too small to contain all the moved bodies.
+     * @return The number of moved bodies written in the buffer.
+     * @throws NullPointerException if transforms is null.
+     */
+    public int readMovedTransforms(final BulletTransformBuffer transforms) {
+        int size = this.worldNative.getMovedTransforms(this.pointer.getPointerAddress(), transforms.getBuffer());
+        if (size > transforms.capacity()) {
+            transforms.ensureCapacity(size);
+            size = this.worldNative.getMovedTransforms(this.pointer.getPointerAddress(), transforms.getBuffer());
+        }
+        transforms.setSize(size);
+        return size;
+    }
+
+    /**
+     * Move all the kinematic bodies and ghost objects of a batch in a single native call, the new positions and
+     * orientations are used by the next update. The batch is cleared once applied, so it can be filled again.
+     *
+     * @param batch Batch containing the objects of this world to move.
+     * @throws NullPointerException if batch is null.
+     * @throws IllegalStateException if an asynchronous step is running.
+     */
+    public void applyTransforms(final BulletTransformBatch batch) {
+        this.mode.checkNotStepping();
+        if (batch.size() > 0) {
+            this.worldNative.setTransforms(this.pointer.getPointerAddress(), batch.getBuffer(), batch.size());
+        }
+        batch.clear();
     }
 
     @Override
@@ -190,7 +431,45 @@ final class BulletWorld implements PhysicWorld, Native, BulletShapeProvider {
         final int rayCastY = 2;
         final int rayCastZ = 3;
         final long[] values = this.worldNative.raycast(this.pointer.getPointerAddress(), origin.x, origin.y, origin.z, destination.x, destination.y, destination.z);
-        return new RaycastResult(values[rayCastX], values[rayCastY], values[rayCastZ], values[rayCastId]);
+        return new RaycastResult(
+                Float.intBitsToFloat((int) values[rayCastX]),
+                Float.intBitsToFloat((int) values[rayCastY]),
+                Float.intBitsToFloat((int) values[rayCastZ]),
+                values[rayCastId]);
+    }
+
+    /**
+     * Throw a ray and write its closest hit in a reusable holder, without allocating anything.
+     *
+     * @param origin      Ray origin.
+     * @param destination Ray destination.
+     * @param hit         Holder receiving the closest hit, its previous content is replaced.
+     * @return <code>true</code> if the ray hit an object.
+     * @throws NullPointerException if a parameter is null.
+     */
+    public boolean throwRay(final Point3D origin, final Point3D destination, final BulletRaycastHit hit) {
+        return this.throwRay(origin.x, origin.y, origin.z, destination.x, destination.y, destination.z, hit);
+    }
+
+    /**
+     * Throw a ray and write its closest hit in a reusable holder, without allocating anything.
+     *
+     * @param originX      Ray origin X value.
+     * @param originY      Ray origin Y value.
+     * @param originZ      Ray origin Z value.
+     * @param destinationX Ray destination X value.
+     * @param destinationY Ray destination Y value.
+     * @param destinationZ Ray destination Z value.
+     * @param hit          Holder receiving the closest hit, its previous content is replaced.
+     * @return <code>true</code> if the ray hit an object.
+     * @throws NullPointerException if hit is null.
+     */
+    public boolean throwRay(final float originX, final float originY, final float originZ,
+                            final float destinationX, final float destinationY, final float destinationZ,
+                            final BulletRaycastHit hit) {
+        this.worldNative.raycastInto(this.pointer.getPointerAddress(), originX, originY, originZ,
+                destinationX, destinationY, destinationZ, hit.getBuffer());
+        return hit.hasHit();
     }
 
     @Override
@@ -207,47 +486,415 @@ final class BulletWorld implements PhysicWorld, Native, BulletShapeProvider {
         return this.throwSimpleRay(origin, end);
     }
 
+    /**
+     * Throw a ray and write its closest hit accepted by a filter in a reusable holder, the filtering is done in native
+     * code so a single ray replaces the repeated casts from the previous hit point.
+     *
+     * @param origin      Ray origin.
+     * @param destination Ray destination.
+     * @param filter      Filter selecting the objects the ray can hit.
+     * @param hit         Holder receiving the closest accepted hit, its previous content is replaced.
+     * @return <code>true</code> if the ray hit an accepted object.
+     * @throws NullPointerException if a parameter is null.
+     */
+    public boolean throwRay(final Point3D origin, final Point3D destination, final BulletRayFilter filter, final BulletRaycastHit hit) {
+        this.worldNative.raycastFiltered(this.pointer.getPointerAddress(), origin.x, origin.y, origin.z,
+                destination.x, destination.y, destination.z,
+                filter.getGroup(), filter.getMask(), filter.getExcluded(), filter.getExcludedCount(), hit.getBuffer());
+        return hit.hasHit();
+    }
+
+    /**
+     * Throw a ray and write all the hits accepted by a filter, sorted from the closest to the farthest.
+     *
+     * @param origin      Ray origin.
+     * @param destination Ray destination.
+     * @param filter      Filter selecting the objects the ray can hit.
+     * @param hits        Buffer receiving the hits, it grows if it is too small to contain all of them.
+     * @return The number of hits.
+     * @throws NullPointerException if a parameter is null.
+     */
+    public int throwRayAllHits(final Point3D origin, final Point3D destination, final BulletRayFilter filter, final BulletHitBuffer hits) {
+        int size = this.raycastAll(origin, destination, filter, hits);
+        if (size > hits.capacity()) {
+            hits.ensureCapacity(size);
+            size = this.raycastAll(origin, destination, filter, hits);
+        }
+        hits.setSize(size);
+        return size;
+    }
+
+    private int raycastAll(final Point3D origin, final Point3D destination, final BulletRayFilter filter, final BulletHitBuffer hits) {
+        return this.worldNative.raycastAll(this.pointer.getPointerAddress(), origin.x, origin.y, origin.z,
+                destination.x, destination.y, destination.z,
+                filter.getGroup(), filter.getMask(), filter.getExcluded(), filter.getExcludedCount(), hits.getBuffer());
+    }
+
+    /**
+     * Throw all the rays of a batch in a single native call, and write the closest hit of each one in a buffer.
+     * Large batches are split across the threads of the Bullet task scheduler, if one was set with
+     * BulletPhysicEngine#setTaskScheduler.
+     *
+     * @param rays Rays to throw.
+     * @param hits Buffer receiving one result per ray in the batch order, it grows if it is too small.
+     * @return The number of rays thrown.
+     * @throws NullPointerException if rays or hits is null.
+     */
+    public int throwRays(final BulletRayBatch rays, final BulletHitBuffer hits) {
+        final int size = rays.size();
+        hits.ensureCapacity(size);
+        if (size > 0) {
+            this.worldNative.raycastBatch(this.pointer.getPointerAddress(), rays.getBuffer(), size, hits.getBuffer());
+        }
+        hits.setSize(size);
+        return size;
+    }
+
+    /**
+     * Retrieve the shape to use to sweep a sphere, the same pointer is returned for the same sphere during the world
+     * lifetime, so it can be retrieved once and kept by the caller.
+     *
+     * @param sphere Sphere definition.
+     * @return The shape to give to the sweep methods.
+     * @throws NullPointerException if sphere is null.
+     */
+    public NativePointer getSweepShape(final Sphere sphere) {
+        return this.sweepShapes.computeIfAbsent(sphere, k -> this.lease(this.shapes.acquire(sphere)));
+    }
+
+    /**
+     * Retrieve the shape to use to sweep a box, the same pointer is returned for the same box during the world
+     * lifetime, so it can be retrieved once and kept by the caller.
+     *
+     * @param box Box definition.
+     * @return The shape to give to the sweep methods.
+     * @throws NullPointerException if box is null.
+     */
+    public NativePointer getSweepShape(final Box box) {
+        return this.sweepShapes.computeIfAbsent(box, k -> this.lease(this.shapes.acquire(box)));
+    }
+
+    /**
+     * Retrieve the shape to use to sweep a capsule, the same pointer is returned for the same capsule during the world
+     * lifetime, so it can be retrieved once and kept by the caller.
+     *
+     * @param capsule Capsule definition.
+     * @return The shape to give to the sweep methods.
+     * @throws NullPointerException if capsule is null.
+     */
+    public NativePointer getSweepShape(final BulletCapsule capsule) {
+        return this.sweepShapes.computeIfAbsent(capsule, k -> this.lease(this.shapes.acquire(capsule)));
+    }
+
+    /**
+     * Move a convex shape along a straight path, without rotating it, and write its closest hit accepted by a filter
+     * in a reusable holder. A single sweep covers the whole volume of the shape, where a probe made of rays needs
+     * several of them and can still miss thin objects.
+     *
+     * @param shape       Shape retrieved with one of the getSweepShape methods.
+     * @param origin      Position of the shape center at the beginning of the path.
+     * @param destination Position of the shape center at the end of the path.
+     * @param filter      Filter selecting the objects the shape can hit.
+     * @param hit         Holder receiving the closest accepted hit, its previous content is replaced.
+     * @return <code>true</code> if the shape hit an accepted object.
+     * @throws NullPointerException if a parameter is null.
+     */
+    public boolean sweep(final NativePointer shape, final Point3D origin, final Point3D destination, final BulletRayFilter filter, final BulletRaycastHit hit) {
+        this.worldNative.sweep(this.pointer.getPointerAddress(), shape.getPointerAddress(), origin.x, origin.y, origin.z,
+                destination.x, destination.y, destination.z,
+                filter.getGroup(), filter.getMask(), filter.getExcluded(), filter.getExcludedCount(), hit.getBuffer());
+        return hit.hasHit();
+    }
+
+    /**
+     * Move a convex shape along all the paths of a batch in a single native call, and write the closest hit of each
+     * one in a buffer. Large batches are split across the threads of the Bullet task scheduler, as for throwRays.
+     *
+     * @param shape Shape retrieved with one of the getSweepShape methods.
+     * @param paths Batch containing the origin and destination of the shape center for each path.
+     * @param hits  Buffer receiving one result per path in the batch order, it grows if it is too small.
+     * @return The number of paths swept.
+     * @throws NullPointerException if a parameter is null.
+     */
+    public int sweep(final NativePointer shape, final BulletRayBatch paths, final BulletHitBuffer hits) {
+        final int size = paths.size();
+        hits.ensureCapacity(size);
+        if (size > 0) {
+            this.worldNative.sweepBatch(this.pointer.getPointerAddress(), shape.getPointerAddress(), paths.getBuffer(), size, hits.getBuffer());
+        }
+        hits.setSize(size);
+        return size;
+    }
+
+    /**
+     * Find the objects overlapping an axis aligned box, using the broadphase tree of the world instead of a separate
+     * spatial index.
+     *
+     * @param min   Box corner with the minimum values.
+     * @param max   Box corner with the maximum values.
+     * @param exact <code>true</code> to test the object shapes, <code>false</code> to only test their bounding boxes,
+     *              which is faster but can find objects close to the box without touching it.
+     * @param ids   Buffer receiving the ids of the objects found, it grows if it is too small to contain all of them.
+     * @return The number of objects found.
+     * @throws NullPointerException if a parameter is null.
+     */
+    public int queryBox(final Point3D min, final Point3D max, final boolean exact, final BulletIdBuffer ids) {
+        int size = this.worldNative.queryAabb(this.pointer.getPointerAddress(), min.x, min.y, min.z, max.x, max.y, max.z, exact, ids.getBuffer());
+        if (size > ids.capacity()) {
+            ids.ensureCapacity(size);
+            size = this.worldNative.queryAabb(this.pointer.getPointerAddress(), min.x, min.y, min.z, max.x, max.y, max.z, exact, ids.getBuffer());
+        }
+        ids.setSize(size);
+        return size;
+    }
+
+    /**
+     * Find the objects overlapping a sphere, using the broadphase tree of the world instead of a separate spatial index.
+     *
+     * @param center Sphere center.
+     * @param radius Sphere radius.
+     * @param exact  <code>true</code> to test the object shapes, <code>false</code> to only test their bounding boxes,
+     *               which is faster but can find objects close to the sphere without touching it.
+     * @param ids    Buffer receiving the ids of the objects found, it grows if it is too small to contain all of them.
+     * @return The number of objects found.
+     * @throws NullPointerException if center or ids is null.
+     * @throws IllegalArgumentException if radius is not positive.
+     */
+    public int querySphere(final Point3D center, final float radius, final boolean exact, final BulletIdBuffer ids) {
+        if (radius <= 0) {
+            throw new IllegalArgumentException("Radius must be positive");
+        }
+        int size = this.worldNative.querySphere(this.pointer.getPointerAddress(), center.x, center.y, center.z, radius, exact, ids.getBuffer());
+        if (size > ids.capacity()) {
+            ids.ensureCapacity(size);
+            size = this.worldNative.querySphere(this.pointer.getPointerAddress(), center.x, center.y, center.z, radius, exact, ids.getBuffer());
+        }
+        ids.setSize(size);
+        return size;
+    }
+
+    /**
+     * Find the objects currently touching a body or a ghost object, computed on demand from the current positions
+     * instead of waiting for the collision events of the next update.
+     *
+     * @param object Body or ghost object created by this world.
+     * @param ids    Buffer receiving the ids of the touched objects, it grows if it is too small to contain all of them.
+     * @return The number of touched objects.
+     * @throws NullPointerException if a parameter is null.
+     */
+    public int contactTest(final Native object, final BulletIdBuffer ids) {
+        final long address = object.getPointer().getPointerAddress();
+        int size = this.worldNative.contactTest(this.pointer.getPointerAddress(), address, ids.getBuffer());
+        if (size > ids.capacity()) {
+            ids.ensureCapacity(size);
+            size = this.worldNative.contactTest(this.pointer.getPointerAddress(), address, ids.getBuffer());
+        }
+        ids.setSize(size);
+        return size;
+    }
+
+    /**
+     * Find the contact points between a body or a ghost object and all the objects it currently touches.
+     *
+     * @param object   Body or ghost object created by this world.
+     * @param contacts Buffer receiving the contact points, it grows if it is too small to contain all of them.
+     * @return The number of contact points.
+     * @throws NullPointerException if a parameter is null.
+     */
+    public int contactTest(final Native object, final BulletContactBuffer contacts) {
+        final long address = object.getPointer().getPointerAddress();
+        int size = this.worldNative.contactTestPoints(this.pointer.getPointerAddress(), address, contacts.getBuffer());
+        if (size > contacts.capacity()) {
+            contacts.ensureCapacity(size);
+            size = this.worldNative.contactTestPoints(this.pointer.getPointerAddress(), address, contacts.getBuffer());
+        }
+        contacts.setSize(size);
+        return size;
+    }
+
+    /**
+     * Check if two objects currently touch each other.
+     *
+     * @param object Body or ghost object created by this world.
+     * @param other  Other body or ghost object created by this world.
+     * @return <code>true</code> if the objects touch.
+     * @throws NullPointerException if a parameter is null.
+     */
+    public boolean contactPairTest(final Native object, final Native other) {
+        return this.worldNative.contactPairTest(this.pointer.getPointerAddress(), object.getPointer().getPointerAddress(),
+                other.getPointer().getPointerAddress(), this.pairContacts.getBuffer()) > 0;
+    }
+
+    /**
+     * Find the contact points between two objects.
+     *
+     * @param object   Body or ghost object created by this world, the contact points and normals are given on the other
+     *                 object.
+     * @param other    Other body or ghost object created by this world.
+     * @param contacts Buffer receiving the contact points, it grows if it is too small to contain all of them.
+     * @return The number of contact points, 0 if the objects do not touch.
+     * @throws NullPointerException if a parameter is null.
+     */
+    public int contactPairTest(final Native object, final Native other, final BulletContactBuffer contacts) {
+        final long address = object.getPointer().getPointerAddress();
+        final long otherAddress = other.getPointer().getPointerAddress();
+        int size = this.worldNative.contactPairTest(this.pointer.getPointerAddress(), address, otherAddress, contacts.getBuffer());
+        if (size > contacts.capacity()) {
+            contacts.ensureCapacity(size);
+            size = this.worldNative.contactPairTest(this.pointer.getPointerAddress(), address, otherAddress, contacts.getBuffer());
+        }
+        contacts.setSize(size);
+        return size;
+    }
+
     @Override
     public NativePointer getShape(final Box box) {
-        return this.boxList.computeIfAbsent(box, b ->
-            NativePointer.create(this.worldNative.createBoxShape(b.width, b.height, b.depth)));
+        return this.lease(this.shapes.acquire(box));
     }
 
     @Override
     public NativePointer getShape(final Sphere sphere) {
-        return this.sphereList.computeIfAbsent(sphere, s -> NativePointer.create(this.worldNative.createSphereShape(s.radius)));
+        return this.lease(this.shapes.acquire(sphere));
     }
 
     @Override
     public NativePointer getShape(final Plane plane) {
-        return this.planeList.computeIfAbsent(plane, p -> NativePointer.create(this.worldNative.createPlaneShape(p.width, p.depth)));
+        return this.lease(this.shapes.acquire(plane));
     }
 
-
     @Override
     public NativePointer getShape(final PhysicMesh mesh) {
-        NativePointer shapePointer = this.shapeList.get(mesh.file);
-        if (shapePointer == null) {
-            final File file = new File(mesh.file);
-            if (!file.exists()) {
-                throw new IllegalStateException("No physic trimesh for " + file.getAbsolutePath());
+        return this.lease(this.shapes.acquire(mesh));
+    }
+
+    @Override
+    public NativePointer getShape(final BulletConvexHull hull) {
+        return this.lease(this.shapes.acquire(hull));
+    }
+
+    @Override
+    public NativePointer getShape(final BulletCompoundShape compound) {
+        return this.lease(this.shapes.acquire(compound));
+    }
+
+    /**
+     * The shape is given back to the registry after the next update, once the native objects deleted meanwhile are no
+     * longer in the simulation.
+     *
+     * @param shape Pointer returned by one of the getShape methods.
+     */
+    @Override
+    public void releaseShape(final NativePointer shape) {
+        this.pendingReleases.add(shape);
+    }
+
+    private NativePointer lease(final NativePointer shape) {
+        this.shapeLeases.merge(shape, 1, Integer::sum);
+        return shape;
+    }
+
+    private void releaseShapes(final List<NativePointer> released) {
+        for (int i = 0; i < released.size(); i++) {
+            final NativePointer shape = released.get(i);
+            final Integer users = this.shapeLeases.get(shape);
+            if (users != null) {
+                if (users == 1) {
+                    this.shapeLeases.remove(shape);
+                } else {
+                    this.shapeLeases.put(shape, users - 1);
+                }
+                this.shapes.release(shape);
             }
-            final long address = this.worldNative.deserializeMesh(this.pointer.getPointerAddress(), file.getAbsolutePath());
-            shapePointer = NativePointer.create(address);
-            this.shapeList.put(mesh.file, shapePointer);
         }
-        return shapePointer;
+        released.clear();
     }
 
+    /**
+     * The built objects follow the deferred mode of this world for their whole life.
+     *
+     * @return A builder for the objects of this world.
+     * @throws IllegalStateException if an asynchronous step is running.
+     */
     @Override
     public BulletPhysicObjectBuilder createObject() {
-        return new BulletPhysicObjectBuilder(this, this.pointer);
+        this.mode.checkNotStepping();
+        return new BulletPhysicObjectBuilder(this, this.pointer,
+                new BulletBodyDeferred(this.commands, this.mode, new BulletBodyNative()),
+                new BulletDynamicBodyDeferred(this.commands, this.mode, new BulletDynamicBodyNative()),
+                new BulletKinematicBodyDeferred(this.commands, this.mode, new BulletKinematicBodyNative()),
+                new BulletGhostObjectDeferred(this.commands, this.mode, new BulletGhostObjectNative()));
+    }
+
+    /**
+     * Enable or disable the deferred mode.
+     * In deferred mode, the gravity changes and the mutations of the objects(activation, deletion, forces, positions
+     * and orientations) are recorded in an off heap command buffer and applied in the same native call as the next
+     * update, so the number of native calls per update no longer depends on the number of mutations.
+     * The objects are still created immediately, as their native pointer is needed, and the queries still return the
+     * state computed by the last update.
+     * The mode applies to all the objects of this world, including the ones created before this call.
+     *
+     * @param deferred <code>true</code> to record the mutations, <code>false</code> to call the native code immediately.
+     */
+    public void setDeferredMode(final boolean deferred) {
+        this.mode.setDeferred(deferred);
+    }
+
+    /**
+     * @return <code>true</code> if the world records the mutations until the next update.
+     */
+    public boolean isDeferredMode() {
+        return this.mode.isDeferred();
+    }
+
+    /**
+     * @return <code>true</code> if the simulation is stepped on the threads of the engine task scheduler.
+     */
+    boolean isMultithread() {
+        return this.multithread;
     }
 
     @Override
     public void delete() {
+        this.completeAsyncStep();
+        if (this.physicsThread != null) {
+            this.physicsThread.shutdown();
+        }
+        this.commands.clear();
         this.worldNative.delete(this.pointer.getPointerAddress());
         this.pointer.delete();
+        this.pendingReleases.clear();
+        this.sweepShapes.clear();
+        this.shapeLeases.forEach((shape, users) -> {
+            for (int i = 0; i < users; i++) {
+                this.shapes.release(shape);
+            }
+        });
+        this.shapeLeases.clear();
+    }
+
+    /**
+     * Set the table telling which collision groups can collide, the broadphase then drops the pairs of disabled groups
+     * before any narrowphase test. It applies to the pairs found after this call, so it is best set before adding the
+     * objects. The matrix is copied, changing it afterwards has no effect until it is set again.
+     *
+     * @param matrix Collision table to use.
+     * @throws NullPointerException if matrix is null.
+     * @throws IllegalStateException if an asynchronous step is running.
+     */
+    public void setCollisionMatrix(final BulletCollisionMatrix matrix) {
+        this.mode.checkNotStepping();
+        this.worldNative.setCollisionMatrix(this.pointer.getPointerAddress(), matrix.getRows());
+    }
+
+    /**
+     * Remove the collision table, only the group and mask of the objects are then used to filter the pairs.
+     *
+     * @throws IllegalStateException if an asynchronous step is running.
+     */
+    public void removeCollisionMatrix() {
+        this.mode.checkNotStepping();
+        this.worldNative.setCollisionMatrix(this.pointer.getPointerAddress(), null);
     }
 
     @Override
@@ -259,16 +906,40 @@ final class BulletWorld implements PhysicWorld, Native, BulletShapeProvider {
     @Override
     public void setGravity(final float gravityX, final float gravityY, final float gravityZ) {
         this.gravity = Point3D.valueOf(gravityX, gravityY, gravityZ);
-        this.worldNative.setGravity(this.pointer.getPointerAddress(), gravityX, -gravityY, gravityZ);
+        if (this.mode.isDeferred()) {
+            this.commands.add(BulletCommandBuffer.SET_GRAVITY, 0L, gravityX, -gravityY, gravityZ);
+        } else {
+            this.worldNative.setGravity(this.pointer.getPointerAddress(), gravityX, -gravityY, gravityZ);
+        }
     }
 
     @Override
     public final void addCollisionListener(final CollisionListener listener) {
-        this.collisionListeners.add(Objects.requireNonNull(listener));
+        this.collisionListeners.add(new CollisionListenerAdapter(Objects.requireNonNull(listener)));
     }
 
     @Override
     public final void addGhostCollisionListener(final CollisionListener listener) {
+        this.ghostCollisionListeners.add(new CollisionListenerAdapter(Objects.requireNonNull(listener)));
+    }
+
+    /**
+     * Add a listener notified with the raw id values when a collision occurs or is lost.
+     *
+     * @param listener Listener to add.
+     * @throws NullPointerException if listener is null.
+     */
+    public void addPrimitiveCollisionListener(final PrimitiveCollisionListener listener) {
+        this.collisionListeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Add a listener notified with the raw id values when a collision occurs or is lost with a ghost object.
+     *
+     * @param listener Listener to add.
+     * @throws NullPointerException if listener is null.
+     */
+    public void addPrimitiveGhostCollisionListener(final PrimitiveCollisionListener listener) {
         this.ghostCollisionListeners.add(Objects.requireNonNull(listener));
     }
 
@@ -0,0 +1,78 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import java.util.concurrent.Future;
+
+/**
+ * Mutation mode of a world, shared with the implementations of its objects so they follow the mode of the world at
+ * call time instead of the mode at their creation.
+ *
+ * @author Grégory Van den Borre
+ */
+final class BulletWorldMode {
+
+    /**
+     * Flag to record the mutations in the command buffer instead of calling the native code immediately.
+     */
+    private boolean deferred;
+
+    /**
+     * Asynchronous step last started, null if none.
+     */
+    private Future<?> step;
+
+    /**
+     * @return <code>true</code> if the mutations are recorded until the next update.
+     */
+    boolean isDeferred() {
+        return this.deferred;
+    }
+
+    /**
+     * @param deferred <code>true</code> to record the mutations, <code>false</code> to call the native code immediately.
+     */
+    void setDeferred(final boolean deferred) {
+        this.deferred = deferred;
+    }
+
+    /**
+     * @param step Asynchronous step started, null once it is completed.
+     */
+    void setStep(final Future<?> step) {
+        this.step = step;
+    }
+
+    /**
+     * Ensure no asynchronous step is running, before a native call that cannot be recorded in the command buffer.
+     *
+     * @throws IllegalStateException if an asynchronous step is running.
+     */
+    void checkNotStepping() {
+        if (this.step != null && !this.step.isDone()) {
+            throw new IllegalStateException("The world is being updated by an asynchronous step.");
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Update many worlds in parallel, each one at its own tick rate, using a work stealing pool.
+ * A world is never updated by two threads at the same time, even when it is scheduled again while a tick is running.
+ * The simulation steps run on the pool, the collision listeners of all the worlds are notified on a single thread
+ * owned by the scheduler, so they are never called concurrently and always from the same thread.
+ * The Bullet task scheduler used by the multithreaded worlds is global and not reentrant, so the steps of those worlds
+ * are serialized, only the single threaded worlds are really stepped in parallel.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletWorldScheduler implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(BulletWorldScheduler.class.getName());
+
+    /**
+     * Work stealing pool running the simulation steps.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Thread triggering the ticks at the expected rate.
+     */
+    private final ScheduledExecutorService clock;
+
+    /**
+     * Thread notifying the collision listeners.
+     */
+    private final ExecutorService dispatcher;
+
+    /**
+     * Scheduled worlds, a world unscheduled while its tick is running is kept until the tick is completed.
+     */
+    private final Map<BulletWorld, Registration> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Lock held while a multithreaded world is stepped, the Bullet task scheduler cannot run two steps at once.
+     */
+    private final Object taskSchedulerLock = new Object();
+
+    /**
+     * Listener notified when a world cannot keep up with its tick rate.
+     */
+    private volatile BulletWorldOverloadListener overloadListener = (world, duration, period) -> {};
+
+    /**
+     * Create a new scheduler.
+     *
+     * @param parallelism Number of threads updating the worlds.
+     * @throws IllegalArgumentException if parallelism is not positive.
+     */
+    BulletWorldScheduler(final int parallelism) {
+        super();
+        this.pool = new ForkJoinPool(parallelism);
+        this.clock = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "bullet-world-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = Executors.newSingleThreadExecutor(r -> {
+            final Thread thread = new Thread(r, "bullet-world-listeners");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start updating a world at a fixed rate, if the world is already scheduled, its rate is replaced and the next tick
+     * occurs after the new period.
+     * A multithreaded world already uses the threads of the Bullet task scheduler, which is shared and not reentrant,
+     * so it is never stepped at the same time as another multithreaded world of this scheduler.
+     * Such a world must not be updated outside of this scheduler while it is scheduled.
+     *
+     * @param world    World to update.
+     * @param tickRate Number of updates per second.
+     * @throws NullPointerException     if world is null.
+     * @throws IllegalArgumentException if tickRate is not positive.
+     */
+    public void schedule(final BulletWorld world, final int tickRate) {
+        Objects.requireNonNull(world);
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive");
+        }
+        final long period = TimeUnit.SECONDS.toNanos(1) / tickRate;
+        this.worlds.compute(world, (w, existing) -> {
+            if (existing == null) {
+                final Registration registration = new Registration(w);
+                registration.start(period, 0);
+                return registration;
+            }
+            existing.stop();
+            existing.start(period, period);
+            return existing;
+        });
+    }
+
+    /**
+     * Stop updating a world, a tick already running is completed.
+     *
+     * @param world World to stop updating.
+     */
+    public void unschedule(final BulletWorld world) {
+        this.worlds.computeIfPresent(world, (w, registration) -> {
+            registration.stop();
+            return registration.running.get() ? registration : null;
+        });
+    }
+
+    /**
+     * @param listener Listener notified when a world cannot keep up with its tick rate.
+     * @throws NullPointerException if listener is null.
+     */
+    public void setOverloadListener(final BulletWorldOverloadListener listener) {
+        this.overloadListener = Objects.requireNonNull(listener);
+    }
+
+    /**
+     * @return The number of scheduled worlds.
+     */
+    public int getWorldCount() {
+        return (int) this.worlds.values().stream().filter(r -> r.scheduled).count();
+    }
+
+    /**
+     * Stop updating all the worlds and release the threads.
+     */
+    @Override
+    public void close() {
+        this.worlds.values().forEach(Registration::stop);
+        this.worlds.clear();
+        this.clock.shutdown();
+        this.pool.shutdown();
+        this.dispatcher.shutdown();
+    }
+
+    /**
+     * Scheduling state of a world, kept for the whole time the world is scheduled so its ticks share the same guard.
+     */
+    private final class Registration {
+
+        private final BulletWorld world;
+
+        /**
+         * Flag set while a tick is running, from its submission to the pool until its listeners are notified, to
+         * prevent concurrent updates of the world.
+         */
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        /**
+         * Time between two ticks, in nanoseconds.
+         */
+        private volatile long period;
+
+        /**
+         * Flag set while the world is scheduled.
+         */
+        private volatile boolean scheduled;
+
+        /**
+         * Start time of the current tick.
+         */
+        private volatile long start;
+
+        private volatile ScheduledFuture<?> trigger;
+
+        private Registration(final BulletWorld world) {
+            super();
+            this.world = world;
+        }
+
+        /**
+         * Start triggering the ticks.
+         *
+         * @param period Time between two ticks, in nanoseconds.
+         * @param delay  Time before the first tick, in nanoseconds.
+         */
+        private void start(final long period, final long delay) {
+            this.period = period;
+            this.scheduled = true;
+            this.trigger = clock.scheduleAtFixedRate(this::tick, delay, period, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Submit a simulation step of the world to the pool, unless the previous tick is still running.
+         */
+        private void tick() {
+            if (!this.running.compareAndSet(false, true)) {
+                overloadListener.overloaded(this.world, System.nanoTime() - this.start, this.period);
+                return;
+            }
+            this.start = System.nanoTime();
+            if (!this.scheduled) {
+                this.complete();
+                return;
+            }
+            try {
+                pool.execute(this::update);
+            } catch (RejectedExecutionException e) {
+                //the scheduler is closed.
+                this.complete();
+            }
+        }
+
+        private void update() {
+            try {
+                if (this.world.isMultithread()) {
+                    synchronized (taskSchedulerLock) {
+                        this.world.updateSimulation();
+                    }
+                } else {
+                    this.world.updateSimulation();
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.ERROR, "Error while updating a world", e);
+                this.complete();
+                return;
+            }
+            try {
+                dispatcher.execute(this::dispatch);
+            } catch (RejectedExecutionException e) {
+                //the scheduler is closed, the events are dropped.
+                this.complete();
+            }
+        }
+
+        private void dispatch() {
+            try {
+                this.world.notifyListeners();
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.ERROR, "Error while notifying the listeners of a world", e);
+            } finally {
+                this.complete();
+            }
+        }
+
+        /**
+         * Release the guard once the tick is done, and forget the world if it was unscheduled meanwhile.
+         */
+        private void complete() {
+            final long duration = System.nanoTime() - this.start;
+            this.running.set(false);
+            if (duration > this.period) {
+                overloadListener.overloaded(this.world, duration, this.period);
+            }
+            worlds.computeIfPresent(this.world, (w, registration) -> registration.scheduled ? registration : null);
+        }
+
+        /**
+         * Stop triggering the ticks.
+         */
+        private void stop() {
+            this.scheduled = false;
+            if (this.trigger != null) {
+                this.trigger.cancel(false);
+            }
+        }
+    }
+}
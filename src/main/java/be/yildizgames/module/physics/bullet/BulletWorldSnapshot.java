@@ -0,0 +1,133 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * State of a world computed by a simulation step: the collision events and the transforms of the moving bodies.
+ * The snapshots are reused, a snapshot returned by an asynchronous update remains valid until the next call to
+ * BulletWorld#updateAsync, the simulation never writes in it meanwhile.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletWorldSnapshot {
+
+    /**
+     * Initial number of long values the collision buffer can contain.
+     */
+    private static final int COLLISION_BUFFER_INITIAL_CAPACITY = 1024;
+
+    /**
+     * Initial number of transforms the snapshot can contain.
+     */
+    private static final int TRANSFORM_INITIAL_CAPACITY = 256;
+
+    /**
+     * Transforms of the dynamic and kinematic bodies.
+     */
+    private final BulletTransformBuffer transforms = new BulletTransformBuffer(TRANSFORM_INITIAL_CAPACITY);
+
+    /**
+     * Direct buffer shared with the native code, receiving the collision events.
+     */
+    private ByteBuffer collisionBuffer;
+
+    /**
+     * Read only view on the collision buffer to read the events in place.
+     */
+    private LongBuffer collisionEvents;
+
+    /**
+     * Number of long values in the collision events.
+     */
+    private int collisionSize;
+
+    /**
+     * Create an empty snapshot.
+     */
+    BulletWorldSnapshot() {
+        super();
+        this.allocateCollisionBuffer(COLLISION_BUFFER_INITIAL_CAPACITY);
+    }
+
+    /**
+     * @return The id, position and orientation of the dynamic and kinematic bodies at the end of the step.
+     */
+    public BulletTransformBuffer getTransforms() {
+        return this.transforms;
+    }
+
+    /**
+     * Replace the collision buffer by a larger one.
+     *
+     * @param capacity Number of long values the buffer must be able to contain.
+     */
+    void allocateCollisionBuffer(final int capacity) {
+        this.collisionBuffer = ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder());
+        this.collisionEvents = this.collisionBuffer.asLongBuffer().asReadOnlyBuffer();
+    }
+
+    /**
+     * @return The direct buffer to give to the native code.
+     */
+    ByteBuffer getCollisionBuffer() {
+        return this.collisionBuffer;
+    }
+
+    /**
+     * The events start with a header of 4 pair counts: started collisions, ended collisions, started ghost collisions
+     * and ended ghost collisions. The pairs of ids follow in the same order, the ghost pairs are ordered as
+     * (ghost id, body id).
+     *
+     * @return The collision events written by the native code, the valid values are given by getCollisionSize.
+     */
+    public LongBuffer getCollisionEvents() {
+        return this.collisionEvents;
+    }
+
+    /**
+     * @return The number of long values the collision buffer can contain.
+     */
+    int getCollisionCapacity() {
+        return this.collisionEvents.capacity();
+    }
+
+    /**
+     * @return The number of long values in the collision events, 0 if the step produced none.
+     */
+    public int getCollisionSize() {
+        return this.collisionSize;
+    }
+
+    /**
+     * @param size Number of long values written by the native code.
+     */
+    void setCollisionSize(final int size) {
+        this.collisionSize = size;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import be.yildizgames.common.gameobject.CollisionListener;
+import be.yildizgames.common.gameobject.CollisionResult;
+import be.yildizgames.common.model.EntityId;
+
+/**
+ * Notify a CollisionListener from the primitive collision events, the CollisionResult is only built when an event occurs.
+ *
+ * @author Grégory Van den Borre
+ */
+final class CollisionListenerAdapter implements PrimitiveCollisionListener {
+
+    /**
+     * Wrapped listener.
+     */
+    private final CollisionListener listener;
+
+    CollisionListenerAdapter(final CollisionListener listener) {
+        super();
+        this.listener = listener;
+    }
+
+    @Override
+    public void newCollision(final long id1, final long id2) {
+        this.listener.newCollision(toResult(id1, id2));
+    }
+
+    @Override
+    public void lostCollision(final long id1, final long id2) {
+        this.listener.lostCollision(toResult(id1, id2));
+    }
+
+    private static CollisionResult toResult(final long id1, final long id2) {
+        return new CollisionResult(EntityId.valueOf(id1), EntityId.valueOf(id2));
+    }
+}
@@ -25,45 +25,156 @@ package be.yildizgames.module.physics.bullet.dummy;
 
 import be.yildizgames.module.physics.bullet.internal.BulletWorldImplementation;
 
+import java.nio.ByteBuffer;
+
 public class DummyBulletWorldImplementation implements BulletWorldImplementation {
 
     @Override
-    public long constructor() {
+    public long constructor(boolean multithread) {
         return 0;
     }
 
+    @Override
+    public boolean setTaskScheduler(int scheduler, int threads) {
+        return false;
+    }
+
     @Override
     public long[] raycast(long pointerAddress, float beginX, float beginY, float beginZ, float endX, float endY, float endZ) {
         return new long[]{1,2,3,4};
     }
 
+    @Override
+    public void raycastInto(long pointerAddress, float beginX, float beginY, float beginZ, float endX, float endY, float endZ, ByteBuffer output) {
+        //does nothing
+    }
+
+    @Override
+    public void raycastFiltered(long pointerAddress, float beginX, float beginY, float beginZ, float endX, float endY, float endZ,
+                                int group, int mask, ByteBuffer excluded, int excludedCount, ByteBuffer output) {
+        //does nothing
+    }
+
+    @Override
+    public int raycastAll(long pointerAddress, float beginX, float beginY, float beginZ, float endX, float endY, float endZ,
+                          int group, int mask, ByteBuffer excluded, int excludedCount, ByteBuffer output) {
+        return 0;
+    }
+
+    @Override
+    public void raycastBatch(long pointerAddress, ByteBuffer rays, int count, ByteBuffer output) {
+        //does nothing
+    }
+
+    @Override
+    public void sweep(long pointerAddress, long shape, float beginX, float beginY, float beginZ, float endX, float endY, float endZ,
+                      int group, int mask, ByteBuffer excluded, int excludedCount, ByteBuffer output) {
+        //does nothing
+    }
+
+    @Override
+    public void sweepBatch(long pointerAddress, long shape, ByteBuffer paths, int count, ByteBuffer output) {
+        //does nothing
+    }
+
+    @Override
+    public int queryAabb(long pointerAddress, float minX, float minY, float minZ, float maxX, float maxY, float maxZ, boolean exact, ByteBuffer output) {
+        return 0;
+    }
+
+    @Override
+    public int querySphere(long pointerAddress, float x, float y, float z, float radius, boolean exact, ByteBuffer output) {
+        return 0;
+    }
+
+    @Override
+    public int contactTest(long pointerAddress, long object, ByteBuffer output) {
+        return 0;
+    }
+
+    @Override
+    public int contactTestPoints(long pointerAddress, long object, ByteBuffer output) {
+        return 0;
+    }
+
+    @Override
+    public int contactPairTest(long pointerAddress, long object, long other, ByteBuffer output) {
+        return 0;
+    }
+
     @Override
     public long simpleRaycast(long pointerAddress, float beginX, float beginY, float beginZ, float endX, float endY, float endZ) {
         return 0;
     }
 
     @Override
-    public long deserializeMesh(long pointerAddress, String file) {
+    public long deserializeMesh(ByteBuffer data, int size, ByteBuffer bvh, int bvhSize) {
+        return 0;
+    }
+
+    @Override
+    public long createConvexHullShape(float[] points) {
+        return 0;
+    }
+
+    @Override
+    public long createCompoundShape() {
+        return 0;
+    }
+
+    @Override
+    public void addCompoundChild(long compound, long child, float x, float y, float z,
+                                 float orientationX, float orientationY, float orientationZ, float orientationW) {
+        //does nothing
+    }
+
+    @Override
+    public int decomposeMesh(ByteBuffer data, int size, ByteBuffer output) {
+        return 0;
+    }
+
+    @Override
+    public int getMeshBvhSize(long shape) {
         return 0;
     }
 
+    @Override
+    public void serializeMeshBvh(long shape, ByteBuffer output) {
+        //does nothing
+    }
+
+    @Override
+    public void deleteShape(long shape) {
+        //does nothing
+    }
+
+    @Override
+    public long getShapeMemorySize(long shape) {
+        return 0;
+    }
+
+    @Override
+    public void setCollisionMatrix(long pointerAddress, int[] rows) {
+        //does nothing
+    }
+
     @Override
     public void setGravity(long pointerAddress, float gravityX, float gravityY, float gravityZ) {
         //does nothing
     }
 
     @Override
-    public long createStaticBody(long pointerAddress, long shape, long id, float x, float y, float z, float dX, float dY, float dZ) {
+    public long createStaticBody(long pointerAddress, long shape, long id, float x, float y, float z, float dX, float dY, float dZ, int group, int mask) {
         return 0;
     }
 
     @Override
-    public long createKinematicBody(long pointerAddress, long shape, long id, float x, float y, float z) {
+    public long createKinematicBody(long pointerAddress, long shape, long id, float x, float y, float z, int group, int mask) {
         return 0;
     }
 
     @Override
-    public long createDynamicBody(long pointerAddress, long shape, long id, float x, float y, float z, float mass) {
+    public long createDynamicBody(long pointerAddress, long shape, long id, float x, float y, float z, float mass, int group, int mask) {
         return 0;
     }
 
@@ -83,23 +194,48 @@ public class DummyBulletWorldImplementation implements BulletWorldImplementation
     }
 
     @Override
-    public long[] update(long pointerAddress, long time) {
-        return new long[0];
+    public long createCapsuleShape(float radius, float height) {
+        return 0;
     }
 
     @Override
-    public void removeBody(long pointerAddress, long bodyPointer) {
+    public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+        return 0;
+    }
+
+    @Override
+    public int getCollisionResult(long pointerAddress, ByteBuffer output) {
+        return 0;
+    }
+
+    @Override
+    public int getTransforms(long pointerAddress, ByteBuffer output, boolean interpolated) {
+        return 0;
+    }
+
+    @Override
+    public void setTimeStep(long pointerAddress, float step, int maxSubSteps) {
         //does nothing
     }
 
     @Override
-    public long createGhostObject(long pointerAddress, long shape, long id, float x, float y, float z) {
+    public int getMovedTransforms(long pointerAddress, ByteBuffer output) {
         return 0;
     }
 
     @Override
-    public long[] getGhostCollisionResult(long pointerAddress) {
-        return new long[0];
+    public void setTransforms(long pointerAddress, ByteBuffer input, int count) {
+        //does nothing
+    }
+
+    @Override
+    public void removeBody(long pointerAddress, long bodyPointer) {
+        //does nothing
+    }
+
+    @Override
+    public long createGhostObject(long pointerAddress, long shape, long id, float x, float y, float z, int group, int mask) {
+        return 0;
     }
 
     @Override
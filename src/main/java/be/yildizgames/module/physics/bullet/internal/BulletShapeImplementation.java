@@ -0,0 +1,149 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet.internal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Native calls to manage the btshapes, the shapes do not depend on a world and can be shared between them.
+ *
+ * @author Grégory Van den Borre
+ */
+public interface BulletShapeImplementation {
+
+    /**
+     * Create a btshape from the content of a serialized file.
+     *
+     * @param data Direct buffer containing the file content, usually mapped in memory, it may be modified.
+     * @param size Number of bytes to read from the buffer.
+     * @param bvh Direct buffer containing the acceleration structure written by serializeMeshBvh for the same data,
+     *            null to build it. It is used in place, so it must be kept as long as the shape exists.
+     * @param bvhSize Number of bytes to read from the acceleration structure buffer.
+     * @return A pointer to the btshape retrieved from the serialized data.
+     */
+    long deserializeMesh(ByteBuffer data, int size, ByteBuffer bvh, int bvhSize);
+
+    /**
+     * Create a convex hull shape.
+     *
+     * @param points Point coordinates, packed as x, y, z.
+     * @return A pointer to the created btshape.
+     */
+    long createConvexHullShape(float[] points);
+
+    /**
+     * Create an empty compound shape.
+     *
+     * @return A pointer to the created btshape.
+     */
+    long createCompoundShape();
+
+    /**
+     * Add a shape to a compound shape, the child is not deleted with the compound.
+     *
+     * @param compound Pointer of the compound shape.
+     * @param child Pointer of the shape to add.
+     * @param x Child position X value, relative to the compound origin.
+     * @param y Child position Y value, relative to the compound origin.
+     * @param z Child position Z value, relative to the compound origin.
+     * @param orientationX Child orientation X value.
+     * @param orientationY Child orientation Y value.
+     * @param orientationZ Child orientation Z value.
+     * @param orientationW Child orientation W value.
+     */
+    void addCompoundChild(long compound, long child, float x, float y, float z,
+                          float orientationX, float orientationY, float orientationZ, float orientationW);
+
+    /**
+     * Split a serialized triangle mesh in its connected parts and serialize a compound of their convex hulls.
+     *
+     * @param data Direct buffer containing the serialized mesh, it may be modified.
+     * @param size Number of bytes to read from the buffer.
+     * @param output Direct buffer receiving the serialized compound shape.
+     * @return The size of the serialized compound, greater than the output capacity if it was too small.
+     */
+    int decomposeMesh(ByteBuffer data, int size, ByteBuffer output);
+
+    /**
+     * Compute the size needed to serialize the acceleration structure of a triangle mesh shape.
+     *
+     * @param shape Pointer of the shape.
+     * @return The size in bytes, 0 if the shape is not a triangle mesh.
+     */
+    int getMeshBvhSize(long shape);
+
+    /**
+     * Serialize the acceleration structure of a triangle mesh shape, to be given back to deserializeMesh.
+     *
+     * @param shape Pointer of the shape.
+     * @param output Direct buffer receiving the structure, 16 bytes aligned and at least getMeshBvhSize bytes long.
+     */
+    void serializeMeshBvh(long shape, ByteBuffer output);
+
+    /**
+     * Create a box btshape in native code.
+     *
+     * @param width  Box width size.
+     * @param height Box height size.
+     * @param depth  Box depth size.
+     * @return A pointer to the newly create btshape.
+     */
+    long createBoxShape(float width, float height, float depth);
+
+    long createPlaneShape(int width, int depth);
+
+    /**
+     * Create a sphere btshape in native code.
+     *
+     * @param radius Sphere radius size.
+     * @return A pointer to the newly create btshape.
+     */
+    long createSphereShape(float radius);
+
+    /**
+     * Create a capsule btshape aligned on the Y axis in native code.
+     *
+     * @param radius Capsule radius size.
+     * @param height Height of the cylinder part.
+     * @return A pointer to the newly create btshape.
+     */
+    long createCapsuleShape(float radius, float height);
+
+    /**
+     * Delete a btshape in native code, with the meshes and children loaded with it from a file, no object must use it
+     * anymore.
+     *
+     * @param shape Pointer address of the btshape to delete.
+     */
+    void deleteShape(long shape);
+
+    /**
+     * Estimate the native memory used by a btshape.
+     *
+     * @param shape Pointer address of the btshape.
+     * @return The estimated size of the shape, with its mesh arrays and acceleration structure, in bytes.
+     */
+    long getShapeMemorySize(long shape);
+}
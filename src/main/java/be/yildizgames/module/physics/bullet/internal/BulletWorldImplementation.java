@@ -24,17 +24,30 @@
 
 package be.yildizgames.module.physics.bullet.internal;
 
+import java.nio.ByteBuffer;
+
 /**
  * @author Grégory Van den Borre
  */
-public interface BulletWorldImplementation {
+public interface BulletWorldImplementation extends BulletShapeImplementation {
 
     /**
      * Create a new yz::World in native code.
      *
+     * @param multithread <code>true</code> to create a btDiscreteDynamicsWorldMt using the parallel solver pool and the
+     *                    task scheduler set with setTaskScheduler, <code>false</code> for a single threaded world.
      * @return The pointer value of the created object.
      */
-    long constructor();
+    long constructor(boolean multithread);
+
+    /**
+     * Set the Bullet task scheduler used by all the multithreaded worlds.
+     *
+     * @param scheduler Scheduler value, as defined in BulletTaskScheduler.
+     * @param threads   Number of threads to use, limited to the maximum supported by the scheduler.
+     * @return <code>true</code> if the scheduler is set, <code>false</code> if it is not available in the native build.
+     */
+    boolean setTaskScheduler(int scheduler, int threads);
 
     /**
      * Throw a ray and retrieve its collision point and collided object.
@@ -46,10 +59,25 @@ public interface BulletWorldImplementation {
      * @param endX           Ray end X value.
      * @param endY           Ray end Y value.
      * @param endZ           Ray end Z value.
-     * @return an array containing the id of the intersected object, the x, y and z values of the intersection point.
+     * @return an array containing the id of the intersected object, -1 if nothing is hit, followed by the x, y and z
+     * values of the intersection point, each one stored as the bits of a float, as given by Float.floatToRawIntBits.
      */
     long[] raycast(long pointerAddress, float beginX, float beginY, float beginZ, float endX, float endY, float endZ);
 
+    /**
+     * Throw a ray and write its closest hit in a direct buffer.
+     *
+     * @param pointerAddress Pointer address of this associated yz::World.
+     * @param beginX         Ray origin X value.
+     * @param beginY         Ray origin Y value.
+     * @param beginZ         Ray origin Z value.
+     * @param endX           Ray end X value.
+     * @param endY           Ray end Y value.
+     * @param endZ           Ray end Z value.
+     * @param output         Direct buffer receiving the hit record.
+     */
+    void raycastInto(long pointerAddress, float beginX, float beginY, float beginZ, float endX, float endY, float endZ, ByteBuffer output);
+
     /**
      * Throw a ray and retrieve its collided object, faster than raycast.
      *
@@ -65,13 +93,156 @@ public interface BulletWorldImplementation {
     long simpleRaycast(long pointerAddress, float beginX, float beginY, float beginZ, float endX, float endY, float endZ);
 
     /**
-     * Create a btshape from a serialized file.
+     * Throw a ray and write its closest hit accepted by a filter in a direct buffer.
      *
      * @param pointerAddress Pointer address of this associated yz::World.
-     * @param file           File to deserialize.
-     * @return A pointer to the btshape retrieved from the serialized file.
+     * @param beginX         Ray origin X value.
+     * @param beginY         Ray origin Y value.
+     * @param beginZ         Ray origin Z value.
+     * @param endX           Ray end X value.
+     * @param endY           Ray end Y value.
+     * @param endZ           Ray end Z value.
+     * @param group          Collision group of the ray.
+     * @param mask           Collision groups the ray can hit.
+     * @param excluded       Direct buffer containing the ids of the objects to ignore.
+     * @param excludedCount  Number of ids to ignore.
+     * @param output         Direct buffer receiving the hit record.
      */
-    long deserializeMesh(long pointerAddress, String file);
+    void raycastFiltered(long pointerAddress, float beginX, float beginY, float beginZ, float endX, float endY, float endZ,
+                         int group, int mask, ByteBuffer excluded, int excludedCount, ByteBuffer output);
+
+    /**
+     * Throw a ray and write all its hits accepted by a filter in a direct buffer, sorted from the closest to the farthest.
+     *
+     * @param pointerAddress Pointer address of this associated yz::World.
+     * @param beginX         Ray origin X value.
+     * @param beginY         Ray origin Y value.
+     * @param beginZ         Ray origin Z value.
+     * @param endX           Ray end X value.
+     * @param endY           Ray end Y value.
+     * @param endZ           Ray end Z value.
+     * @param group          Collision group of the ray.
+     * @param mask           Collision groups the ray can hit.
+     * @param excluded       Direct buffer containing the ids of the objects to ignore.
+     * @param excludedCount  Number of ids to ignore.
+     * @param output         Direct buffer receiving the hit records.
+     * @return The number of hits, greater than the buffer capacity if it was too small.
+     */
+    int raycastAll(long pointerAddress, float beginX, float beginY, float beginZ, float endX, float endY, float endZ,
+                   int group, int mask, ByteBuffer excluded, int excludedCount, ByteBuffer output);
+
+    /**
+     * Throw many rays and write the closest hit of each one in a direct buffer.
+     *
+     * @param pointerAddress Pointer address of this associated yz::World.
+     * @param rays           Direct buffer containing the origin and destination of each ray.
+     * @param count          Number of rays to throw.
+     * @param output         Direct buffer receiving one hit record per ray.
+     */
+    void raycastBatch(long pointerAddress, ByteBuffer rays, int count, ByteBuffer output);
+
+    /**
+     * Move a convex shape along a straight path and write its closest hit accepted by a filter in a direct buffer.
+     *
+     * @param pointerAddress Pointer address of this associated yz::World.
+     * @param shape          Pointer of the convex btshape to move.
+     * @param beginX         Path origin X value.
+     * @param beginY         Path origin Y value.
+     * @param beginZ         Path origin Z value.
+     * @param endX           Path end X value.
+     * @param endY           Path end Y value.
+     * @param endZ           Path end Z value.
+     * @param group          Collision group of the shape.
+     * @param mask           Collision groups the shape can hit.
+     * @param excluded       Direct buffer containing the ids of the objects to ignore.
+     * @param excludedCount  Number of ids to ignore.
+     * @param output         Direct buffer receiving the hit record.
+     */
+    void sweep(long pointerAddress, long shape, float beginX, float beginY, float beginZ, float endX, float endY, float endZ,
+               int group, int mask, ByteBuffer excluded, int excludedCount, ByteBuffer output);
+
+    /**
+     * Move a convex shape along many paths and write the closest hit of each one in a direct buffer.
+     *
+     * @param pointerAddress Pointer address of this associated yz::World.
+     * @param shape          Pointer of the convex btshape to move.
+     * @param paths          Direct buffer containing the origin and destination of each path, using the ray records.
+     * @param count          Number of paths.
+     * @param output         Direct buffer receiving one hit record per path.
+     */
+    void sweepBatch(long pointerAddress, long shape, ByteBuffer paths, int count, ByteBuffer output);
+
+    /**
+     * Write the ids of the objects overlapping an axis aligned box in a direct buffer.
+     *
+     * @param pointerAddress Pointer address of this associated yz::World.
+     * @param minX           Box minimum X value.
+     * @param minY           Box minimum Y value.
+     * @param minZ           Box minimum Z value.
+     * @param maxX           Box maximum X value.
+     * @param maxY           Box maximum Y value.
+     * @param maxZ           Box maximum Z value.
+     * @param exact          <code>true</code> to test the object shapes, <code>false</code> to only test their bounding
+     *                       boxes as stored in the broadphase.
+     * @param output         Direct buffer receiving the ids.
+     * @return The number of objects found, greater than the buffer capacity if it was too small.
+     */
+    int queryAabb(long pointerAddress, float minX, float minY, float minZ, float maxX, float maxY, float maxZ, boolean exact, ByteBuffer output);
+
+    /**
+     * Write the ids of the objects overlapping a sphere in a direct buffer.
+     *
+     * @param pointerAddress Pointer address of this associated yz::World.
+     * @param x              Sphere center X value.
+     * @param y              Sphere center Y value.
+     * @param z              Sphere center Z value.
+     * @param radius         Sphere radius.
+     * @param exact          <code>true</code> to test the object shapes, <code>false</code> to only test their bounding
+     *                       boxes as stored in the broadphase.
+     * @param output         Direct buffer receiving the ids.
+     * @return The number of objects found, greater than the buffer capacity if it was too small.
+     */
+    int querySphere(long pointerAddress, float x, float y, float z, float radius, boolean exact, ByteBuffer output);
+
+    /**
+     * Write the ids of the objects currently touching an object in a direct buffer.
+     *
+     * @param pointerAddress Pointer address of this associated yz::World.
+     * @param object         Pointer address of the body or ghost object to test.
+     * @param output         Direct buffer receiving the ids.
+     * @return The number of objects found, greater than the buffer capacity if it was too small.
+     */
+    int contactTest(long pointerAddress, long object, ByteBuffer output);
+
+    /**
+     * Write the contact points between an object and all the objects it currently touches in a direct buffer.
+     *
+     * @param pointerAddress Pointer address of this associated yz::World.
+     * @param object         Pointer address of the body or ghost object to test.
+     * @param output         Direct buffer receiving the contact records.
+     * @return The number of contact points, greater than the buffer capacity if it was too small.
+     */
+    int contactTestPoints(long pointerAddress, long object, ByteBuffer output);
+
+    /**
+     * Write the contact points between two objects in a direct buffer.
+     *
+     * @param pointerAddress Pointer address of this associated yz::World.
+     * @param object         Pointer address of the first body or ghost object.
+     * @param other          Pointer address of the second body or ghost object.
+     * @param output         Direct buffer receiving the contact records, seen from the first object.
+     * @return The number of contact points, 0 if the objects do not touch, greater than the buffer capacity if it was
+     * too small.
+     */
+    int contactPairTest(long pointerAddress, long object, long other, ByteBuffer output);
+
+    /**
+     * Set the table telling which collision groups can collide, checked by the broadphase before creating a pair.
+     *
+     * @param pointerAddress Pointer address of this associated yz::World.
+     * @param rows           For each of the 32 groups, the bits of the groups it collides with, null to remove the table.
+     */
+    void setCollisionMatrix(long pointerAddress, int[] rows);
 
     /**
      * Set the gravity in native code.
@@ -95,9 +266,11 @@ public interface BulletWorldImplementation {
      * @param dX             Body direction X value.
      * @param dY             Body direction Y value.
      * @param dZ             Body direction Z value.
+     * @param group          Collision group bits of the body.
+     * @param mask           Collision group bits the body can collide with.
      * @return A pointer to the newly created btrigidbody.
      */
-    long createStaticBody(long pointerAddress, long shape, long id, float x, float y, float z, float dX, float dY, float dZ);
+    long createStaticBody(long pointerAddress, long shape, long id, float x, float y, float z, float dX, float dY, float dZ, int group, int mask);
 
     /**
      * Create a kinematic btrigidbody in native code.
@@ -108,9 +281,11 @@ public interface BulletWorldImplementation {
      * @param x              Initial X position.
      * @param y              Initial Y position.
      * @param z              Initial Z position.
+     * @param group          Collision group bits of the body.
+     * @param mask           Collision group bits the body can collide with.
      * @return A pointer to the newly created btrigidbody.
      */
-    long createKinematicBody(long pointerAddress, long shape, long id, float x, float y, float z);
+    long createKinematicBody(long pointerAddress, long shape, long id, float x, float y, float z, int group, int mask);
 
     /**
      * Create a kinematic btrigidbody in native code.
@@ -122,38 +297,83 @@ public interface BulletWorldImplementation {
      * @param y              Initial Y position.
      * @param z              Initial Z position.
      * @param mass           Initial mass.
+     * @param group          Collision group bits of the body.
+     * @param mask           Collision group bits the body can collide with.
      * @return A pointer to the newly created btrigidbody.
      */
-    long createDynamicBody(long pointerAddress, long shape, long id, float x, float y, float z, float mass);
+    long createDynamicBody(long pointerAddress, long shape, long id, float x, float y, float z, float mass, int group, int mask);
 
     /**
-     * Create a box btshape in native code.
+     * Update the world in native code.
+     * The collision events are written in the buffer as long values: the number of started collisions, the number of
+     * ended collisions, the number of started ghost collisions and the number of ended ghost collisions, followed by
+     * the id pairs in the same order(i.e:result[4] is colliding with result[5], and so on...), the ghost id comes first
+     * in the ghost collision pairs.
+     *
+     * The deferred commands are applied before stepping the simulation, each one uses 32 bytes: the operation and a flag
+     * as int, the object pointer as long and 4 float values.
      *
-     * @param width  Box width size.
-     * @param height Box height size.
-     * @param depth  Box depth size.
-     * @return A pointer to the newly create btshape.
+     * @param pointerAddress Pointer address to the associated yz::World.
+     * @param time           Time since the last call.
+     * @param commands       Direct buffer using the native byte order, containing the deferred commands.
+     * @param commandCount   Number of deferred commands to apply.
+     * @param output         Direct buffer using the native byte order, receiving the collision events.
+     * @return The number of long values in the collision events, if greater than the buffer capacity, the events did not
+     * fit and can be retrieved again with getCollisionResult in a larger buffer.
      */
-    long createBoxShape(float width, float height, float depth);
+    int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output);
 
-    long createPlaneShape(int width, int depth);
+    /**
+     * Retrieve the collision events computed by the last update in native code.
+     *
+     * @param pointerAddress Pointer address to the associated yz::World.
+     * @param output         Direct buffer using the native byte order, receiving the collision events.
+     * @return The number of long values in the collision events.
+     */
+    int getCollisionResult(long pointerAddress, ByteBuffer output);
 
     /**
-     * Create a sphere btshape in native code.
+     * Write the id, position and orientation of all the dynamic and kinematic bodies in a direct buffer, using a
+     * record of 40 bytes per body: the id as long, the position X, Y, Z values and the orientation X, Y, Z, W values
+     * as float, followed by 4 padding bytes.
      *
-     * @param radius Sphere radius size.
-     * @return A pointer to the newly create btshape.
+     * @param pointerAddress Pointer address to the associated yz::World.
+     * @param output         Direct buffer using the native byte order, receiving the records.
+     * @param interpolated   <code>true</code> to write the transforms interpolated between the last two fixed steps,
+     *                       <code>false</code> to write the transforms computed by the last fixed step.
+     * @return The number of bodies, if greater than the buffer capacity, only the first bodies were written.
      */
-    long createSphereShape(float radius);
+    int getTransforms(long pointerAddress, ByteBuffer output, boolean interpolated);
 
     /**
-     * Update the world in native code.
+     * Set the fixed time step used by the simulation.
      *
      * @param pointerAddress Pointer address to the associated yz::World.
-     * @param time           Time since the last call.
-     * @return An array containing all the collision occurred during the execution.
+     * @param step           Duration of a simulation step, in seconds.
+     * @param maxSubSteps    Maximum number of steps done in one update, the exceeding time is dropped.
+     */
+    void setTimeStep(long pointerAddress, float step, int maxSubSteps);
+
+    /**
+     * Write the id, position and orientation of the dynamic bodies moved by the simulation during the last update in
+     * a direct buffer, using the same 40 bytes record as getTransforms.
+     *
+     * @param pointerAddress Pointer address to the associated yz::World.
+     * @param output         Direct buffer using the native byte order, receiving the records.
+     * @return The number of moved bodies, if greater than the buffer capacity, only the first bodies were written.
      */
-    long[] update(long pointerAddress, long time);
+    int getMovedTransforms(long pointerAddress, ByteBuffer output);
+
+    /**
+     * Set the position and orientation of many kinematic bodies and ghost objects, read from a direct buffer using a
+     * record of 40 bytes per object: the object pointer as long, the position X, Y, Z values and the orientation
+     * X, Y, Z, W values as float, followed by 4 padding bytes.
+     *
+     * @param pointerAddress Pointer address to the associated yz::World.
+     * @param input          Direct buffer using the native byte order, containing the records.
+     * @param count          Number of records to apply.
+     */
+    void setTransforms(long pointerAddress, ByteBuffer input, int count);
 
     /**
      * Remove the body from the world but does not delete it.
@@ -172,17 +392,11 @@ public interface BulletWorldImplementation {
      * @param x              Initial X position.
      * @param y              Initial Y position.
      * @param z              Initial Z position.
-     * @return A pointer to the newly created btGhostObject*.
-     */
-    long createGhostObject(long pointerAddress, long shape, long id, float x, float y, float z);
-
-    /**
-     * Retrieve collision with ghost objects in native code.
-     *
-     * @param pointerAddress Pointer address of this associated btworld.
-     * @return An array containing the Id values of collided objects going by pair(i.e:result[0] is colliding with result[1], and so on...).
+     * @param group          Collision group bits of the ghost.
+     * @param mask           Collision group bits the ghost can collide with.
+     * @return A pointer to the newly created btPairCachingGhostObject*.
      */
-    long[] getGhostCollisionResult(long pointerAddress);
+    long createGhostObject(long pointerAddress, long shape, long id, float x, float y, float z, int group, int mask);
 
     /**
      * Delete this world in native code.
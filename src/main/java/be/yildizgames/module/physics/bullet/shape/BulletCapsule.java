@@ -0,0 +1,85 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet.shape;
+
+/**
+ * Capsule shape aligned on the Y axis: a cylinder capped by two half spheres, commonly used for characters.
+ * Immutable class.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletCapsule {
+
+    /**
+     * Radius of the cylinder and of the half spheres.
+     */
+    public final float radius;
+
+    /**
+     * Height of the cylinder part, the total height is this value plus twice the radius.
+     */
+    public final float height;
+
+    private BulletCapsule(final float radius, final float height) {
+        super();
+        this.radius = radius;
+        this.height = height;
+    }
+
+    /**
+     * Create a capsule.
+     *
+     * @param radius Radius of the cylinder and of the half spheres.
+     * @param height Height of the cylinder part.
+     * @return The created capsule.
+     * @throws IllegalArgumentException if radius is not positive or height is negative.
+     */
+    public static BulletCapsule of(final float radius, final float height) {
+        if (radius <= 0) {
+            throw new IllegalArgumentException("Radius must be positive");
+        }
+        if (height < 0) {
+            throw new IllegalArgumentException("Height is negative");
+        }
+        return new BulletCapsule(radius, height);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final BulletCapsule capsule = (BulletCapsule) o;
+        return Float.compare(capsule.radius, this.radius) == 0 && Float.compare(capsule.height, this.height) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Float.hashCode(this.radius) + Float.hashCode(this.height);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet.shape;
+
+import be.yildizgames.common.geometry.Point3D;
+import be.yildizgames.common.geometry.Quaternion;
+import be.yildizgames.common.shape.Box;
+import be.yildizgames.common.shape.Sphere;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Shape made of several boxes, spheres and convex hulls, each one placed relatively to the shape origin.
+ * Immutable class.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletCompoundShape {
+
+    private final List<Child> children;
+
+    private BulletCompoundShape(final List<Child> children) {
+        super();
+        this.children = List.copyOf(children);
+    }
+
+    /**
+     * @return A builder to create a compound shape.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return The shapes composing this one.
+     */
+    public List<Child> getChildren() {
+        return this.children;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return this.children.equals(((BulletCompoundShape) o).children);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.children.hashCode();
+    }
+
+    /**
+     * Shape composing a compound, with its position and orientation relative to the compound origin.
+     */
+    public static final class Child {
+
+        /**
+         * Child shape, a Box, a Sphere or a BulletConvexHull.
+         */
+        public final Object shape;
+
+        public final float x;
+
+        public final float y;
+
+        public final float z;
+
+        public final float orientationX;
+
+        public final float orientationY;
+
+        public final float orientationZ;
+
+        public final float orientationW;
+
+        private Child(final Object shape, final Point3D position, final Quaternion orientation) {
+            super();
+            this.shape = Objects.requireNonNull(shape);
+            this.x = position.x;
+            this.y = position.y;
+            this.z = position.z;
+            this.orientationX = orientation.x;
+            this.orientationY = orientation.y;
+            this.orientationZ = orientation.z;
+            this.orientationW = orientation.w;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Child child = (Child) o;
+            return Float.compare(child.x, this.x) == 0
+                    && Float.compare(child.y, this.y) == 0
+                    && Float.compare(child.z, this.z) == 0
+                    && Float.compare(child.orientationX, this.orientationX) == 0
+                    && Float.compare(child.orientationY, this.orientationY) == 0
+                    && Float.compare(child.orientationZ, this.orientationZ) == 0
+                    && Float.compare(child.orientationW, this.orientationW) == 0
+                    && this.shape.equals(child.shape);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.shape, this.x, this.y, this.z,
+                    this.orientationX, this.orientationY, this.orientationZ, this.orientationW);
+        }
+    }
+
+    /**
+     * Builder for the compound shapes.
+     */
+    public static final class Builder {
+
+        private static final Quaternion IDENTITY = Quaternion.valueOf(1, 0, 0, 0);
+
+        private final List<Child> children = new ArrayList<>();
+
+        private Builder() {
+            super();
+        }
+
+        public Builder withChild(final Box box, final Point3D position) {
+            return this.withChild(box, position, IDENTITY);
+        }
+
+        public Builder withChild(final Box box, final Point3D position, final Quaternion orientation) {
+            this.children.add(new Child(box, position, orientation));
+            return this;
+        }
+
+        public Builder withChild(final Sphere sphere, final Point3D position) {
+            return this.withChild(sphere, position, IDENTITY);
+        }
+
+        public Builder withChild(final Sphere sphere, final Point3D position, final Quaternion orientation) {
+            this.children.add(new Child(sphere, position, orientation));
+            return this;
+        }
+
+        public Builder withChild(final BulletConvexHull hull, final Point3D position) {
+            return this.withChild(hull, position, IDENTITY);
+        }
+
+        public Builder withChild(final BulletConvexHull hull, final Point3D position, final Quaternion orientation) {
+            this.children.add(new Child(hull, position, orientation));
+            return this;
+        }
+
+        /**
+         * @return The compound shape made of the added children.
+         * @throws IllegalStateException if no child was added.
+         */
+        public BulletCompoundShape build() {
+            if (this.children.isEmpty()) {
+                throw new IllegalStateException("A compound shape needs at least one child");
+            }
+            return new BulletCompoundShape(this.children);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet.shape;
+
+import java.util.Arrays;
+
+/**
+ * Convex shape wrapping a set of points, a cheap approximation of a concave mesh for moving objects.
+ * Immutable class.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulletConvexHull {
+
+    /**
+     * Point coordinates, packed as x, y, z.
+     */
+    private final float[] points;
+
+    private BulletConvexHull(final float[] points) {
+        super();
+        this.points = points;
+    }
+
+    /**
+     * Create a convex hull wrapping a set of points.
+     *
+     * @param points Point coordinates, packed as x, y, z.
+     * @return The created hull.
+     * @throws NullPointerException if points is null.
+     * @throws IllegalArgumentException if points is empty or its length is not a multiple of 3.
+     */
+    public static BulletConvexHull fromPoints(final float... points) {
+        if (points.length == 0 || points.length % 3 != 0) {
+            throw new IllegalArgumentException("Points must contain x, y, z values for at least one point");
+        }
+        return new BulletConvexHull(points.clone());
+    }
+
+    /**
+     * @return A copy of the point coordinates, packed as x, y, z.
+     */
+    public float[] getPoints() {
+        return this.points.clone();
+    }
+
+    /**
+     * @return The number of points.
+     */
+    public int getPointCount() {
+        return this.points.length / 3;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(this.points, ((BulletConvexHull) o).points);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.points);
+    }
+}
@@ -68,4 +68,35 @@ public interface BulletShapeProvider {
      */
     NativePointer getShape(PhysicMesh mesh);
 
+    /**
+     * Get the pointer to the btshape associated with this convex hull.
+     *
+     * @param hull Shape representation.
+     * @return The pointer to the physique shape matching the BulletConvexHull.
+     * @throws UnsupportedOperationException if the provider does not support convex hulls.
+     */
+    default NativePointer getShape(BulletConvexHull hull) {
+        throw new UnsupportedOperationException("Convex hull shapes are not supported");
+    }
+
+    /**
+     * Get the pointer to the btshape associated with this compound shape.
+     *
+     * @param compound Shape representation.
+     * @return The pointer to the physique shape matching the BulletCompoundShape.
+     * @throws UnsupportedOperationException if the provider does not support compound shapes.
+     */
+    default NativePointer getShape(BulletCompoundShape compound) {
+        throw new UnsupportedOperationException("Compound shapes are not supported");
+    }
+
+    /**
+     * Notify that an object retrieved a shape from this provider no longer uses it, so it can be released.
+     *
+     * @param shape Pointer returned by one of the getShape methods.
+     */
+    default void releaseShape(NativePointer shape) {
+        //does nothing by default.
+    }
+
 }
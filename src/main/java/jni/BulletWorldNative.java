@@ -26,34 +26,107 @@ package jni;
 
 import be.yildizgames.module.physics.bullet.internal.BulletWorldImplementation;
 
+import java.nio.ByteBuffer;
+
 /**
  * @author Grégory Van den Borre
  */
 public class BulletWorldNative implements BulletWorldImplementation {
 
     @Override
-    public native long constructor();
+    public native long constructor(final boolean multithread);
+
+    @Override
+    public native boolean setTaskScheduler(final int scheduler, final int threads);
 
     @Override
     public native long[] raycast(final long pointerAddress, final float beginX, final float beginY, final float beginZ, final float endX, final float endY, final float endZ);
 
+    @Override
+    public native void raycastInto(final long pointerAddress, final float beginX, final float beginY, final float beginZ, final float endX, final float endY, final float endZ, final ByteBuffer output);
+
+    @Override
+    public native void raycastFiltered(final long pointerAddress, final float beginX, final float beginY, final float beginZ, final float endX, final float endY, final float endZ,
+                                       final int group, final int mask, final ByteBuffer excluded, final int excludedCount, final ByteBuffer output);
+
+    @Override
+    public native int raycastAll(final long pointerAddress, final float beginX, final float beginY, final float beginZ, final float endX, final float endY, final float endZ,
+                                 final int group, final int mask, final ByteBuffer excluded, final int excludedCount, final ByteBuffer output);
+
+    @Override
+    public native void raycastBatch(final long pointerAddress, final ByteBuffer rays, final int count, final ByteBuffer output);
+
+    @Override
+    public native void sweep(final long pointerAddress, final long shape, final float beginX, final float beginY, final float beginZ, final float endX, final float endY, final float endZ,
+                             final int group, final int mask, final ByteBuffer excluded, final int excludedCount, final ByteBuffer output);
+
+    @Override
+    public native void sweepBatch(final long pointerAddress, final long shape, final ByteBuffer paths, final int count, final ByteBuffer output);
+
+    @Override
+    public native int queryAabb(final long pointerAddress, final float minX, final float minY, final float minZ,
+                                final float maxX, final float maxY, final float maxZ, final boolean exact, final ByteBuffer output);
+
+    @Override
+    public native int querySphere(final long pointerAddress, final float x, final float y, final float z, final float radius, final boolean exact, final ByteBuffer output);
+
+    @Override
+    public native int contactTest(final long pointerAddress, final long object, final ByteBuffer output);
+
+    @Override
+    public native int contactTestPoints(final long pointerAddress, final long object, final ByteBuffer output);
+
+    @Override
+    public native int contactPairTest(final long pointerAddress, final long object, final long other, final ByteBuffer output);
+
     @Override
     public native long simpleRaycast(final long pointerAddress, final float beginX, final float beginY, final float beginZ, final float endX, final float endY, final float endZ);
 
     @Override
-    public native long deserializeMesh(final long pointerAddress, final String file);
+    public native long deserializeMesh(final ByteBuffer data, final int size, final ByteBuffer bvh, final int bvhSize);
+
+    @Override
+    public native long createConvexHullShape(final float[] points);
+
+    @Override
+    public native long createCompoundShape();
+
+    @Override
+    public native void addCompoundChild(final long compound, final long child, final float x, final float y, final float z,
+                                        final float orientationX, final float orientationY, final float orientationZ, final float orientationW);
+
+    @Override
+    public native int decomposeMesh(final ByteBuffer data, final int size, final ByteBuffer output);
+
+    @Override
+    public native int getMeshBvhSize(final long shape);
+
+    @Override
+    public native void serializeMeshBvh(final long shape, final ByteBuffer output);
+
+    @Override
+    public native void deleteShape(final long shape);
+
+    @Override
+    public native long getShapeMemorySize(final long shape);
+
+    @Override
+    public native void setCollisionMatrix(final long pointerAddress, final int[] rows);
 
     @Override
     public native void setGravity(final long pointerAddress, final float gravityX, final float gravityY, final float gravityZ);
 
     @Override
-    public native long createStaticBody(final long pointerAddress, final long shape, final long id, final float x, final float y, final float z, final float dX, final float dY, final float dZ);
+    public native long createStaticBody(final long pointerAddress, final long shape, final long id, final float x, final float y, final float z, final float dX, final float dY, final float dZ,
+                                          final int group, final int mask);
 
     @Override
-    public native long createKinematicBody(final long pointerAddress, final long shape, final long id, final float x, final float y, final float z);
+    public native long createKinematicBody(final long pointerAddress, final long shape, final long id, final float x, final float y, final float z,
+                                             final int group, final int mask);
 
     @Override
-    public native long createDynamicBody(final long pointerAddress, final long shape, final long id, final float x, final float y, final float z, final float mass);
+    public native long createDynamicBody(final long pointerAddress, final long shape, final long id, final float x, final float y, final float z, final float mass,
+                                           final int group, final int mask);
 
     @Override
     public native long createBoxShape(final float width, final float height, final float depth);
@@ -65,17 +138,33 @@ public class BulletWorldNative implements BulletWorldImplementation {
     public native long createSphereShape(final float radius);
 
     @Override
-    public native long[] update(final long pointerAddress, final long time);
+    public native long createCapsuleShape(final float radius, final float height);
 
     @Override
-    // FIXME check if unused, delete here and in native code.
-    public native void removeBody(final long pointerAddress, final long bodyPointer);
+    public native int update(final long pointerAddress, final long time, final ByteBuffer commands, final int commandCount, final ByteBuffer output);
+
+    @Override
+    public native int getCollisionResult(final long pointerAddress, final ByteBuffer output);
+
+    @Override
+    public native int getTransforms(final long pointerAddress, final ByteBuffer output, final boolean interpolated);
+
+    @Override
+    public native void setTimeStep(final long pointerAddress, final float step, final int maxSubSteps);
+
+    @Override
+    public native int getMovedTransforms(final long pointerAddress, final ByteBuffer output);
 
     @Override
-    public native long createGhostObject(final long pointerAddress, final long shape, final long id, final float x, final float y, final float z);
+    public native void setTransforms(final long pointerAddress, final ByteBuffer input, final int count);
+
+    @Override
+    // FIXME check if unused, delete here and in native code.
+    public native void removeBody(final long pointerAddress, final long bodyPointer);
 
     @Override
-    public native long[] getGhostCollisionResult(final long pointerAddress);
+    public native long createGhostObject(final long pointerAddress, final long shape, final long id, final float x, final float y, final float z,
+                                           final int group, final int mask);
 
     @Override
     public native void delete(final long pointerAddress);
@@ -37,4 +37,5 @@ module be.yildizgames.module.physics.bullet {
             with be.yildizgames.module.physics.bullet.BulletPhysicEngineProvider;
 
     exports be.yildizgames.module.physics.bullet;
+    exports be.yildizgames.module.physics.bullet.shape;
 }
@@ -32,16 +32,31 @@
 
 JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_constructor(
     JNIEnv* env,
-    jobject o) {
+    jobject o,
+    jboolean multithread) {
     LOG_FUNCTION
     try {
-        return reinterpret_cast<jlong>(new yz::World());
+        return reinterpret_cast<jlong>(new yz::World(multithread == JNI_TRUE));
     } catch (std::exception& e) {
         throwException(env, e.what());
     }
     return -1L;
 }
 
+JNIEXPORT jboolean JNICALL Java_jni_BulletWorldNative_setTaskScheduler(
+    JNIEnv* env,
+    jobject o,
+    jint type,
+    jint threads) {
+    LOG_FUNCTION
+    try {
+        return yz::World::setTaskScheduler(type, threads) ? JNI_TRUE : JNI_FALSE;
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return JNI_FALSE;
+}
+
 JNIEXPORT void JNICALL Java_jni_BulletWorldNative_delete(
     JNIEnv* env,
     jobject o,
@@ -66,14 +81,16 @@ JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createStaticBody(
     jfloat posZ,
     jfloat dirX,
     jfloat dirY,
-    jfloat dirZ) {
+    jfloat dirZ,
+    jint group,
+    jint mask) {
     LOG_FUNCTION
     try {
         yz::World* world = reinterpret_cast<yz::World*>(worldPointer);
         btCollisionShape* shape =
                 reinterpret_cast<btCollisionShape*>(shapePointer);
         yz::RigidBody* body = world->createStaticBody(shape,
-                btVector3(posX, posY, posZ), btVector3(dirX, dirY, dirZ), id);
+                btVector3(posX, posY, posZ), btVector3(dirX, dirY, dirZ), id, group, mask);
         return reinterpret_cast<jlong>(body);
     } catch (std::exception& e) {
         throwException(env, e.what());
@@ -89,14 +106,16 @@ JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createKinematicBody(
     jlong id,
     jfloat x,
     jfloat y,
-    jfloat z) {
+    jfloat z,
+    jint group,
+    jint mask) {
     LOG_FUNCTION
     try {
         yz::World* world = reinterpret_cast<yz::World*>(worldPointer);
         btCollisionShape* shape =
                 reinterpret_cast<btCollisionShape*>(shapePointer);
         return reinterpret_cast<jlong>(world->createKinematicBody(shape, id, x,
-                y, z));
+                y, z, group, mask));
     } catch (std::exception& e) {
         throwException(env, e.what());
     }
@@ -112,18 +131,44 @@ JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createDynamicBody(
     jfloat x,
     jfloat y,
     jfloat z,
-    jfloat mass) {
+    jfloat mass,
+    jint group,
+    jint mask) {
     LOG_FUNCTION
     try {
         yz::World* world = reinterpret_cast<yz::World*>(worldPointer);
         btCollisionShape* shape = reinterpret_cast<btCollisionShape*>(shapePointer);
-        return reinterpret_cast<jlong>(world->createDynamicBody(shape, id, x, y, z, mass));
+        return reinterpret_cast<jlong>(world->createDynamicBody(shape, id, x, y, z, mass, group, mask));
     } catch (std::exception& e) {
         throwException(env, e.what());
     }
     return -1L;
 }
 
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_setCollisionMatrix(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jintArray rows) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        if (!rows) {
+            world->setCollisionMatrix(0);
+            return;
+        }
+        if (env->GetArrayLength(rows) < yz::CollisionMatrixFilter::GROUPS) {
+            throwException(env, "The collision matrix must contain 32 rows");
+            return;
+        }
+        jint* values = env->GetIntArrayElements(rows, 0);
+        world->setCollisionMatrix(values);
+        env->ReleaseIntArrayElements(rows, values, JNI_ABORT);
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+}
+
 JNIEXPORT void JNICALL Java_jni_BulletWorldNative_setGravity(
     JNIEnv* env,
     jobject o,
@@ -140,55 +185,110 @@ JNIEXPORT void JNICALL Java_jni_BulletWorldNative_setGravity(
     }
 }
 
-JNIEXPORT jlongArray JNICALL Java_jni_BulletWorldNative_update(
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_update(
     JNIEnv* env,
     jobject o,
     jlong pointer,
-    jlong time) {
+    jlong time,
+    jobject commands,
+    jint commandCount,
+    jobject buffer) {
     LOG_FUNCTION
     try {
         yz::World* world = reinterpret_cast<yz::World*>(pointer);
-        std::vector<jlong> list = world->update(time);
-
-        if (list.empty()) {
-            jlong buf[1];
-            jlongArray result = env->NewLongArray(0);
-            env->SetLongArrayRegion(result, 0, 0, buf);
-            return result;
+        if (commandCount > 0) {
+            const char* address = static_cast<const char*>(env->GetDirectBufferAddress(commands));
+            const jlong capacity = env->GetDirectBufferCapacity(commands) / yz::World::COMMAND_SIZE;
+            world->applyCommands(address, static_cast<int>(std::min(static_cast<jlong>(commandCount), capacity)));
         }
-        const int size = list.size();
-        jlongArray result = env->NewLongArray(size);
-        env->SetLongArrayRegion(result, 0, size, &list[0]);
-        return result;
+        world->update(time);
+        return writeToBuffer(env, buffer, world->getEvents());
     } catch (std::exception& e) {
         throwException(env, e.what());
     }
-    return env->NewLongArray(1);
+    return 0;
 }
 
-JNIEXPORT jlongArray JNICALL Java_jni_BulletWorldNative_getGhostCollisionResult(
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_getCollisionResult(
     JNIEnv* env,
     jobject o,
-    jlong pointer) {
+    jlong pointer,
+    jobject buffer) {
     LOG_FUNCTION
     try {
         yz::World* world = reinterpret_cast<yz::World*>(pointer);
-        std::vector<jlong> list = world->getGhostCollisionResult();
+        return writeToBuffer(env, buffer, world->getEvents());
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return 0;
+}
 
-        if (list.empty()) {
-            jlong buf[1];
-            jlongArray result = env->NewLongArray(0);
-            env->SetLongArrayRegion(result, 0, 0, buf);
-            return result;
-        }
-        const int size = list.size();
-        jlongArray result = env->NewLongArray(size);
-        env->SetLongArrayRegion(result, 0, size, &list[0]);
-        return result;
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_getTransforms(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jobject buffer,
+    jboolean interpolated) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        char* address = static_cast<char*>(env->GetDirectBufferAddress(buffer));
+        const jlong capacity = env->GetDirectBufferCapacity(buffer) / yz::World::TRANSFORM_RECORD_SIZE;
+        return world->writeTransforms(address, static_cast<int>(capacity), interpolated == JNI_TRUE);
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return 0;
+}
+
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_setTimeStep(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jfloat step,
+    jint maxSubSteps) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        world->setTimeStep(step, maxSubSteps);
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+}
+
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_getMovedTransforms(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jobject buffer) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        char* address = static_cast<char*>(env->GetDirectBufferAddress(buffer));
+        const jlong capacity = env->GetDirectBufferCapacity(buffer) / yz::World::TRANSFORM_RECORD_SIZE;
+        return world->writeMovedTransforms(address, static_cast<int>(capacity));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return 0;
+}
+
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_setTransforms(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jobject buffer,
+    jint count) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        const char* address = static_cast<const char*>(env->GetDirectBufferAddress(buffer));
+        const jlong capacity = env->GetDirectBufferCapacity(buffer) / yz::World::TRANSFORM_RECORD_SIZE;
+        world->readTransforms(address, static_cast<int>(std::min(static_cast<jlong>(count), capacity)));
     } catch (std::exception& e) {
         throwException(env, e.what());
     }
-    return env->NewLongArray(0);
 }
 
 JNIEXPORT void JNICALL Java_jni_BulletWorldNative_removeBody(
@@ -221,14 +321,9 @@ JNIEXPORT jlongArray JNICALL Java_jni_BulletWorldNative_raycast(
         yz::World* world = reinterpret_cast<yz::World*>(pointer);
         btVector3 start = btVector3(startX, startY, startZ);
         btVector3 end = btVector3(endX, endY, endZ);
-        float collision[4];
-        world->rayCastPoint(start, end, collision);
         jlong buf[4];
+        world->rayCastPoint(start, end, buf);
         jlongArray result = env->NewLongArray(4);
-        buf[0] = collision[0];
-        buf[1] = collision[1];
-        buf[2] = collision[2];
-        buf[3] = collision[3];
         env->SetLongArrayRegion(result, 0, 4, buf);
         return result;
     } catch (std::exception& e) {
@@ -237,6 +332,269 @@ JNIEXPORT jlongArray JNICALL Java_jni_BulletWorldNative_raycast(
     return env->NewLongArray(1);
 }
 
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_raycastInto(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jfloat startX,
+    jfloat startY,
+    jfloat startZ,
+    jfloat endX,
+    jfloat endY,
+    jfloat endZ,
+    jobject buffer) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        if (env->GetDirectBufferCapacity(buffer) < yz::World::HIT_RECORD_SIZE) {
+            throwException(env, "Buffer too small for a hit record");
+            return;
+        }
+        const jfloat ray[6] = {startX, startY, startZ, endX, endY, endZ};
+        world->rayCast(reinterpret_cast<const char*>(ray), static_cast<char*>(env->GetDirectBufferAddress(buffer)));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+}
+
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_raycastFiltered(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jfloat startX,
+    jfloat startY,
+    jfloat startZ,
+    jfloat endX,
+    jfloat endY,
+    jfloat endZ,
+    jint group,
+    jint mask,
+    jobject excluded,
+    jint excludedCount,
+    jobject buffer) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        if (env->GetDirectBufferCapacity(buffer) < yz::World::HIT_RECORD_SIZE) {
+            throwException(env, "Buffer too small for a hit record");
+            return;
+        }
+        const yz::RayFilter filter(group, mask, static_cast<const jlong*>(env->GetDirectBufferAddress(excluded)),
+            static_cast<int>(std::min(static_cast<jlong>(excludedCount), env->GetDirectBufferCapacity(excluded) / static_cast<jlong>(sizeof(jlong)))));
+        world->rayCast(btVector3(startX, startY, startZ), btVector3(endX, endY, endZ), filter,
+            static_cast<char*>(env->GetDirectBufferAddress(buffer)));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+}
+
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_raycastAll(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jfloat startX,
+    jfloat startY,
+    jfloat startZ,
+    jfloat endX,
+    jfloat endY,
+    jfloat endZ,
+    jint group,
+    jint mask,
+    jobject excluded,
+    jint excludedCount,
+    jobject buffer) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        const yz::RayFilter filter(group, mask, static_cast<const jlong*>(env->GetDirectBufferAddress(excluded)),
+            static_cast<int>(std::min(static_cast<jlong>(excludedCount), env->GetDirectBufferCapacity(excluded) / static_cast<jlong>(sizeof(jlong)))));
+        const jlong capacity = env->GetDirectBufferCapacity(buffer) / yz::World::HIT_RECORD_SIZE;
+        return world->rayCastAll(btVector3(startX, startY, startZ), btVector3(endX, endY, endZ), filter,
+            static_cast<char*>(env->GetDirectBufferAddress(buffer)), static_cast<int>(capacity));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return 0;
+}
+
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_raycastBatch(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jobject rays,
+    jint count,
+    jobject buffer) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        const char* input = static_cast<const char*>(env->GetDirectBufferAddress(rays));
+        const jlong rayCapacity = env->GetDirectBufferCapacity(rays) / yz::World::RAY_RECORD_SIZE;
+        char* output = static_cast<char*>(env->GetDirectBufferAddress(buffer));
+        const jlong hitCapacity = env->GetDirectBufferCapacity(buffer) / yz::World::HIT_RECORD_SIZE;
+        const jlong size = std::min(static_cast<jlong>(count), std::min(rayCapacity, hitCapacity));
+        world->rayCastBatch(input, static_cast<int>(size), output);
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+}
+
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_sweep(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jlong shape,
+    jfloat startX,
+    jfloat startY,
+    jfloat startZ,
+    jfloat endX,
+    jfloat endY,
+    jfloat endZ,
+    jint group,
+    jint mask,
+    jobject excluded,
+    jint excludedCount,
+    jobject buffer) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        if (env->GetDirectBufferCapacity(buffer) < yz::World::HIT_RECORD_SIZE) {
+            throwException(env, "Buffer too small for a hit record");
+            return;
+        }
+        const btConvexShape* convex = yz::World::toConvex(reinterpret_cast<btCollisionShape*>(shape));
+        const yz::RayFilter filter(group, mask, static_cast<const jlong*>(env->GetDirectBufferAddress(excluded)),
+            static_cast<int>(std::min(static_cast<jlong>(excludedCount), env->GetDirectBufferCapacity(excluded) / static_cast<jlong>(sizeof(jlong)))));
+        world->sweep(convex, btVector3(startX, startY, startZ), btVector3(endX, endY, endZ), filter,
+            static_cast<char*>(env->GetDirectBufferAddress(buffer)));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+}
+
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_sweepBatch(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jlong shape,
+    jobject paths,
+    jint count,
+    jobject buffer) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        const btConvexShape* convex = yz::World::toConvex(reinterpret_cast<btCollisionShape*>(shape));
+        const char* input = static_cast<const char*>(env->GetDirectBufferAddress(paths));
+        const jlong pathCapacity = env->GetDirectBufferCapacity(paths) / yz::World::RAY_RECORD_SIZE;
+        char* output = static_cast<char*>(env->GetDirectBufferAddress(buffer));
+        const jlong hitCapacity = env->GetDirectBufferCapacity(buffer) / yz::World::HIT_RECORD_SIZE;
+        const jlong size = std::min(static_cast<jlong>(count), std::min(pathCapacity, hitCapacity));
+        world->sweepBatch(convex, input, static_cast<int>(size), output);
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+}
+
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_queryAabb(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jfloat minX,
+    jfloat minY,
+    jfloat minZ,
+    jfloat maxX,
+    jfloat maxY,
+    jfloat maxZ,
+    jboolean exact,
+    jobject buffer) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        const jlong capacity = env->GetDirectBufferCapacity(buffer) / static_cast<jlong>(sizeof(jlong));
+        return world->queryAabb(btVector3(minX, minY, minZ), btVector3(maxX, maxY, maxZ), exact == JNI_TRUE,
+            static_cast<jlong*>(env->GetDirectBufferAddress(buffer)), static_cast<int>(capacity));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return 0;
+}
+
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_querySphere(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jfloat x,
+    jfloat y,
+    jfloat z,
+    jfloat radius,
+    jboolean exact,
+    jobject buffer) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        const jlong capacity = env->GetDirectBufferCapacity(buffer) / static_cast<jlong>(sizeof(jlong));
+        return world->querySphere(btVector3(x, y, z), radius, exact == JNI_TRUE,
+            static_cast<jlong*>(env->GetDirectBufferAddress(buffer)), static_cast<int>(capacity));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return 0;
+}
+
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_contactTest(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jlong object,
+    jobject buffer) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        const jlong capacity = env->GetDirectBufferCapacity(buffer) / static_cast<jlong>(sizeof(jlong));
+        return world->contactTest(reinterpret_cast<btCollisionObject*>(object),
+            static_cast<jlong*>(env->GetDirectBufferAddress(buffer)), static_cast<int>(capacity));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return 0;
+}
+
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_contactTestPoints(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jlong object,
+    jobject buffer) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        const jlong capacity = env->GetDirectBufferCapacity(buffer) / yz::World::HIT_RECORD_SIZE;
+        return world->contactTestPoints(reinterpret_cast<btCollisionObject*>(object),
+            static_cast<char*>(env->GetDirectBufferAddress(buffer)), static_cast<int>(capacity));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return 0;
+}
+
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_contactPairTest(
+    JNIEnv* env,
+    jobject o,
+    jlong pointer,
+    jlong object,
+    jlong other,
+    jobject buffer) {
+    LOG_FUNCTION
+    try {
+        yz::World* world = reinterpret_cast<yz::World*>(pointer);
+        const jlong capacity = env->GetDirectBufferCapacity(buffer) / yz::World::HIT_RECORD_SIZE;
+        return world->contactPairTest(reinterpret_cast<btCollisionObject*>(object), reinterpret_cast<btCollisionObject*>(other),
+            static_cast<char*>(env->GetDirectBufferAddress(buffer)), static_cast<int>(capacity));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return 0;
+}
+
 JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_simpleRaycast(
     JNIEnv* env,
     jobject o,
@@ -262,22 +620,84 @@ JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_simpleRaycast(
 JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_deserializeMesh(
     JNIEnv* env,
     jobject o,
-    jlong pointer,
-    jstring jfile) {
+    jobject data,
+    jint size,
+    jobject bvh,
+    jint bvhSize) {
     LOG_FUNCTION
-   /** try {
-        yz::World* world = reinterpret_cast<yz::World*>(pointer);
-        const char* file = env->GetStringUTFChars(jfile, 0);
-        btCollisionShape* shape = world->deserializeShape(file);
-        env->ReleaseStringUTFChars(jfile, file);
+    try {
+        char* address = static_cast<char*>(env->GetDirectBufferAddress(data));
+        const jlong capacity = env->GetDirectBufferCapacity(data);
+        char* bvhAddress = 0;
+        jlong bvhCapacity = 0;
+        if (bvh) {
+            bvhAddress = static_cast<char*>(env->GetDirectBufferAddress(bvh));
+            bvhCapacity = env->GetDirectBufferCapacity(bvh);
+        }
+        btCollisionShape* shape = yz::World::deserializeShape(
+            address, static_cast<int>(std::min(static_cast<jlong>(size), capacity)),
+            bvhAddress, static_cast<int>(std::min(static_cast<jlong>(bvhSize), bvhCapacity)));
         return reinterpret_cast<jlong>(shape);
     } catch (std::exception& e) {
         throwException(env, e.what());
-    }**/
-    return -1L;
+    }
+    return 0L;
 }
 
 
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_getMeshBvhSize(
+    JNIEnv* env,
+    jobject o,
+    jlong shape) {
+    LOG_FUNCTION
+    try {
+        return yz::World::getBvhSize(reinterpret_cast<btCollisionShape*>(shape));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return 0;
+}
+
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_serializeMeshBvh(
+    JNIEnv* env,
+    jobject o,
+    jlong shape,
+    jobject buffer) {
+    LOG_FUNCTION
+    try {
+        char* address = static_cast<char*>(env->GetDirectBufferAddress(buffer));
+        const jlong capacity = env->GetDirectBufferCapacity(buffer);
+        yz::World::serializeBvh(reinterpret_cast<btCollisionShape*>(shape), address, static_cast<int>(capacity));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+}
+
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_deleteShape(
+    JNIEnv* env,
+    jobject o,
+    jlong shape) {
+    LOG_FUNCTION
+    try {
+        yz::World::deleteShape(reinterpret_cast<btCollisionShape*>(shape));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+}
+
+JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_getShapeMemorySize(
+    JNIEnv* env,
+    jobject o,
+    jlong shape) {
+    LOG_FUNCTION
+    try {
+        return yz::World::getShapeMemorySize(reinterpret_cast<btCollisionShape*>(shape));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return 0L;
+}
+
 JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createBoxShape(
     JNIEnv* env,
     jobject o,
@@ -325,6 +745,96 @@ JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createSphereShape(
     return -1L;
 }
 
+JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createCapsuleShape(
+    JNIEnv* env,
+    jobject o,
+    jfloat radius,
+    jfloat height) {
+    LOG_FUNCTION
+    try {
+        btCollisionShape* shape = new btCapsuleShape(radius, height);
+        return reinterpret_cast<jlong>(shape);
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return -1L;
+}
+
+JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createConvexHullShape(
+    JNIEnv* env,
+    jobject o,
+    jfloatArray points) {
+    LOG_FUNCTION
+    try {
+        const jsize length = env->GetArrayLength(points);
+        jfloat* values = env->GetFloatArrayElements(points, 0);
+        btConvexHullShape* shape = new btConvexHullShape();
+        for (jsize i = 0; i + 2 < length; i += 3) {
+            shape->addPoint(btVector3(values[i], values[i + 1], values[i + 2]), false);
+        }
+        env->ReleaseFloatArrayElements(points, values, JNI_ABORT);
+        shape->recalcLocalAabb();
+        return reinterpret_cast<jlong>(shape);
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return -1L;
+}
+
+JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createCompoundShape(
+    JNIEnv* env,
+    jobject o) {
+    LOG_FUNCTION
+    try {
+        btCollisionShape* shape = new btCompoundShape();
+        return reinterpret_cast<jlong>(shape);
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return -1L;
+}
+
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_addCompoundChild(
+    JNIEnv* env,
+    jobject o,
+    jlong compound,
+    jlong child,
+    jfloat x,
+    jfloat y,
+    jfloat z,
+    jfloat orientationX,
+    jfloat orientationY,
+    jfloat orientationZ,
+    jfloat orientationW) {
+    LOG_FUNCTION
+    try {
+        const btTransform transform(btQuaternion(orientationX, orientationY, orientationZ, orientationW), btVector3(x, y, z));
+        reinterpret_cast<btCompoundShape*>(compound)->addChildShape(transform, reinterpret_cast<btCollisionShape*>(child));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+}
+
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_decomposeMesh(
+    JNIEnv* env,
+    jobject o,
+    jobject data,
+    jint size,
+    jobject buffer) {
+    LOG_FUNCTION
+    try {
+        char* address = static_cast<char*>(env->GetDirectBufferAddress(data));
+        const jlong capacity = env->GetDirectBufferCapacity(data);
+        char* output = static_cast<char*>(env->GetDirectBufferAddress(buffer));
+        const jlong outputCapacity = env->GetDirectBufferCapacity(buffer);
+        return yz::World::decomposeShape(address, static_cast<int>(std::min(static_cast<jlong>(size), capacity)),
+            output, static_cast<int>(outputCapacity));
+    } catch (std::exception& e) {
+        throwException(env, e.what());
+    }
+    return 0;
+}
+
 
 JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createGhostObject(
     JNIEnv* env,
@@ -334,12 +844,14 @@ JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createGhostObject(
     jlong id,
     jfloat x,
     jfloat y,
-    jfloat z) {
+    jfloat z,
+    jint group,
+    jint mask) {
     LOG_FUNCTION
     try {
         yz::World* world = reinterpret_cast<yz::World*>(pointer);
         btCollisionShape* shape = reinterpret_cast<btCollisionShape*>(shapePointer);
-        return reinterpret_cast<jlong>(world->createGhostObject(shape, id, x, y, z));
+        return reinterpret_cast<jlong>(world->createGhostObject(shape, id, x, y, z, group, mask));
     } catch (std::exception& e) {
         throwException(env, e.what());
     }
@@ -24,22 +24,41 @@
 #include "../includes/World.hpp"
 #include "../includes/KinematicMotionState.hpp"
 #include "../includes/DynamicMotionState.hpp"
+#include "../includes/MeshImporter.hpp"
+#include "../includes/ConvexDecomposition.hpp"
+#include "../includes/RayCastTask.hpp"
+#include "../includes/FilteredRayCallback.hpp"
+#include "../includes/GhostEventCallback.hpp"
 #include <algorithm>
+#include <cstring>
+#include <stdexcept>
 
 /**
 * @author Grégory Van den Borre
 */
 
-yz::World::World() {
-    this->ghostPairCallback = new btGhostPairCallback();
+yz::World::World(const bool multithread) :
+    fixedTimeStep(btScalar(1.) / btScalar(60.)),
+    maxSubSteps(7),
+    matrixFilter(0) {
+    this->ghostPairCallback = new yz::GhostEventCallback(this);
     this->broadphase = new btDbvtBroadphase();
     this->broadphase->getOverlappingPairCache()->setInternalGhostPairCallback(
             this->ghostPairCallback);
     this->collisionConfiguration = new btDefaultCollisionConfiguration();
-    this->dispatcher = new btCollisionDispatcher(collisionConfiguration);
-    this->solver = new btSequentialImpulseConstraintSolver;
-    this->world = new btDiscreteDynamicsWorld(this->dispatcher,
-            this->broadphase, this->solver, this->collisionConfiguration);
+    if (multithread) {
+        this->dispatcher = new btCollisionDispatcherMt(this->collisionConfiguration);
+        this->solverPool = new btConstraintSolverPoolMt(BT_MAX_THREAD_COUNT);
+        this->solver = new btSequentialImpulseConstraintSolverMt;
+        this->world = new btDiscreteDynamicsWorldMt(this->dispatcher,
+                this->broadphase, this->solverPool, this->solver, this->collisionConfiguration);
+    } else {
+        this->dispatcher = new btCollisionDispatcher(this->collisionConfiguration);
+        this->solverPool = 0;
+        this->solver = new btSequentialImpulseConstraintSolver;
+        this->world = new btDiscreteDynamicsWorld(this->dispatcher,
+                this->broadphase, this->solver, this->collisionConfiguration);
+    }
 }
 
 yz::World::~World() {
@@ -54,17 +73,21 @@ yz::World::~World() {
     }
     delete this->world;
     delete this->solver;
+    delete this->solverPool;
     delete this->dispatcher;
     delete this->collisionConfiguration;
     delete this->broadphase;
     delete this->ghostPairCallback;
+    delete this->matrixFilter;
 }
 
 yz::RigidBody* yz::World::createStaticBody(
     btCollisionShape* shape,
     const btVector3& position,
     const btVector3& direction,
-    const long id) {
+    const long id,
+    const int group,
+    const int mask) {
     btScalar mass = 0;
     btVector3 inertia(0, 0, 0);
 
@@ -76,8 +99,8 @@ yz::RigidBody* yz::World::createStaticBody(
     body->setCollisionFlags(
             body->getCollisionFlags() | btCollisionObject::CF_STATIC_OBJECT);
     body->setActivationState(ISLAND_SLEEPING);
-    this->ids[body] = id;
-    world->addRigidBody(body);
+    yz::CollisionObjectId::set(body, id, this);
+    world->addRigidBody(body, group, mask);
     return body;
 }
 
@@ -86,7 +109,9 @@ yz::RigidBody* yz::World::createKinematicBody(
     const long id,
     const float x,
     const float y,
-    const float z) {
+    const float z,
+    const int group,
+    const int mask) {
     btScalar mass = 0;
     btVector3 inertia(0, 0, 0);
     btTransform transform;
@@ -95,11 +120,9 @@ yz::RigidBody* yz::World::createKinematicBody(
         new yz::NativeMovable());
     body->setCollisionFlags(body->getCollisionFlags() | btCollisionObject::CF_KINEMATIC_OBJECT);
     body->setActivationState(DISABLE_DEACTIVATION);
-    world->addRigidBody(body,
-            body->getCollisionFlags() | btCollisionObject::CF_KINEMATIC_OBJECT,
-            btCollisionObject::CF_KINEMATIC_OBJECT
-                    | btCollisionObject::CO_GHOST_OBJECT);
-    this->ids[body] = id;
+    //the id is needed by the ghost pair callback, which is called while the object is added.
+    yz::CollisionObjectId::set(body, id, this);
+    world->addRigidBody(body, group, mask);
     return body;
 }
 
@@ -109,71 +132,58 @@ yz::RigidBody* yz::World::createDynamicBody(
     const float x,
     const float y,
     const float z,
-    const float mass) {
+    const float mass,
+    const int group,
+    const int mask) {
     btVector3 inertia(0, 0, 0);
     shape->calculateLocalInertia(mass, inertia);
     btTransform transform;
     transform.setOrigin(btVector3(x, y, z));
-    yz::DynamicMotionState* s = new yz::DynamicMotionState(transform);
+    yz::DynamicMotionState* s = new yz::DynamicMotionState(transform, id, &this->movedBodies);
     yz::RigidBody* body = new yz::RigidBody(mass, s, shape, inertia, s->getMovable());
-    world->addRigidBody(body);
-    this->ids[body] = id;
+    yz::CollisionObjectId::set(body, id, this);
+    world->addRigidBody(body, group, mask);
     return body;
 }
 
-btGhostObject* yz::World::createGhostObject(btCollisionShape* shape, const long id, const float x, const float y,
-    const float z) {
-    btGhostObject* ghostObject = new btGhostObject();
+btPairCachingGhostObject* yz::World::createGhostObject(btCollisionShape* shape, const long id, const float x,
+    const float y, const float z, const int group, const int mask) {
+    btPairCachingGhostObject* ghostObject = new btPairCachingGhostObject();
     ghostObject->setCollisionShape(shape);
     ghostObject->setWorldTransform(btTransform(btQuaternion(0, 0, 0, 1), btVector3(x, y, z)));
-    this->world->addCollisionObject(ghostObject, btCollisionObject::CO_GHOST_OBJECT,
-        btCollisionObject::CF_KINEMATIC_OBJECT);
-    this->ghostIds[ghostObject] = id;
+    yz::CollisionObjectId::set(ghostObject, id, this);
+    this->world->addCollisionObject(ghostObject, group, mask);
     return ghostObject;
 }
 
+void yz::World::setCollisionMatrix(const jint* rows) {
+    btOverlappingPairCache* cache = this->broadphase->getOverlappingPairCache();
+    if (!rows) {
+        cache->setOverlapFilterCallback(0);
+        delete this->matrixFilter;
+        this->matrixFilter = 0;
+        return;
+    }
+    if (!this->matrixFilter) {
+        this->matrixFilter = new yz::CollisionMatrixFilter();
+    }
+    this->matrixFilter->setRows(rows);
+    cache->setOverlapFilterCallback(this->matrixFilter);
+}
+
 void yz::World::removeGhost(btGhostObject* ghost) {
     ghost->activate(false);
     this->world->removeCollisionObject(ghost);
-    long id = this->ghostIds[ghost];
-    this->ghostCollisionResult.erase(
-            std::remove(this->ghostCollisionResult.begin(),
-            this->ghostCollisionResult.end(), id),
-            this->ghostCollisionResult.end());
-    this->ghostIds.erase(ghost);
     delete ghost;
 }
 
-std::vector<jlong> yz::World::update(const long time) {
-    this->world->stepSimulation(time / 1000.0f, 7);
-    this->ghostCollisionResult.clear();
-
-    btCollisionObjectArray& collisionObjects = this->world->getCollisionObjectArray();
-    for (int i = 0; i < this->world->getNumCollisionObjects(); i++) {
-        btGhostObject* ghost = btGhostObject::upcast(collisionObjects.at(i));
-        if (ghost) {
-            btAlignedObjectArray<btCollisionObject*> objsInsidePairCachingGhostObject;
-            objsInsidePairCachingGhostObject.resize(0);
-            for (int j = 0; j < ghost->getNumOverlappingObjects(); j++) {
-                btCollisionObject* co = ghost->getOverlappingObject(j);
-                if (co) {
-                    btRigidBody *pRigidBody = btRigidBody::upcast(co);
-                    if (pRigidBody) {
-                        jlong g = this->ghostIds[ghost];
-                        jlong b = this->ids[pRigidBody];
-                        if (b != g) {
-                            this->ghostCollisionResult.push_back(g);
-                            this->ghostCollisionResult.push_back(b);
-                        }
-                    }
-                }
-            }
-        }
-    }
+void yz::World::update(const long time) {
+    this->movedBodies.clear();
+    this->world->stepSimulation(time / 1000.0f, this->maxSubSteps, this->fixedTimeStep);
 
     //Retrieve rigid to rigid collisions.
     int numManifolds = this->world->getDispatcher()->getNumManifolds();
-    std::vector<jlong> collisionList;
+    this->currentCollisions.clear();
 
     for (int i = 0; i < numManifolds; i++) {
         btPersistentManifold* contactManifold = this->world->getDispatcher()->getManifoldByIndexInternal(i);
@@ -182,23 +192,544 @@ std::vector<jlong> yz::World::update(const long time) {
             const btCollisionObject* firstCo = contactManifold->getBody0();
             const btCollisionObject* secondCo = contactManifold->getBody1();
             if (btRigidBody::upcast(firstCo) && btRigidBody::upcast(secondCo)) {
-                jlong firstId = this->ids[firstCo];
-                jlong secondId = this->ids[secondCo];
-                if (firstId && secondId) {
-                    collisionList.push_back(firstId);
-                    collisionList.push_back(secondId);
+                const jlong firstId = yz::CollisionObjectId::get(firstCo);
+                const jlong secondId = yz::CollisionObjectId::get(secondCo);
+                if (yz::CollisionObjectId::has(firstCo) && yz::CollisionObjectId::has(secondCo) && firstId != secondId) {
+                    this->currentCollisions.push_back(std::make_pair(std::min(firstId, secondId), std::max(firstId, secondId)));
                 }
             }
         }
     }
-    return collisionList;
+    sortPairs(this->currentCollisions);
+
+    this->events.assign(EVENTS_HEADER_SIZE, 0);
+    const jlong started = this->appendDifference(this->currentCollisions, this->collisions);
+    const jlong ended = this->appendDifference(this->collisions, this->currentCollisions);
+    //A pair entering and exiting between two updates cancels out.
+    this->ghostPairCallback->sort();
+    const jlong ghostStarted = this->appendDifference(this->ghostPairCallback->getEntered(), this->ghostPairCallback->getExited());
+    const jlong ghostEnded = this->appendDifference(this->ghostPairCallback->getExited(), this->ghostPairCallback->getEntered());
+    this->ghostPairCallback->clear();
+    this->events[0] = started;
+    this->events[1] = ended;
+    this->events[2] = ghostStarted;
+    this->events[3] = ghostEnded;
+    this->collisions.swap(this->currentCollisions);
+}
+
+jlong yz::World::appendDifference(const CollisionPairs& first, const CollisionPairs& second) {
+    jlong count = 0;
+    CollisionPairs::const_iterator i = first.begin();
+    CollisionPairs::const_iterator j = second.begin();
+    while (i != first.end()) {
+        if (j == second.end() || *i < *j) {
+            this->events.push_back(i->first);
+            this->events.push_back(i->second);
+            count++;
+            ++i;
+        } else if (*j < *i) {
+            ++j;
+        } else {
+            ++i;
+            ++j;
+        }
+    }
+    return count;
+}
+
+void yz::World::sortPairs(CollisionPairs& pairs) {
+    std::sort(pairs.begin(), pairs.end());
+    pairs.erase(std::unique(pairs.begin(), pairs.end()), pairs.end());
+}
+
+int yz::World::writeTransforms(char* output, const int capacity, const bool interpolated) const {
+    //the kinematic bodies have no mass so they are flagged static and not listed with the non static bodies.
+    const btCollisionObjectArray& objects = this->world->getCollisionObjectArray();
+    int size = 0;
+    btTransform transform;
+    for (int i = 0; i < objects.size(); i++) {
+        const btRigidBody* body = btRigidBody::upcast(objects[i]);
+        if (!body || (body->isStaticObject() && !body->isKinematicObject())) {
+            continue;
+        }
+        if (size < capacity) {
+            if (interpolated && body->getMotionState()) {
+                body->getMotionState()->getWorldTransform(transform);
+            } else {
+                transform = body->getWorldTransform();
+            }
+            writeTransform(output + size * TRANSFORM_RECORD_SIZE, this->findId(body), transform);
+        }
+        size++;
+    }
+    return size;
+}
+
+bool yz::World::setTaskScheduler(const int type, const int threads) {
+    static btITaskScheduler* defaultScheduler = 0;
+    btITaskScheduler* scheduler = 0;
+    switch (type) {
+        case DEFAULT_SCHEDULER:
+            if (!defaultScheduler) {
+                defaultScheduler = btCreateDefaultTaskScheduler();
+            }
+            scheduler = defaultScheduler;
+            break;
+        case OPENMP_SCHEDULER:
+            scheduler = btGetOpenMPTaskScheduler();
+            break;
+        case TBB_SCHEDULER:
+            scheduler = btGetTBBTaskScheduler();
+            break;
+        case PPL_SCHEDULER:
+            scheduler = btGetPPLTaskScheduler();
+            break;
+    }
+    if (!scheduler) {
+        return false;
+    }
+    scheduler->setNumThreads(std::min(threads, scheduler->getMaxNumThreads()));
+    btSetTaskScheduler(scheduler);
+    return true;
+}
+
+btCollisionShape* yz::World::deserializeShape(char* data, const int size, char* bvh, const int bvhSize) {
+    btOptimizedBvh* cooked = 0;
+    if (bvh && bvhSize > 0) {
+        //an invalid structure gives null, the importer builds it in that case.
+        cooked = btOptimizedBvh::deSerializeInPlace(bvh, static_cast<unsigned int>(bvhSize), false);
+    }
+    yz::MeshImporter* importer = new yz::MeshImporter(cooked);
+    if (!importer->loadFileFromMemory(data, size) || importer->getNumCollisionShapes() == 0) {
+        importer->deleteAllData();
+        delete importer;
+        throw std::invalid_argument("Invalid serialized shape");
+    }
+    //the children of a compound are also listed as shapes, the compound is the one to use.
+    btCollisionShape* result = importer->getCollisionShapeByIndex(0);
+    for (int i = 0; i < importer->getNumCollisionShapes(); i++) {
+        btCollisionShape* shape = importer->getCollisionShapeByIndex(i);
+        if (shape->getShapeType() == COMPOUND_SHAPE_PROXYTYPE) {
+            result = shape;
+            break;
+        }
+    }
+    //the importer owns the shapes, the meshes and their vertex and index arrays, it is kept to delete them together.
+    result->setUserPointer(importer);
+    return result;
+}
+
+void yz::World::deleteShape(btCollisionShape* shape) {
+    yz::MeshImporter* importer = static_cast<yz::MeshImporter*>(shape->getUserPointer());
+    if (importer) {
+        importer->deleteAllData();
+        delete importer;
+    } else {
+        delete shape;
+    }
+}
+
+int yz::World::decomposeShape(char* data, const int size, char* output, const int capacity) {
+    yz::MeshImporter importer(0);
+    if (!importer.loadFileFromMemory(data, size) || importer.getNumCollisionShapes() == 0) {
+        throw std::invalid_argument("Invalid serialized shape");
+    }
+    btCollisionShape* shape = importer.getCollisionShapeByIndex(0);
+    if (!shape->isConcave()) {
+        importer.deleteAllData();
+        throw std::invalid_argument("Only a concave shape can be decomposed");
+    }
+    yz::ConvexDecomposition decomposition;
+    btVector3 aabbMin;
+    btVector3 aabbMax;
+    shape->getAabb(btTransform::getIdentity(), aabbMin, aabbMax);
+    static_cast<btConcaveShape*>(shape)->processAllTriangles(&decomposition, aabbMin, aabbMax);
+    importer.deleteAllData();
+    btCompoundShape* compound = decomposition.build();
+    btDefaultSerializer serializer;
+    serializer.startSerialization();
+    compound->serializeSingleShape(&serializer);
+    serializer.finishSerialization();
+    const int written = serializer.getCurrentBufferSize();
+    if (written <= capacity) {
+        std::copy(serializer.getBufferPointer(), serializer.getBufferPointer() + written, output);
+    }
+    yz::ConvexDecomposition::deleteCompound(compound);
+    return written;
+}
+
+jlong yz::World::getShapeMemorySize(const btCollisionShape* shape) {
+    switch (shape->getShapeType()) {
+        case TRIANGLE_MESH_SHAPE_PROXYTYPE: {
+            const btBvhTriangleMeshShape* mesh = static_cast<const btBvhTriangleMeshShape*>(shape);
+            jlong size = sizeof(btBvhTriangleMeshShape);
+            const btStridingMeshInterface* triangles = mesh->getMeshInterface();
+            for (int part = 0; part < triangles->getNumSubParts(); part++) {
+                const unsigned char* vertices;
+                const unsigned char* indices;
+                int vertexCount;
+                int vertexStride;
+                int indexStride;
+                int faceCount;
+                PHY_ScalarType vertexType;
+                PHY_ScalarType indexType;
+                triangles->getLockedReadOnlyVertexIndexBase(&vertices, vertexCount, vertexType, vertexStride, &indices,
+                    indexStride, faceCount, indexType, part);
+                size += static_cast<jlong>(vertexCount) * vertexStride + static_cast<jlong>(faceCount) * indexStride;
+                triangles->unLockReadOnlyVertexBase(part);
+            }
+            const btOptimizedBvh* bvh = const_cast<btBvhTriangleMeshShape*>(mesh)->getOptimizedBvh();
+            return bvh ? size + bvh->calculateSerializeBufferSize() : size;
+        }
+        case CONVEX_HULL_SHAPE_PROXYTYPE:
+            return sizeof(btConvexHullShape)
+                + static_cast<jlong>(static_cast<const btConvexHullShape*>(shape)->getNumPoints()) * sizeof(btVector3);
+        case COMPOUND_SHAPE_PROXYTYPE: {
+            const btCompoundShape* compound = static_cast<const btCompoundShape*>(shape);
+            jlong size = sizeof(btCompoundShape)
+                + static_cast<jlong>(compound->getNumChildShapes()) * (sizeof(btCompoundShapeChild) + sizeof(btDbvtNode));
+            //the children of a loaded compound belong to it, the other children are counted as separate shapes.
+            if (shape->getUserPointer()) {
+                for (int i = 0; i < compound->getNumChildShapes(); i++) {
+                    size += getShapeMemorySize(compound->getChildShape(i));
+                }
+            }
+            return size;
+        }
+        default:
+            return shape->calculateSerializeBufferSize();
+    }
+}
+
+int yz::World::getBvhSize(btCollisionShape* shape) {
+    if (shape->getShapeType() != TRIANGLE_MESH_SHAPE_PROXYTYPE) {
+        return 0;
+    }
+    const btOptimizedBvh* bvh = static_cast<btBvhTriangleMeshShape*>(shape)->getOptimizedBvh();
+    return bvh ? static_cast<int>(bvh->calculateSerializeBufferSize()) : 0;
+}
+
+void yz::World::serializeBvh(btCollisionShape* shape, char* output, const int capacity) {
+    const int size = getBvhSize(shape);
+    if (size == 0 || size > capacity) {
+        throw std::invalid_argument("Cannot serialize the shape acceleration structure");
+    }
+    static_cast<btBvhTriangleMeshShape*>(shape)->getOptimizedBvh()->serializeInPlace(output, static_cast<unsigned int>(size), false);
+}
+
+void yz::World::applyCommands(const char* input, const int count) {
+    for (int i = 0; i < count; i++) {
+        const char* command = input + i * COMMAND_SIZE;
+        const jint operation = *reinterpret_cast<const jint*>(command);
+        const jint flag = *reinterpret_cast<const jint*>(command + sizeof(jint));
+        const jlong pointer = *reinterpret_cast<const jlong*>(command + 2 * sizeof(jint));
+        const jfloat* values = reinterpret_cast<const jfloat*>(command + 2 * sizeof(jint) + sizeof(jlong));
+        switch (operation) {
+            case SET_GRAVITY:
+                this->setGravity(values[0], values[1], values[2]);
+                break;
+            case SET_ACTIVATE:
+                reinterpret_cast<yz::RigidBody*>(pointer)->activate(flag != 0);
+                break;
+            case DELETE_BODY: {
+                yz::RigidBody* body = reinterpret_cast<yz::RigidBody*>(pointer);
+                body->activate(false);
+                this->removeBody(body);
+                break;
+            }
+            case DELETE_GHOST:
+                this->removeGhost(reinterpret_cast<btGhostObject*>(pointer));
+                break;
+            case DYNAMIC_POSITION: {
+                yz::RigidBody* body = reinterpret_cast<yz::RigidBody*>(pointer);
+                btTransform transform = body->getCenterOfMassTransform();
+                transform.setOrigin(btVector3(values[0], values[1], values[2]));
+                body->setCenterOfMassTransform(transform);
+                break;
+            }
+            case DYNAMIC_ORIENTATION: {
+                yz::RigidBody* body = reinterpret_cast<yz::RigidBody*>(pointer);
+                btTransform transform = body->getCenterOfMassTransform();
+                transform.setRotation(btQuaternion(values[1], values[2], values[3], values[0]));
+                body->setCenterOfMassTransform(transform);
+                break;
+            }
+            case APPLY_FORCE:
+                reinterpret_cast<yz::RigidBody*>(pointer)->applyCentralForce(btVector3(values[0], values[1], values[2]));
+                break;
+            case KINEMATIC_POSITION: {
+                yz::RigidBody* body = reinterpret_cast<yz::RigidBody*>(pointer);
+                btTransform transform;
+                transform.setIdentity();
+                transform.setOrigin(btVector3(values[0], values[1], values[2]));
+                static_cast<KinematicMotionState*>(body->getMotionState())->setKinematicPos(transform);
+                break;
+            }
+            case KINEMATIC_ROTATION: {
+                yz::RigidBody* body = reinterpret_cast<yz::RigidBody*>(pointer);
+                KinematicMotionState* state = static_cast<KinematicMotionState*>(body->getMotionState());
+                btTransform transform;
+                state->getWorldTransform(transform);
+                transform.setRotation(btQuaternion(values[1], values[2], values[3], values[0]));
+                state->setKinematicPos(transform);
+                break;
+            }
+            case GHOST_POSITION: {
+                btGhostObject* ghost = reinterpret_cast<btGhostObject*>(pointer);
+                btTransform& transform = ghost->getWorldTransform();
+                transform.setOrigin(btVector3(values[0], values[1], values[2]));
+                ghost->setWorldTransform(transform);
+                break;
+            }
+            case SET_TIME_STEP:
+                this->setTimeStep(values[0], flag);
+                break;
+            default:
+                throw std::invalid_argument("Unknown deferred command");
+        }
+    }
+}
+
+int yz::World::writeMovedTransforms(char* output, const int capacity) const {
+    const btAlignedObjectArray<MovedBody>& bodies = this->movedBodies.bodies;
+    const int size = bodies.size();
+    const int count = std::min(size, capacity);
+    for (int i = 0; i < count; i++) {
+        writeTransform(output + i * TRANSFORM_RECORD_SIZE, bodies[i].id, bodies[i].transform);
+    }
+    return size;
+}
+
+void yz::World::readTransforms(const char* input, const int count) {
+    btTransform transform;
+    for (int i = 0; i < count; i++) {
+        const char* record = input + i * TRANSFORM_RECORD_SIZE;
+        const jlong pointer = *reinterpret_cast<const jlong*>(record);
+        const jfloat* values = reinterpret_cast<const jfloat*>(record + sizeof(jlong));
+        transform.setOrigin(btVector3(values[0], values[1], values[2]));
+        transform.setRotation(btQuaternion(values[3], values[4], values[5], values[6]));
+        btCollisionObject* object = reinterpret_cast<btCollisionObject*>(pointer);
+        btRigidBody* body = btRigidBody::upcast(object);
+        if (body && body->isKinematicObject()) {
+            static_cast<KinematicMotionState*>(body->getMotionState())->setKinematicPos(transform);
+        } else {
+            object->setWorldTransform(transform);
+        }
+    }
+}
+
+void yz::World::writeTransform(char* output, const jlong id, const btTransform& transform) {
+    const btVector3& position = transform.getOrigin();
+    const btQuaternion orientation = transform.getRotation();
+    *reinterpret_cast<jlong*>(output) = id;
+    jfloat* values = reinterpret_cast<jfloat*>(output + sizeof(jlong));
+    values[0] = position.getX();
+    values[1] = position.getY();
+    values[2] = position.getZ();
+    values[3] = orientation.getX();
+    values[4] = orientation.getY();
+    values[5] = orientation.getZ();
+    values[6] = orientation.getW();
+}
+
+void yz::World::rayCastBatch(const char* input, const int count, char* output) const {
+    if (count >= PARALLEL_RAYCAST_THRESHOLD) {
+        const yz::RayCastTask task(this, nullptr, input, output);
+        btParallelFor(0, count, PARALLEL_RAYCAST_THRESHOLD / 4, task);
+    } else {
+        for (int i = 0; i < count; i++) {
+            this->rayCast(input + i * RAY_RECORD_SIZE, output + i * HIT_RECORD_SIZE);
+        }
+    }
+}
+
+void yz::World::rayCast(const char* input, char* output) const {
+    const jfloat* ray = reinterpret_cast<const jfloat*>(input);
+    const btVector3 origin(ray[0], ray[1], ray[2]);
+    const btVector3 end(ray[3], ray[4], ray[5]);
+    btCollisionWorld::ClosestRayResultCallback result(origin, end);
+    this->world->rayTest(origin, end, result);
+    const bool hit = result.hasHit();
+    writeHit(output, hit ? this->findId(result.m_collisionObject) : yz::CollisionObjectId::NO_ID, result.m_hitPointWorld, result.m_hitNormalWorld,
+        result.m_closestHitFraction, hit);
+}
+
+void yz::World::rayCast(const btVector3& origin, const btVector3& end, const yz::RayFilter& filter, char* output) const {
+    yz::FilteredRayCallback<btCollisionWorld::ClosestRayResultCallback> result(origin, end, this, filter);
+    this->world->rayTest(origin, end, result);
+    const bool hit = result.hasHit();
+    writeHit(output, hit ? this->findId(result.m_collisionObject) : yz::CollisionObjectId::NO_ID, result.m_hitPointWorld, result.m_hitNormalWorld,
+        result.m_closestHitFraction, hit);
+}
+
+void yz::World::sweepBatch(const btConvexShape* shape, const char* input, const int count, char* output) const {
+    if (count >= PARALLEL_RAYCAST_THRESHOLD) {
+        const yz::RayCastTask task(this, shape, input, output);
+        btParallelFor(0, count, PARALLEL_RAYCAST_THRESHOLD / 4, task);
+    } else {
+        for (int i = 0; i < count; i++) {
+            this->sweep(shape, input + i * RAY_RECORD_SIZE, output + i * HIT_RECORD_SIZE);
+        }
+    }
+}
+
+void yz::World::sweep(const btConvexShape* shape, const char* input, char* output) const {
+    const jfloat* ray = reinterpret_cast<const jfloat*>(input);
+    const btVector3 origin(ray[0], ray[1], ray[2]);
+    const btVector3 end(ray[3], ray[4], ray[5]);
+    btCollisionWorld::ClosestConvexResultCallback result(origin, end);
+    this->world->convexSweepTest(shape, btTransform(btQuaternion::getIdentity(), origin),
+        btTransform(btQuaternion::getIdentity(), end), result);
+    const bool hit = result.hasHit();
+    writeHit(output, hit ? this->findId(result.m_hitCollisionObject) : yz::CollisionObjectId::NO_ID, result.m_hitPointWorld, result.m_hitNormalWorld,
+        result.m_closestHitFraction, hit);
+}
+
+void yz::World::sweep(const btConvexShape* shape, const btVector3& origin, const btVector3& end,
+    const yz::RayFilter& filter, char* output) const {
+    yz::FilteredRayCallback<btCollisionWorld::ClosestConvexResultCallback> result(origin, end, this, filter);
+    this->world->convexSweepTest(shape, btTransform(btQuaternion::getIdentity(), origin),
+        btTransform(btQuaternion::getIdentity(), end), result);
+    const bool hit = result.hasHit();
+    writeHit(output, hit ? this->findId(result.m_hitCollisionObject) : yz::CollisionObjectId::NO_ID, result.m_hitPointWorld, result.m_hitNormalWorld,
+        result.m_closestHitFraction, hit);
+}
+
+int yz::World::queryAabb(const btVector3& min, const btVector3& max, const bool exact, jlong* output, const int capacity) const {
+    if (exact) {
+        btBoxShape box((max - min) * 0.5);
+        return this->queryContacts(&box, (min + max) * 0.5, output, capacity);
+    }
+    std::vector<const btCollisionObject*> objects;
+    yz::AabbCollector collector(objects, min, 0);
+    this->world->getBroadphase()->aabbTest(min, max, collector);
+    return this->writeIds(objects, output, capacity);
+}
+
+int yz::World::querySphere(const btVector3& center, const btScalar radius, const bool exact, jlong* output, const int capacity) const {
+    if (exact) {
+        btSphereShape sphere(radius);
+        return this->queryContacts(&sphere, center, output, capacity);
+    }
+    std::vector<const btCollisionObject*> objects;
+    yz::AabbCollector collector(objects, center, radius);
+    const btVector3 extent(radius, radius, radius);
+    this->world->getBroadphase()->aabbTest(center - extent, center + extent, collector);
+    return this->writeIds(objects, output, capacity);
+}
+
+int yz::World::queryContacts(btCollisionShape* shape, const btVector3& center, jlong* output, const int capacity) const {
+    btCollisionObject query;
+    query.setCollisionShape(shape);
+    query.setWorldTransform(btTransform(btQuaternion::getIdentity(), center));
+    std::vector<const btCollisionObject*> objects;
+    yz::ContactCollector collector(objects, &query);
+    this->world->contactTest(&query, collector);
+    return this->writeIds(objects, output, capacity);
+}
+
+int yz::World::contactTest(btCollisionObject* object, jlong* output, const int capacity) const {
+    std::vector<const btCollisionObject*> objects;
+    yz::ContactCollector collector(objects, object);
+    this->world->contactTest(object, collector);
+    return this->writeIds(objects, output, capacity);
+}
+
+int yz::World::contactTestPoints(btCollisionObject* object, char* output, const int capacity) const {
+    std::vector<yz::Contact> contacts;
+    yz::ContactPointCollector collector(contacts, object);
+    this->world->contactTest(object, collector);
+    return this->writeContacts(contacts, output, capacity);
+}
+
+int yz::World::contactPairTest(btCollisionObject* object, btCollisionObject* other, char* output, const int capacity) const {
+    std::vector<yz::Contact> contacts;
+    yz::ContactPointCollector collector(contacts, object);
+    this->world->contactPairTest(object, other, collector);
+    return this->writeContacts(contacts, output, capacity);
+}
+
+int yz::World::writeContacts(const std::vector<yz::Contact>& contacts, char* output, const int capacity) const {
+    const int count = static_cast<int>(contacts.size());
+    for (int i = 0; i < count && i < capacity; i++) {
+        const yz::Contact& contact = contacts[i];
+        writeHit(output + i * HIT_RECORD_SIZE, this->findId(contact.object), contact.point, contact.normal, contact.distance, true);
+    }
+    return count;
+}
+
+int yz::World::writeIds(std::vector<const btCollisionObject*>& objects, jlong* output, const int capacity) const {
+    std::sort(objects.begin(), objects.end());
+    objects.erase(std::unique(objects.begin(), objects.end()), objects.end());
+    int count = 0;
+    for (const btCollisionObject* object : objects) {
+        if (yz::CollisionObjectId::has(object)) {
+            if (count < capacity) {
+                output[count] = yz::CollisionObjectId::get(object);
+            }
+            count++;
+        }
+    }
+    return count;
+}
+
+const btConvexShape* yz::World::toConvex(const btCollisionShape* shape) {
+    if (!shape->isConvex()) {
+        throw std::invalid_argument("Only a convex shape can be swept");
+    }
+    return static_cast<const btConvexShape*>(shape);
+}
+
+int yz::World::rayCastAll(
+    const btVector3& origin,
+    const btVector3& end,
+    const yz::RayFilter& filter,
+    char* output,
+    const int capacity) const {
+    yz::FilteredRayCallback<btCollisionWorld::AllHitsRayResultCallback> result(origin, end, this, filter);
+    this->world->rayTest(origin, end, result);
+    const int size = result.m_collisionObjects.size();
+    std::vector<std::pair<btScalar, int> > order;
+    order.reserve(size);
+    for (int i = 0; i < size; i++) {
+        order.push_back(std::make_pair(result.m_hitFractions[i], i));
+    }
+    std::sort(order.begin(), order.end());
+    const int written = std::min(size, capacity);
+    for (int i = 0; i < written; i++) {
+        const int hit = order[i].second;
+        writeHit(output + i * HIT_RECORD_SIZE, this->findId(result.m_collisionObjects[hit]), result.m_hitPointWorld[hit],
+            result.m_hitNormalWorld[hit], result.m_hitFractions[hit], true);
+    }
+    return size;
+}
+
+void yz::World::writeHit(
+    char* output,
+    const jlong id,
+    const btVector3& point,
+    const btVector3& normal,
+    const btScalar fraction,
+    const bool hit) {
+    *reinterpret_cast<jlong*>(output) = id;
+    jfloat* values = reinterpret_cast<jfloat*>(output + sizeof(jlong));
+    values[0] = point.getX();
+    values[1] = point.getY();
+    values[2] = point.getZ();
+    values[3] = normal.getX();
+    values[4] = normal.getY();
+    values[5] = normal.getZ();
+    values[6] = fraction;
+    *reinterpret_cast<jint*>(output + sizeof(jlong) + 7 * sizeof(jfloat)) = hit ? 1 : 0;
+}
+
+jlong yz::World::findId(const btCollisionObject* object) const {
+    return yz::CollisionObjectId::get(object);
 }
 
 long yz::World::rayCast(const btVector3& origin, const btVector3& end) const {
     btCollisionWorld::ClosestRayResultCallback result(origin, end);
-    this->world->getCollisionWorld()->rayTest(origin, end, result);
-    long id = this->ids.at(result.m_collisionObject);
-    return id == 0 ? -1L : id;
+    return this->rayCast(origin, end, result);
 }
 
 long yz::World::rayCast(
@@ -206,28 +737,28 @@ long yz::World::rayCast(
     const btVector3& end,
     btCollisionWorld::ClosestRayResultCallback& result) const {
     this->world->getCollisionWorld()->rayTest(origin, end, result);
-    long id = this->ids.at(result.m_collisionObject);
-    return id == 0 ? -1L : id;
+    if (!result.hasHit()) {
+        return -1L;
+    }
+    return this->findId(result.m_collisionObject);
 }
 
 void yz::World::rayCastPoint(
     const btVector3& origin,
     const btVector3& end,
-    float* resultArray) const {
+    jlong* resultArray) const {
     btCollisionWorld::ClosestRayResultCallback result(origin, end);
-    this->world->getCollisionWorld()->rayTest(origin, end, result);
-
-    if (!result.hasHit()) {
-        resultArray[0] = -1;
-        resultArray[1] = 0;
-        resultArray[2] = 0;
-        resultArray[3] = 0;
-    } else {
-        btVector3 contact = result.m_hitPointWorld;
-        resultArray[0] = this->ids.at(result.m_collisionObject);
-        resultArray[1] = contact.getX();
-        resultArray[2] = contact.getY();
-        resultArray[3] = contact.getZ();
+    const jlong id = this->rayCast(origin, end, result);
+    jfloat contact[3] = {0, 0, 0};
+    if (result.hasHit()) {
+        contact[0] = result.m_hitPointWorld.getX();
+        contact[1] = result.m_hitPointWorld.getY();
+        contact[2] = result.m_hitPointWorld.getZ();
     }
-
+    jint bits[3];
+    std::memcpy(bits, contact, sizeof(bits));
+    resultArray[0] = id;
+    resultArray[1] = bits[0];
+    resultArray[2] = bits[1];
+    resultArray[3] = bits[2];
 }
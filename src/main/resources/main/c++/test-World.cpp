@@ -1,13 +1,62 @@
 #include "../includes/catch.hpp"
 #include "../includes/World.hpp"
+#include <cstring>
 
 TEST_CASE( "rayCastPoint", "[world]" ) {
     yz::World world;
     const btVector3 p = btVector3(0,0,0);
-    float f [4];
-    world.rayCastPoint(p, p, f);
-    REQUIRE( f[0] == -1 );
-    REQUIRE( f[1] == 0 );
-    REQUIRE( f[2] == 0 );
-    REQUIRE( f[3] == 0 );
+    jlong r [4];
+    world.rayCastPoint(p, p, r);
+    REQUIRE( r[0] == -1 );
+    for (int i = 1; i < 4; i++) {
+        //the contact point is stored as the bits of each float.
+        const jint bits = static_cast<jint>(r[i]);
+        jfloat value;
+        std::memcpy(&value, &bits, sizeof(value));
+        REQUIRE( bits == 0 );
+        REQUIRE( value == 0 );
+    }
+}
+
+TEST_CASE( "writeTransformsIncludesKinematicBodies", "[world]" ) {
+    btBoxShape shape(btVector3(1, 1, 1));
+    yz::World world;
+    yz::RigidBody* ground = world.createStaticBody(&shape, btVector3(0, 0, 0), btVector3(0, 0, 1), 1, 2, ~2);
+    yz::RigidBody* kinematic = world.createKinematicBody(&shape, 2, 10, 0, 0, 3, 6);
+    yz::RigidBody* dynamic = world.createDynamicBody(&shape, 3, 20, 0, 0, 1, 1, -1);
+    char output[3 * yz::World::TRANSFORM_RECORD_SIZE];
+    const int size = world.writeTransforms(output, 3, false);
+    REQUIRE( size == 2 );
+    bool kinematicFound = false;
+    for (int i = 0; i < size; i++) {
+        const char* record = output + i * yz::World::TRANSFORM_RECORD_SIZE;
+        if (*reinterpret_cast<const jlong*>(record) == 2) {
+            kinematicFound = true;
+            REQUIRE( *reinterpret_cast<const jfloat*>(record + sizeof(jlong)) == 10 );
+        }
+    }
+    REQUIRE( kinematicFound );
+    world.removeBody(dynamic);
+    world.removeBody(kinematic);
+    world.removeBody(ground);
+}
+
+TEST_CASE( "writeMovedTransformsOnceWithSeveralSubSteps", "[world]" ) {
+    btSphereShape shape(1);
+    yz::World world;
+    world.setGravity(0, -10, 0);
+    world.setTimeStep(btScalar(1.) / btScalar(60.), 7);
+    yz::RigidBody* body = world.createDynamicBody(&shape, 5, 0, 100, 0, 1, 1, -1);
+    //100 milliseconds are simulated with 6 sub steps.
+    world.update(100);
+    char output[2 * yz::World::TRANSFORM_RECORD_SIZE];
+    REQUIRE( world.writeMovedTransforms(output, 2) == 1 );
+    REQUIRE( *reinterpret_cast<const jlong*>(output) == 5 );
+    const jfloat y = *reinterpret_cast<const jfloat*>(output + sizeof(jlong) + sizeof(jfloat));
+    btTransform last;
+    body->getMotionState()->getWorldTransform(last);
+    REQUIRE( y == last.getOrigin().getY() );
+    world.update(100);
+    REQUIRE( world.writeMovedTransforms(output, 2) == 1 );
+    world.removeBody(body);
 }
@@ -0,0 +1,83 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+#ifndef COLLISION_MATRIX_FILTER_H
+#define COLLISION_MATRIX_FILTER_H
+
+#include "stdafx.h"
+
+namespace yz {
+
+/**
+ * Broadphase filter accepting a pair only if the group and mask of both objects match, and if the collision table lets
+ * at least one group of each object collide with the other.
+ * @author Grégory Van den Borre
+ */
+class CollisionMatrixFilter : public btOverlapFilterCallback {
+
+public:
+
+    /**
+     * Number of collision groups.
+     */
+    static const int GROUPS = 32;
+
+    CollisionMatrixFilter() {
+        for (int i = 0; i < GROUPS; i++) {
+            this->rows[i] = -1;
+        }
+    }
+
+    virtual ~CollisionMatrixFilter() {
+    }
+
+    /**
+     * @param values For each group, the bits of the groups it collides with.
+     */
+    void setRows(const jint* values) {
+        for (int i = 0; i < GROUPS; i++) {
+            this->rows[i] = values[i];
+        }
+    }
+
+    virtual bool needBroadphaseCollision(btBroadphaseProxy* proxy0, btBroadphaseProxy* proxy1) const {
+        if ((proxy0->m_collisionFilterGroup & proxy1->m_collisionFilterMask) == 0
+            || (proxy1->m_collisionFilterGroup & proxy0->m_collisionFilterMask) == 0) {
+            return false;
+        }
+        const int group0 = proxy0->m_collisionFilterGroup;
+        const int group1 = proxy1->m_collisionFilterGroup;
+        for (int i = 0; i < GROUPS; i++) {
+            if ((group0 & (1 << i)) != 0 && (this->rows[i] & group1) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+private:
+
+    jint rows[GROUPS];
+};
+}
+#endif
@@ -0,0 +1,82 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+#ifndef COLLISION_OBJECT_ID_H
+#define COLLISION_OBJECT_ID_H
+
+#include "stdafx.h"
+
+namespace yz {
+
+/**
+ * Entity id stored in the collision object itself, so resolving the id of an object is a field read.
+ * The 64 bits id is split in the two user indices, the user pointer references the world owning the object and is
+ * null for the objects without id, so every id value, including 0, is valid.
+ * @author Grégory Van den Borre
+ */
+class CollisionObjectId {
+
+public:
+
+    /**
+     * Value returned for an object without id.
+     */
+    static const jlong NO_ID = -1;
+
+    /**
+     * Store an id in an object, before adding it to the world: the pair callbacks called while the object is added
+     * ignore the objects without id.
+     * @param object Object to identify.
+     * @param id Id of the object.
+     * @param owner World containing the object.
+     */
+    static inline void set(btCollisionObject* object, const jlong id, void* owner) {
+        const unsigned long long value = static_cast<unsigned long long>(id);
+        object->setUserIndex(static_cast<int>(static_cast<unsigned int>(value)));
+        object->setUserIndex2(static_cast<int>(static_cast<unsigned int>(value >> 32)));
+        object->setUserPointer(owner);
+    }
+
+    /**
+     * @param object Object to check.
+     * @return True if an id is stored in the object.
+     */
+    static inline bool has(const btCollisionObject* object) {
+        return object->getUserPointer() != 0;
+    }
+
+    /**
+     * @param object Object to read.
+     * @return The id stored in the object, NO_ID if it has none.
+     */
+    static inline jlong get(const btCollisionObject* object) {
+        if (!has(object)) {
+            return NO_ID;
+        }
+        const unsigned long long low = static_cast<unsigned int>(object->getUserIndex());
+        const unsigned long long high = static_cast<unsigned int>(object->getUserIndex2());
+        return static_cast<jlong>((high << 32) | low);
+    }
+};
+}
+#endif
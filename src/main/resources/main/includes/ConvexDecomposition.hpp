@@ -0,0 +1,145 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+#ifndef CONVEX_DECOMPOSITION_H
+#define CONVEX_DECOMPOSITION_H
+
+#include "stdafx.h"
+
+namespace yz {
+
+/**
+ * Split the triangles of a mesh in connected parts and approximate each part with its convex hull.
+ * Two triangles are in the same part when they share a vertex at the exact same position.
+ * @author Grégory Van den Borre
+ */
+class ConvexDecomposition : public btTriangleCallback {
+
+public:
+
+    ConvexDecomposition() {
+    }
+
+    virtual ~ConvexDecomposition() {
+    }
+
+    virtual void processTriangle(btVector3* triangle, int partId, int triangleIndex) {
+        const int first = this->getVertex(triangle[0]);
+        this->merge(first, this->getVertex(triangle[1]));
+        this->merge(first, this->getVertex(triangle[2]));
+    }
+
+    /**
+     * Build the convex hulls of the processed triangles.
+     * @return A compound shape with one convex hull per connected part, to be deleted with deleteCompound.
+     */
+    btCompoundShape* build() {
+        std::map<int, btConvexHullShape*> hulls;
+        for (int i = 0; i < this->vertices.size(); i++) {
+            btConvexHullShape*& hull = hulls[this->find(i)];
+            if (!hull) {
+                hull = new btConvexHullShape();
+            }
+            hull->addPoint(this->vertices[i], false);
+        }
+        btCompoundShape* compound = new btCompoundShape();
+        for (std::map<int, btConvexHullShape*>::iterator it = hulls.begin(); it != hulls.end(); ++it) {
+            it->second->optimizeConvexHull();
+            it->second->recalcLocalAabb();
+            compound->addChildShape(btTransform::getIdentity(), it->second);
+        }
+        return compound;
+    }
+
+    /**
+     * Delete a compound shape built by this class, with its children.
+     * @param compound Compound shape to delete.
+     */
+    static void deleteCompound(btCompoundShape* compound) {
+        for (int i = compound->getNumChildShapes() - 1; i >= 0; i--) {
+            btCollisionShape* child = compound->getChildShape(i);
+            compound->removeChildShapeByIndex(i);
+            delete child;
+        }
+        delete compound;
+    }
+
+private:
+
+    typedef std::pair<btScalar, std::pair<btScalar, btScalar> > Position;
+
+    /**
+     * Retrieve the index of a vertex, registering it if its position was not met yet.
+     * @param position Vertex position.
+     * @return The vertex index.
+     */
+    int getVertex(const btVector3& position) {
+        const Position key(position.x(), std::make_pair(position.y(), position.z()));
+        std::map<Position, int>::const_iterator it = this->indices.find(key);
+        if (it != this->indices.end()) {
+            return it->second;
+        }
+        const int index = this->vertices.size();
+        this->indices[key] = index;
+        this->vertices.push_back(position);
+        this->parents.push_back(index);
+        return index;
+    }
+
+    /**
+     * @param index Vertex index.
+     * @return The index of the vertex representing the part containing the given one.
+     */
+    int find(int index) {
+        while (this->parents[index] != index) {
+            this->parents[index] = this->parents[this->parents[index]];
+            index = this->parents[index];
+        }
+        return index;
+    }
+
+    /**
+     * Put two vertices in the same part.
+     */
+    void merge(const int first, const int second) {
+        const int firstRoot = this->find(first);
+        const int secondRoot = this->find(second);
+        if (firstRoot != secondRoot) {
+            this->parents[secondRoot] = firstRoot;
+        }
+    }
+
+    /**
+     * Vertex indices by position.
+     */
+    std::map<Position, int> indices;
+
+    btAlignedObjectArray<btVector3> vertices;
+
+    /**
+     * Parent of each vertex in its part, a vertex being its own parent represents the part.
+     */
+    btAlignedObjectArray<int> parents;
+};
+}
+#endif
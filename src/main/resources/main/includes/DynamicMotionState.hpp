@@ -29,6 +29,55 @@
 
 namespace yz {
 
+/**
+* Transform given by the simulation to a body during the last step.
+*/
+ATTRIBUTE_ALIGNED16(struct) MovedBody {
+
+    BT_DECLARE_ALIGNED_ALLOCATOR();
+
+    MovedBody(const jlong id, const btTransform& transform) :
+    id(id), transform(transform) {
+    }
+
+    /**
+    * Id of the moved body.
+    */
+    jlong id;
+
+    /**
+    * Position and orientation given by the simulation.
+    */
+    btTransform transform;
+};
+
+/**
+* Transforms given by the simulation during the last update, with one record per moved body.
+*/
+struct MovedBodies {
+
+    MovedBodies() : update(0) {
+    }
+
+    /**
+    * Start a new update, the records of the previous one are dropped.
+    */
+    void clear() {
+        this->bodies.resize(0);
+        this->update++;
+    }
+
+    /**
+    * Last transform of each body moved during the current update.
+    */
+    btAlignedObjectArray<MovedBody> bodies;
+
+    /**
+    * Number of the current update, to detect the records written by a previous update.
+    */
+    unsigned int update;
+};
+
 /**
 * This motion state is intended to be used with dynamic bodies.
 *
@@ -41,9 +90,20 @@ public:
     * Full constructor, initialize the position and rotation.
     * @param initial
     *           Initial position and rotation values.
+    * @param id
+    *           Id of the body using this motion state.
+    * @param moved
+    *           List receiving the last transform given by the simulation during each update, can be null.
     */
-    DynamicMotionState(const btTransform& initial = btTransform::getIdentity()) :
-    transform(initial) {
+    DynamicMotionState(
+        const btTransform& initial = btTransform::getIdentity(),
+        const jlong id = 0,
+        MovedBodies* moved = 0) :
+    transform(initial),
+    id(id),
+    moved(moved),
+    movedIndex(-1),
+    movedUpdate(0) {
 
     }
 
@@ -73,6 +133,16 @@ public:
         btQuaternion r = t.getRotation();
         movable->setPosition(p.getX(), p.getY(), p.getZ());
         movable->setOrientation(r.getX(), r.getY(), r.getZ(), r.getW());
+        if (this->moved) {
+            //the motion states are synchronized after each sub step, only the last transform is kept.
+            if (this->movedIndex >= 0 && this->movedUpdate == this->moved->update) {
+                this->moved->bodies[this->movedIndex].transform = t;
+            } else {
+                this->movedIndex = this->moved->bodies.size();
+                this->movedUpdate = this->moved->update;
+                this->moved->bodies.push_back(MovedBody(this->id, t));
+            }
+        }
     }
 
     NativeMovable* getMovable() const {
@@ -86,6 +156,26 @@ private:
     */
     btTransform transform;
 
+    /**
+    * Id of the body using this motion state.
+    */
+    jlong id;
+
+    /**
+    * List receiving the transforms set by the simulation, owned by the world.
+    */
+    MovedBodies* moved;
+
+    /**
+    * Index of the record of this body in the moved list, -1 if it was never moved.
+    */
+    int movedIndex;
+
+    /**
+    * Update in which the record at movedIndex was written.
+    */
+    unsigned int movedUpdate;
+
     NativeMovable* movable = new NativeMovable();
 };
 }
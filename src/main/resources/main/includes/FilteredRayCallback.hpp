@@ -0,0 +1,68 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+#ifndef FILTERED_RAY_CALLBACK_H
+#define FILTERED_RAY_CALLBACK_H
+
+#include "stdafx.h"
+#include "World.hpp"
+#include "RayFilter.hpp"
+
+namespace yz {
+
+/**
+ * Ray or sweep result callback applying a RayFilter before the narrow phase.
+ * @param Callback Bullet callback to extend, ClosestRayResultCallback, AllHitsRayResultCallback or
+ * ClosestConvexResultCallback.
+ * @author Grégory Van den Borre
+ */
+template <class Callback>
+class FilteredRayCallback : public Callback {
+
+public:
+
+    FilteredRayCallback(const btVector3& origin, const btVector3& end, const yz::World* world, const yz::RayFilter& filter)
+        : Callback(origin, end), world(world), filter(filter) {
+        this->m_collisionFilterGroup = filter.group;
+        this->m_collisionFilterMask = filter.mask;
+    }
+
+    virtual ~FilteredRayCallback() {
+    }
+
+    virtual bool needsCollision(btBroadphaseProxy* proxy) const {
+        if (!Callback::needsCollision(proxy)) {
+            return false;
+        }
+        return this->filter.excludedCount == 0
+            || !this->filter.isExcluded(this->world->findId(static_cast<const btCollisionObject*>(proxy->m_clientObject)));
+    }
+
+private:
+
+    const yz::World* world;
+
+    const yz::RayFilter& filter;
+};
+}
+#endif
@@ -0,0 +1,125 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+#ifndef GHOST_EVENT_CALLBACK_H
+#define GHOST_EVENT_CALLBACK_H
+
+#include "stdafx.h"
+#include "World.hpp"
+
+namespace yz {
+
+/**
+ * Ghost pair callback also recording the ghost and rigid body pairs starting and ending to overlap, so the ghost
+ * events are only computed when an overlap changes instead of rebuilding all the overlaps at every step.
+ * The ids are resolved when the overlap changes, so an object removed from the world still produces its exit events.
+ * @author Grégory Van den Borre
+ */
+class GhostEventCallback : public btGhostPairCallback {
+
+public:
+
+    /**
+     * Pairs ordered as (ghost id, body id).
+     */
+    typedef std::vector<std::pair<jlong, jlong> > GhostPairs;
+
+    /**
+     * @param world World providing the object ids.
+     */
+    GhostEventCallback(const yz::World* world) : world(world) {
+    }
+
+    virtual ~GhostEventCallback() {
+    }
+
+    virtual btBroadphasePair* addOverlappingPair(btBroadphaseProxy* proxy0, btBroadphaseProxy* proxy1) {
+        btGhostPairCallback::addOverlappingPair(proxy0, proxy1);
+        this->record(proxy0, proxy1, this->entered);
+        return 0;
+    }
+
+    virtual void* removeOverlappingPair(btBroadphaseProxy* proxy0, btBroadphaseProxy* proxy1, btDispatcher* dispatcher) {
+        btGhostPairCallback::removeOverlappingPair(proxy0, proxy1, dispatcher);
+        this->record(proxy0, proxy1, this->exited);
+        return 0;
+    }
+
+    /**
+     * Sort the recorded pairs, keeping the duplicates so a pair entering and exiting several times is counted as many
+     * times.
+     */
+    void sort() {
+        std::sort(this->entered.begin(), this->entered.end());
+        std::sort(this->exited.begin(), this->exited.end());
+    }
+
+    /**
+     * Forget the recorded pairs, keeping their storage.
+     */
+    void clear() {
+        this->entered.clear();
+        this->exited.clear();
+    }
+
+    /**
+     * @return The pairs which started to overlap since the last clear.
+     */
+    inline const GhostPairs& getEntered() const {
+        return this->entered;
+    }
+
+    /**
+     * @return The pairs which stopped to overlap since the last clear.
+     */
+    inline const GhostPairs& getExited() const {
+        return this->exited;
+    }
+
+private:
+
+    void record(btBroadphaseProxy* proxy0, btBroadphaseProxy* proxy1, GhostPairs& pairs) {
+        const btCollisionObject* first = static_cast<const btCollisionObject*>(proxy0->m_clientObject);
+        const btCollisionObject* second = static_cast<const btCollisionObject*>(proxy1->m_clientObject);
+        this->record(first, second, pairs);
+        this->record(second, first, pairs);
+    }
+
+    void record(const btCollisionObject* ghost, const btCollisionObject* body, GhostPairs& pairs) {
+        if (btGhostObject::upcast(ghost) && btRigidBody::upcast(body)) {
+            const jlong ghostId = this->world->findId(ghost);
+            const jlong bodyId = this->world->findId(body);
+            if (yz::CollisionObjectId::has(ghost) && yz::CollisionObjectId::has(body) && ghostId != bodyId) {
+                pairs.push_back(std::make_pair(ghostId, bodyId));
+            }
+        }
+    }
+
+    const yz::World* world;
+
+    GhostPairs entered;
+
+    GhostPairs exited;
+};
+}
+#endif
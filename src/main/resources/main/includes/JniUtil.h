@@ -22,6 +22,9 @@
  */
 
 #include <jni.h>
+#include <vector>
+#include <cstring>
+#include <algorithm>
 
 /**
 * @author Grégory Van den Borre
@@ -36,5 +39,25 @@
         env->ThrowNew(exception, message);
     }
 
+    /**
+     * Copy values in a direct buffer shared with the java code, as many as the buffer capacity allows.
+     * @param env
+     *           Pointer to the java environment.
+     * @param buffer
+     *           Direct java.nio.ByteBuffer to write in, using the native byte order.
+     * @param values
+     *           Values to copy.
+     * @return The number of values to copy, greater than the buffer capacity if it was too small.
+     */
+    inline jint writeToBuffer(JNIEnv* env, jobject buffer, const std::vector<jlong>& values) {
+        jlong* address = static_cast<jlong*>(env->GetDirectBufferAddress(buffer));
+        const size_t capacity = static_cast<size_t>(env->GetDirectBufferCapacity(buffer)) / sizeof(jlong);
+        const size_t size = values.size();
+        if (address && size > 0) {
+            std::memcpy(address, &values[0], std::min(size, capacity) * sizeof(jlong));
+        }
+        return static_cast<jint>(size);
+    }
+
 #endif
 
@@ -34,26 +34,513 @@
 extern "C" {
 #endif
 
-JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_constructor(JNIEnv* env, jobject o);
+/**
+ * Create a new world.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param multithread
+ *           True to build a multithreaded world, using the task scheduler set with setTaskScheduler.
+ *
+ * @return The pointer of the created yz::World.
+ */
+JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_constructor(JNIEnv* env, jobject o, jboolean multithread);
+
+/**
+ * Set the task scheduler used by the multithreaded worlds.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param type
+ *           Scheduler to use, one of the yz::World::TaskScheduler values.
+ * @param threads
+ *           Number of threads to use.
+ *
+ * @return False if the scheduler is not available in the Bullet build.
+ */
+JNIEXPORT jboolean JNICALL Java_jni_BulletWorldNative_setTaskScheduler(JNIEnv* env, jobject o, jint type, jint threads);
 
 JNIEXPORT void JNICALL Java_jni_BulletWorldNative_delete(JNIEnv* env, jobject, jlong pointer);
 
 JNIEXPORT void JNICALL Java_jni_BulletWorldNative_setGravity(JNIEnv* env, jobject o, jlong pointer, jfloat x, jfloat y, jfloat z);
 
-JNIEXPORT jlongArray JNICALL Java_jni_BulletWorldNative_update(JNIEnv* env, jobject o, jlong pointer, jlong time);
+/**
+ * Set the table telling which collision groups can collide.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param rows
+ *           For each of the 32 groups, the bits of the groups it collides with, null to remove the table.
+ */
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_setCollisionMatrix(JNIEnv* env, jobject o, jlong pointer, jintArray rows);
+
+/**
+ * Update the world and write the collision events in a direct buffer.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param time
+ *           Time since the last update, in milliseconds.
+ * @param commands
+ *           Direct ByteBuffer containing the deferred commands to apply before stepping the simulation.
+ * @param commandCount
+ *           Number of deferred commands to apply.
+ * @param buffer
+ *           Direct ByteBuffer receiving the events.
+ *
+ * @return The number of long values in the events, greater than the buffer capacity if it was too small.
+ */
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_update(
+    JNIEnv* env, jobject o, jlong pointer, jlong time, jobject commands, jint commandCount, jobject buffer);
+
+/**
+ * Write the collision events of the last update in a direct buffer.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param buffer
+ *           Direct ByteBuffer receiving the events.
+ *
+ * @return The number of long values in the events, greater than the buffer capacity if it was too small.
+ */
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_getCollisionResult(JNIEnv* env, jobject o, jlong pointer, jobject buffer);
+
+/**
+ * Write the id, position and orientation of every dynamic and kinematic body in a direct buffer.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param buffer
+ *           Direct ByteBuffer receiving the transform records.
+ * @param interpolated
+ *           True to write the transforms interpolated by the motion states, false for the last fixed step ones.
+ *
+ * @return The number of bodies, greater than the buffer capacity if it was too small.
+ */
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_getTransforms(
+    JNIEnv* env, jobject o, jlong pointer, jobject buffer, jboolean interpolated);
 
-JNIEXPORT jlongArray JNICALL Java_jni_BulletWorldNative_getGhostCollisionResult(JNIEnv* env, jobject o, jlong pointer);
+/**
+ * Set the fixed time step used by the simulation.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param step
+ *           Duration of a simulation step, in seconds.
+ * @param maxSubSteps
+ *           Maximum number of steps done in one update.
+ */
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_setTimeStep(JNIEnv* env, jobject o, jlong pointer, jfloat step, jint maxSubSteps);
+
+/**
+ * Write the id, position and orientation of the bodies moved during the last update in a direct buffer.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param buffer
+ *           Direct ByteBuffer receiving the transform records.
+ *
+ * @return The number of moved bodies, greater than the buffer capacity if it was too small.
+ */
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_getMovedTransforms(JNIEnv* env, jobject o, jlong pointer, jobject buffer);
+
+/**
+ * Set the position and orientation of many kinematic bodies and ghost objects from a direct buffer.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param buffer
+ *           Direct ByteBuffer containing the object pointers with their position and orientation.
+ * @param count
+ *           Number of records to read from the buffer.
+ */
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_setTransforms(JNIEnv* env, jobject o, jlong pointer, jobject buffer, jint count);
 
 JNIEXPORT jlongArray JNICALL Java_jni_BulletWorldNative_raycast(JNIEnv* env, jobject o, jlong pointer, jfloat startX,
     jfloat startY, jfloat startZ, jfloat endX, jfloat endY, jfloat endZ);
 
+/**
+ * Throw a ray and write its closest hit in a direct buffer, with the exact id, hit point, hit normal and hit fraction.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param startX
+ *           Ray origin X value.
+ * @param startY
+ *           Ray origin Y value.
+ * @param startZ
+ *           Ray origin Z value.
+ * @param endX
+ *           Ray destination X value.
+ * @param endY
+ *           Ray destination Y value.
+ * @param endZ
+ *           Ray destination Z value.
+ * @param buffer
+ *           Direct ByteBuffer receiving the hit record.
+ */
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_raycastInto(JNIEnv* env, jobject o, jlong pointer, jfloat startX,
+    jfloat startY, jfloat startZ, jfloat endX, jfloat endY, jfloat endZ, jobject buffer);
+
+/**
+ * Throw a ray and write its closest hit accepted by a filter in a direct buffer.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param startX
+ *           Ray origin X value.
+ * @param startY
+ *           Ray origin Y value.
+ * @param startZ
+ *           Ray origin Z value.
+ * @param endX
+ *           Ray destination X value.
+ * @param endY
+ *           Ray destination Y value.
+ * @param endZ
+ *           Ray destination Z value.
+ * @param group
+ *           Collision group of the ray.
+ * @param mask
+ *           Collision groups the ray can hit.
+ * @param excluded
+ *           Direct ByteBuffer containing the ids of the objects to ignore.
+ * @param excludedCount
+ *           Number of ids to ignore.
+ * @param buffer
+ *           Direct ByteBuffer receiving the hit record.
+ */
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_raycastFiltered(JNIEnv* env, jobject o, jlong pointer, jfloat startX,
+    jfloat startY, jfloat startZ, jfloat endX, jfloat endY, jfloat endZ, jint group, jint mask, jobject excluded,
+    jint excludedCount, jobject buffer);
+
+/**
+ * Throw a ray and write all its hits accepted by a filter in a direct buffer, sorted from the closest to the farthest.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param startX
+ *           Ray origin X value.
+ * @param startY
+ *           Ray origin Y value.
+ * @param startZ
+ *           Ray origin Z value.
+ * @param endX
+ *           Ray destination X value.
+ * @param endY
+ *           Ray destination Y value.
+ * @param endZ
+ *           Ray destination Z value.
+ * @param group
+ *           Collision group of the ray.
+ * @param mask
+ *           Collision groups the ray can hit.
+ * @param excluded
+ *           Direct ByteBuffer containing the ids of the objects to ignore.
+ * @param excludedCount
+ *           Number of ids to ignore.
+ * @param buffer
+ *           Direct ByteBuffer receiving the hit records.
+ *
+ * @return The number of hits, greater than the buffer capacity if it was too small.
+ */
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_raycastAll(JNIEnv* env, jobject o, jlong pointer, jfloat startX,
+    jfloat startY, jfloat startZ, jfloat endX, jfloat endY, jfloat endZ, jint group, jint mask, jobject excluded,
+    jint excludedCount, jobject buffer);
+
+/**
+ * Throw many rays and write the closest hit of each one in a direct buffer, large batches are split across the task
+ * scheduler threads.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param rays
+ *           Direct ByteBuffer containing the origin and destination of each ray.
+ * @param count
+ *           Number of rays to throw.
+ * @param buffer
+ *           Direct ByteBuffer receiving one hit record per ray.
+ */
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_raycastBatch(JNIEnv* env, jobject o, jlong pointer, jobject rays, jint count, jobject buffer);
+
+/**
+ * Sweep a convex shape along a path and write its closest hit accepted by a filter in a direct buffer.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param shape
+ *           Pointer of the shape to sweep(type must be a convex btCollisionShape).
+ * @param startX
+ *           Path origin X value.
+ * @param startY
+ *           Path origin Y value.
+ * @param startZ
+ *           Path origin Z value.
+ * @param endX
+ *           Path destination X value.
+ * @param endY
+ *           Path destination Y value.
+ * @param endZ
+ *           Path destination Z value.
+ * @param group
+ *           Collision group of the shape.
+ * @param mask
+ *           Collision groups the shape can hit.
+ * @param excluded
+ *           Direct ByteBuffer containing the ids of the objects to ignore.
+ * @param excludedCount
+ *           Number of ids to ignore.
+ * @param buffer
+ *           Direct ByteBuffer receiving the hit record.
+ */
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_sweep(JNIEnv* env, jobject o, jlong pointer, jlong shape, jfloat startX,
+    jfloat startY, jfloat startZ, jfloat endX, jfloat endY, jfloat endZ, jint group, jint mask, jobject excluded,
+    jint excludedCount, jobject buffer);
+
+/**
+ * Sweep a convex shape along many paths and write the closest hit of each one in a direct buffer, large batches are
+ * split across the task scheduler threads.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param shape
+ *           Pointer of the shape to sweep(type must be a convex btCollisionShape).
+ * @param paths
+ *           Direct ByteBuffer containing the origin and destination of each path.
+ * @param count
+ *           Number of paths.
+ * @param buffer
+ *           Direct ByteBuffer receiving one hit record per path.
+ */
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_sweepBatch(JNIEnv* env, jobject o, jlong pointer, jlong shape,
+    jobject paths, jint count, jobject buffer);
+
 JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_simpleRaycast(JNIEnv* env, jobject o, jlong pointer, jfloat startX,
     jfloat startY, jfloat startZ, jfloat endX, jfloat endY, jfloat endZ);
 
-JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_deserializeMesh(JNIEnv* env, jobject o, jlong pointer, jstring jfile);
+/**
+ * Build a shape from the content of a .bullet file.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param data
+ *           Direct ByteBuffer containing the file content, usually a private memory mapping of the file.
+ * @param size
+ *           Number of bytes to read from the buffer.
+ * @param bvh
+ *           Direct ByteBuffer containing the acceleration structure written by serializeMeshBvh, null to build it.
+ *           It is deserialized in place and must not be released while the shape exists.
+ * @param bvhSize
+ *           Number of bytes to read from the acceleration structure buffer.
+ *
+ * @return A pointer of the newly build shape(type is btCollisionShape).
+ */
+JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_deserializeMesh(
+    JNIEnv* env, jobject o, jobject data, jint size, jobject bvh, jint bvhSize);
+
+/**
+ * Compute the size needed to serialize the acceleration structure of a triangle mesh shape.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param shape
+ *           Pointer of the shape(type must be btCollisionShape).
+ *
+ * @return The size in bytes, 0 if the shape is not a triangle mesh.
+ */
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_getMeshBvhSize(JNIEnv* env, jobject o, jlong shape);
+
+/**
+ * Serialize the acceleration structure of a triangle mesh shape.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param shape
+ *           Pointer of the shape(type must be btBvhTriangleMeshShape).
+ * @param buffer
+ *           Direct ByteBuffer receiving the structure, 16 bytes aligned and large enough for getMeshBvhSize bytes.
+ */
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_serializeMeshBvh(JNIEnv* env, jobject o, jlong shape, jobject buffer);
+
+/**
+ * Delete a shape, no collision object must use it anymore.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param shape
+ *           Pointer of the shape to delete(type must be btCollisionShape).
+ */
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_deleteShape(JNIEnv* env, jobject o, jlong shape);
+
+/**
+ * Estimate the native memory used by a shape, from the size of its serialized data.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param shape
+ *           Pointer of the shape(type must be btCollisionShape).
+ *
+ * @return The shape data size, in bytes.
+ */
+JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_getShapeMemorySize(JNIEnv* env, jobject o, jlong shape);
 
 JNIEXPORT void JNICALL Java_jni_BulletWorldNative_removeBody(JNIEnv* env, jobject o, jlong pointer, jlong bodyPointer);
 
+/**
+ * Write the ids of the objects overlapping an axis aligned box in a direct buffer.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param minX
+ *           Box minimum X value.
+ * @param minY
+ *           Box minimum Y value.
+ * @param minZ
+ *           Box minimum Z value.
+ * @param maxX
+ *           Box maximum X value.
+ * @param maxY
+ *           Box maximum Y value.
+ * @param maxZ
+ *           Box maximum Z value.
+ * @param exact
+ *           True to test the object shapes, false to only test their broadphase bounding boxes.
+ * @param buffer
+ *           Direct ByteBuffer receiving the ids.
+ *
+ * @return The number of objects found, greater than the buffer capacity if it was too small.
+ */
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_queryAabb(JNIEnv* env, jobject o, jlong pointer, jfloat minX, jfloat minY,
+    jfloat minZ, jfloat maxX, jfloat maxY, jfloat maxZ, jboolean exact, jobject buffer);
+
+/**
+ * Write the ids of the objects overlapping a sphere in a direct buffer.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param x
+ *           Sphere center X value.
+ * @param y
+ *           Sphere center Y value.
+ * @param z
+ *           Sphere center Z value.
+ * @param radius
+ *           Sphere radius.
+ * @param exact
+ *           True to test the object shapes, false to only test their broadphase bounding boxes.
+ * @param buffer
+ *           Direct ByteBuffer receiving the ids.
+ *
+ * @return The number of objects found, greater than the buffer capacity if it was too small.
+ */
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_querySphere(JNIEnv* env, jobject o, jlong pointer, jfloat x, jfloat y,
+    jfloat z, jfloat radius, jboolean exact, jobject buffer);
+
+/**
+ * Write the ids of the objects touching a body or a ghost object in a direct buffer.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param object
+ *           Pointer of the object to test(type must be btCollisionObject).
+ * @param buffer
+ *           Direct ByteBuffer receiving the ids.
+ *
+ * @return The number of objects found, greater than the buffer capacity if it was too small.
+ */
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_contactTest(JNIEnv* env, jobject o, jlong pointer, jlong object, jobject buffer);
+
+/**
+ * Write the contact points between a body or a ghost object and the objects it touches in a direct buffer.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param object
+ *           Pointer of the object to test(type must be btCollisionObject).
+ * @param buffer
+ *           Direct ByteBuffer receiving the contact records.
+ *
+ * @return The number of contact points, greater than the buffer capacity if it was too small.
+ */
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_contactTestPoints(JNIEnv* env, jobject o, jlong pointer, jlong object, jobject buffer);
+
+/**
+ * Write the contact points between two objects in a direct buffer.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param pointer
+ *           Pointer of the world to use(type must be yz::World).
+ * @param object
+ *           Pointer of the first object(type must be btCollisionObject).
+ * @param other
+ *           Pointer of the second object(type must be btCollisionObject).
+ * @param buffer
+ *           Direct ByteBuffer receiving the contact records.
+ *
+ * @return The number of contact points, greater than the buffer capacity if it was too small.
+ */
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_contactPairTest(JNIEnv* env, jobject o, jlong pointer, jlong object, jlong other, jobject buffer);
+
 /**
  * Build a box shape.
  * @param env
@@ -86,6 +573,90 @@ JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createPlaneShape(JNIEnv* env,
  */
 JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createSphereShape(JNIEnv* env, jobject o, jfloat radius);
 
+/**
+ * Build a capsule shape aligned on the Y axis.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param radius
+ *           Capsule radius, in meter.
+ * @param height
+ *           Height of the cylinder part, in meter.
+ *
+ * @return A pointer of the newly build shape(type is btCollisionShape).
+ */
+JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createCapsuleShape(JNIEnv* env, jobject o, jfloat radius, jfloat height);
+
+/**
+ * Build a convex hull shape.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param points
+ *           Point coordinates, packed as x, y, z.
+ *
+ * @return A pointer of the newly build shape(type is btConvexHullShape).
+ */
+JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createConvexHullShape(JNIEnv* env, jobject o, jfloatArray points);
+
+/**
+ * Build an empty compound shape.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ *
+ * @return A pointer of the newly build shape(type is btCompoundShape).
+ */
+JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createCompoundShape(JNIEnv* env, jobject o);
+
+/**
+ * Add a child to a compound shape, the child is not deleted with the compound.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param compound
+ *           Pointer of the compound shape(type must be btCompoundShape).
+ * @param child
+ *           Pointer of the shape to add(type must be btCollisionShape).
+ * @param x
+ *           Child position X value, relative to the compound origin.
+ * @param y
+ *           Child position Y value, relative to the compound origin.
+ * @param z
+ *           Child position Z value, relative to the compound origin.
+ * @param orientationX
+ *           Child orientation X value.
+ * @param orientationY
+ *           Child orientation Y value.
+ * @param orientationZ
+ *           Child orientation Z value.
+ * @param orientationW
+ *           Child orientation W value.
+ */
+JNIEXPORT void JNICALL Java_jni_BulletWorldNative_addCompoundChild(JNIEnv* env, jobject o, jlong compound, jlong child,
+    jfloat x, jfloat y, jfloat z, jfloat orientationX, jfloat orientationY, jfloat orientationZ, jfloat orientationW);
+
+/**
+ * Split a serialized triangle mesh in its connected parts and serialize a compound of their convex hulls.
+ * @param env
+ *           Pointer to the java environment.
+ * @param o
+ *           Associated object.
+ * @param data
+ *           Direct ByteBuffer containing the .bullet file content.
+ * @param size
+ *           Number of bytes to read from the buffer.
+ * @param buffer
+ *           Direct ByteBuffer receiving the serialized compound shape.
+ *
+ * @return The size of the serialized compound, greater than the buffer capacity if it was too small.
+ */
+JNIEXPORT jint JNICALL Java_jni_BulletWorldNative_decomposeMesh(JNIEnv* env, jobject o, jobject data, jint size, jobject buffer);
+
 /**
  * Build a static physic body.
  * @param env
@@ -102,11 +673,16 @@ JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createSphereShape(JNIEnv* env
  *           Body initial position Y value.
  * @param z
  *           Body initial position Z value.
+ * @param group
+ *           Collision group bits of the body.
+ * @param mask
+ *           Collision group bits the body can collide with.
  *
  * @return A pointer of the newly build object(type is btRigidBody).
  */
 JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createStaticBody(JNIEnv* env, jobject o, jlong worldPointer,
-    jlong shapePointer, jlong id, jfloat posX, jfloat posY, jfloat posZ, jfloat dirX, jfloat dirY, jfloat dirZ);
+    jlong shapePointer, jlong id, jfloat posX, jfloat posY, jfloat posZ, jfloat dirX, jfloat dirY, jfloat dirZ,
+    jint group, jint mask);
 
 /**
  * Build a kinematic physic body.
@@ -124,14 +700,18 @@ JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createStaticBody(JNIEnv* env,
  *           Body initial position Y value.
  * @param z
  *           Body initial position Z value.
+ * @param group
+ *           Collision group bits of the body.
+ * @param mask
+ *           Collision group bits the body can collide with.
  *
  * @return A pointer of the newly build object(type is btRigidBody).
  */
 JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createKinematicBody( JNIEnv* env, jobject o, jlong worldPointer,
-    jlong shapePointer, jlong id, jfloat x, jfloat y, jfloat z);
+    jlong shapePointer, jlong id, jfloat x, jfloat y, jfloat z, jint group, jint mask);
 
 JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createDynamicBody( JNIEnv* env, jobject o, jlong worldPointer,
-    jlong shapePointer, jlong id, jfloat x, jfloat y, jfloat z, jfloat mass);
+    jlong shapePointer, jlong id, jfloat x, jfloat y, jfloat z, jfloat mass, jint group, jint mask);
 
 /**
  * Build a ghost object.
@@ -149,11 +729,15 @@ JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createDynamicBody( JNIEnv* en
  *           Body initial position Y value.
  * @param z
  *           Body initial position Z value.
+ * @param group
+ *           Collision group bits of the ghost.
+ * @param mask
+ *           Collision group bits the ghost can collide with.
  *
- * @return A pointer of the newly build object(type is btGhostObject).
+ * @return A pointer of the newly build object(type is btPairCachingGhostObject).
  */
 JNIEXPORT jlong JNICALL Java_jni_BulletWorldNative_createGhostObject(JNIEnv* env, jobject o, jlong pointer,
-    jlong shapePointer, jlong id, jfloat x, jfloat y, jfloat z);
+    jlong shapePointer, jlong id, jfloat x, jfloat y, jfloat z, jint group, jint mask);
 
 #ifdef __cplusplus
 }
@@ -0,0 +1,65 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+#ifndef MESH_IMPORTER_H
+#define MESH_IMPORTER_H
+
+#include "stdafx.h"
+
+namespace yz {
+
+/**
+ * World importer using a precooked acceleration structure for the first triangle mesh without one,
+ * instead of building it.
+ * @author Grégory Van den Borre
+ */
+class MeshImporter : public btBulletWorldImporter {
+
+public:
+
+    /**
+     * @param bvh Precooked acceleration structure, null to build it, it is not owned by the created shape.
+     */
+    MeshImporter(btOptimizedBvh* bvh) : btBulletWorldImporter(0), bvh(bvh) {
+    }
+
+    virtual ~MeshImporter() {
+    }
+
+    virtual btBvhTriangleMeshShape* createBvhTriangleMeshShape(btStridingMeshInterface* trimesh, btOptimizedBvh* bvh) {
+        if (!bvh && this->bvh) {
+            bvh = this->bvh;
+            this->bvh = 0;
+        }
+        return btBulletWorldImporter::createBvhTriangleMeshShape(trimesh, bvh);
+    }
+
+private:
+
+    /**
+     * Precooked acceleration structure, null once used.
+     */
+    btOptimizedBvh* bvh;
+};
+}
+#endif
@@ -0,0 +1,76 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+#ifndef RAY_CAST_TASK_H
+#define RAY_CAST_TASK_H
+
+#include "stdafx.h"
+#include "World.hpp"
+
+namespace yz {
+
+/**
+ * Throw a range of rays, or sweep a convex shape along a range of paths, from a batch, run by the task scheduler threads.
+ * @author Grégory Van den Borre
+ */
+class RayCastTask : public btIParallelForBody {
+
+public:
+
+    /**
+     * @param world World to throw the rays into.
+     * @param shape Shape to sweep along the rays, null to throw the rays.
+     * @param input Address of the ray records.
+     * @param output Address of the hit records.
+     */
+    RayCastTask(const yz::World* world, const btConvexShape* shape, const char* input, char* output)
+        : world(world), shape(shape), input(input), output(output) {
+    }
+
+    virtual ~RayCastTask() {
+    }
+
+    virtual void forLoop(int begin, int end) const {
+        for (int i = begin; i < end; i++) {
+            const char* ray = this->input + i * yz::World::RAY_RECORD_SIZE;
+            char* hit = this->output + i * yz::World::HIT_RECORD_SIZE;
+            if (this->shape) {
+                this->world->sweep(this->shape, ray, hit);
+            } else {
+                this->world->rayCast(ray, hit);
+            }
+        }
+    }
+
+private:
+
+    const yz::World* world;
+
+    const btConvexShape* shape;
+
+    const char* input;
+
+    char* output;
+};
+}
+#endif
@@ -0,0 +1,63 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+#ifndef RAY_FILTER_H
+#define RAY_FILTER_H
+
+#include "stdafx.h"
+
+namespace yz {
+
+/**
+ * Objects a ray can hit: the collision group of the ray, the groups it can hit, and the ids of the objects to ignore.
+ * @author Grégory Van den Borre
+ */
+struct RayFilter {
+
+    RayFilter(const int group, const int mask, const jlong* excluded, const int excludedCount)
+        : group(group), mask(mask), excluded(excluded), excludedCount(excludedCount) {
+    }
+
+    /**
+     * @param id Object id.
+     * @return True if the id is one of the excluded ones.
+     */
+    inline bool isExcluded(const jlong id) const {
+        for (int i = 0; i < this->excludedCount; i++) {
+            if (this->excluded[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    const int group;
+
+    const int mask;
+
+    const jlong* excluded;
+
+    const int excludedCount;
+};
+}
+#endif
@@ -0,0 +1,159 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ */
+
+#ifndef REGION_CALLBACK_H
+#define REGION_CALLBACK_H
+
+#include "stdafx.h"
+
+namespace yz {
+
+/**
+ * Collect the objects whose broadphase bounding box overlaps a region, and optionally a sphere inside this region.
+ * @author Grégory Van den Borre
+ */
+class AabbCollector : public btBroadphaseAabbCallback {
+
+public:
+
+    /**
+     * @param objects Vector receiving the objects found.
+     * @param center Center of the sphere the bounding boxes must touch.
+     * @param radius Radius of the sphere the bounding boxes must touch, 0 to keep all the bounding boxes of the region.
+     */
+    AabbCollector(std::vector<const btCollisionObject*>& objects, const btVector3& center, const btScalar radius)
+        : objects(objects), center(center), radius(radius) {
+    }
+
+    virtual ~AabbCollector() {
+    }
+
+    virtual bool process(const btBroadphaseProxy* proxy) {
+        if (this->radius > 0) {
+            btVector3 closest = this->center;
+            closest.setMax(proxy->m_aabbMin);
+            closest.setMin(proxy->m_aabbMax);
+            if (closest.distance2(this->center) > this->radius * this->radius) {
+                return true;
+            }
+        }
+        this->objects.push_back(static_cast<const btCollisionObject*>(proxy->m_clientObject));
+        return true;
+    }
+
+private:
+
+    std::vector<const btCollisionObject*>& objects;
+
+    const btVector3 center;
+
+    const btScalar radius;
+};
+
+/**
+ * Collect the objects touching a query object.
+ * @author Grégory Van den Borre
+ */
+class ContactCollector : public btCollisionWorld::ContactResultCallback {
+
+public:
+
+    /**
+     * @param objects Vector receiving the objects found, an object touching the query in several points is added
+     * several times.
+     * @param query Object used for the query.
+     */
+    ContactCollector(std::vector<const btCollisionObject*>& objects, const btCollisionObject* query)
+        : objects(objects), query(query) {
+    }
+
+    virtual ~ContactCollector() {
+    }
+
+    virtual btScalar addSingleResult(btManifoldPoint& point, const btCollisionObjectWrapper* colObj0Wrap, int partId0,
+        int index0, const btCollisionObjectWrapper* colObj1Wrap, int partId1, int index1) {
+        const btCollisionObject* object = colObj0Wrap->getCollisionObject();
+        this->objects.push_back(object == this->query ? colObj1Wrap->getCollisionObject() : object);
+        return 0;
+    }
+
+private:
+
+    std::vector<const btCollisionObject*>& objects;
+
+    const btCollisionObject* query;
+};
+
+/**
+ * Contact point between a query object and another object, seen from the other object.
+ */
+struct Contact {
+
+    const btCollisionObject* object;
+
+    btVector3 point;
+
+    btVector3 normal;
+
+    btScalar distance;
+};
+
+/**
+ * Collect the contact points between a query object and the objects it touches.
+ * @author Grégory Van den Borre
+ */
+class ContactPointCollector : public btCollisionWorld::ContactResultCallback {
+
+public:
+
+    /**
+     * @param contacts Vector receiving the contact points.
+     * @param query Object used for the query.
+     */
+    ContactPointCollector(std::vector<yz::Contact>& contacts, const btCollisionObject* query)
+        : contacts(contacts), query(query) {
+    }
+
+    virtual ~ContactPointCollector() {
+    }
+
+    virtual btScalar addSingleResult(btManifoldPoint& point, const btCollisionObjectWrapper* colObj0Wrap, int partId0,
+        int index0, const btCollisionObjectWrapper* colObj1Wrap, int partId1, int index1) {
+        if (colObj0Wrap->getCollisionObject() == this->query) {
+            this->contacts.push_back({colObj1Wrap->getCollisionObject(), point.getPositionWorldOnB(), point.m_normalWorldOnB,
+                point.getDistance()});
+        } else {
+            this->contacts.push_back({colObj0Wrap->getCollisionObject(), point.getPositionWorldOnA(), -point.m_normalWorldOnB,
+                point.getDistance()});
+        }
+        return 0;
+    }
+
+private:
+
+    std::vector<yz::Contact>& contacts;
+
+    const btCollisionObject* query;
+};
+}
+#endif
@@ -27,9 +27,16 @@
 #include "stdafx.h"
 #include "KinematicMotionState.hpp"
 #include "RigidBody.hpp"
+#include "DynamicMotionState.hpp"
+#include "RayFilter.hpp"
+#include "RegionCallback.hpp"
+#include "CollisionObjectId.hpp"
+#include "CollisionMatrixFilter.hpp"
 
 namespace yz {
 
+class GhostEventCallback;
+
 /**
  * Wrap a btdiscreetworld, provide linking between collision object and their id.
  * @author Van den Borre Grégory
@@ -38,7 +45,22 @@ class World {
 
 public:
 
-    World();
+    /**
+     * Task schedulers available for the multithreaded worlds, must match the values in BulletTaskScheduler.
+     */
+    enum TaskScheduler {
+        DEFAULT_SCHEDULER = 0,
+        OPENMP_SCHEDULER = 1,
+        TBB_SCHEDULER = 2,
+        PPL_SCHEDULER = 3
+    };
+
+    /**
+     * Create a new world.
+     * @param multithread True to use a btDiscreteDynamicsWorldMt with the parallel solver pool, it requires a task
+     * scheduler to be set to run on several threads.
+     */
+    World(const bool multithread = false);
 
     ~World();
 
@@ -48,18 +70,24 @@ public:
      * @param position Immutable position.
      * @param direction Immutable direction.
      * @param id Id to assign to this body.
+     * @param group Collision group bits of the body.
+     * @param mask Collision group bits the body can collide with.
      * @return The created static rigid body.
      */
     yz::RigidBody* createStaticBody(
         btCollisionShape* shape,
         const btVector3& position,
         const btVector3& direction,
-        const long id);
+        const long id,
+        const int group,
+        const int mask);
 
     /**
      * Create a body intended be moved externally.
      * @param shape Shape to assign to the body.
      * @param id Id to assign to this body.
+     * @param group Collision group bits of the body.
+     * @param mask Collision group bits the body can collide with.
      * @return The created kinematic rigid body.
      */
     yz::RigidBody* createKinematicBody(
@@ -67,7 +95,9 @@ public:
         const long id,
         const float x,
         const float y,
-        const float z);
+        const float z,
+        const int group,
+        const int mask);
 
     yz::RigidBody* createDynamicBody(
         btCollisionShape* shape,
@@ -75,21 +105,333 @@ public:
         const float x,
         const float y,
         const float z,
-        const float mass);
+        const float mass,
+        const int group,
+        const int mask);
+
+    /**
+     * Set the table telling which collision groups can collide, checked by the broadphase before creating a pair.
+     * @param rows For each of the 32 groups, the bits of the groups it collides with, null to remove the table.
+     */
+    void setCollisionMatrix(const jint* rows);
+
+    /**
+     * Number of values at the beginning of the events: started and ended collisions count,
+     * then started and ended ghost collisions count.
+     */
+    static const int EVENTS_HEADER_SIZE = 4;
+
+    /**
+     * Size in bytes of a transform record: id as jlong, position X, Y, Z and orientation X, Y, Z, W as jfloat,
+     * padded to keep the ids aligned.
+     */
+    static const int TRANSFORM_RECORD_SIZE = 40;
+
+    /**
+     * Size in bytes of a deferred command: operation as jint, flag as jint, object pointer as jlong and 4 jfloat
+     * values.
+     */
+    static const int COMMAND_SIZE = 32;
+
+    /**
+     * Operations available in the deferred commands, must match the values in BulletCommandBuffer.
+     */
+    enum Command {
+        SET_GRAVITY = 0,
+        SET_ACTIVATE = 1,
+        DELETE_BODY = 2,
+        DELETE_GHOST = 3,
+        DYNAMIC_POSITION = 4,
+        DYNAMIC_ORIENTATION = 5,
+        APPLY_FORCE = 6,
+        KINEMATIC_POSITION = 7,
+        KINEMATIC_ROTATION = 8,
+        GHOST_POSITION = 9,
+        SET_TIME_STEP = 10
+    };
+
+    /**
+     * Apply the mutations recorded while the world was in deferred mode, in the order they were issued.
+     * @param input Address of the commands.
+     * @param count Number of commands to apply.
+     */
+    void applyCommands(const char* input, const int count);
+
+    /**
+     * Set the task scheduler used by all the multithreaded worlds.
+     * @param type Scheduler to use, one of the TaskScheduler values.
+     * @param threads Number of threads to use, limited to the maximum supported by the scheduler.
+     * @return False if the scheduler is not available in this Bullet build.
+     */
+    static bool setTaskScheduler(const int type, const int threads);
+
+    /**
+     * Build a shape from the content of a .bullet file.
+     * The importer copies the data it keeps, so the content can be released once the shape is built.
+     * @param data Address of the file content, the importer rewrites some of it in place.
+     * @param size Size of the file content, in bytes.
+     * @param bvh Address of an acceleration structure written by serializeBvh for the same content, null to build it.
+     * It is deserialized in place and must be kept as long as the shape exists, it must be 16 bytes aligned.
+     * @param bvhSize Size of the acceleration structure, in bytes.
+     * @return The first compound shape of the file, or its first shape if it has no compound, to be deleted with
+     * deleteShape.
+     * @throws std::invalid_argument if the content is not a valid .bullet file or does not contain any shape.
+     */
+    static btCollisionShape* deserializeShape(char* data, const int size, char* bvh, const int bvhSize);
+
+    /**
+     * Delete a shape, a shape built by deserializeShape is deleted with its children, meshes and vertex and index
+     * arrays. The children of the other compound shapes are not deleted, they are owned by their creator.
+     * @param shape Shape to delete.
+     */
+    static void deleteShape(btCollisionShape* shape);
+
+    /**
+     * Split a .bullet triangle mesh in its connected parts and serialize a compound of their convex hulls.
+     * @param data Address of the file content, the importer rewrites some of it in place.
+     * @param size Size of the file content, in bytes.
+     * @param output Address to write the serialized compound to.
+     * @param capacity Size available at the address, in bytes.
+     * @return The size of the serialized compound, nothing is written if it is greater than the capacity.
+     * @throws std::invalid_argument if the content is not a valid .bullet file or its first shape is not concave.
+     */
+    static int decomposeShape(char* data, const int size, char* output, const int capacity);
+
+    /**
+     * Estimate the memory used by a shape: the vertex and index arrays and the acceleration structure of a triangle
+     * mesh, the points of a convex hull, the children entries of a compound, including the children shapes of a
+     * compound loaded from a file.
+     * @param shape Shape to measure.
+     * @return The estimated size of the shape, in bytes.
+     */
+    static jlong getShapeMemorySize(const btCollisionShape* shape);
 
-    std::vector<jlong> update(const long time);
+    /**
+     * @param shape Shape to check.
+     * @return The size needed to serialize the acceleration structure of a triangle mesh shape, 0 for other shapes.
+     */
+    static int getBvhSize(btCollisionShape* shape);
+
+    /**
+     * Serialize the acceleration structure of a triangle mesh shape, to be given back to deserializeShape.
+     * @param shape Triangle mesh shape.
+     * @param output Address to write to, it must be 16 bytes aligned.
+     * @param capacity Size available at the address, in bytes.
+     * @throws std::invalid_argument if the shape is not a triangle mesh or the capacity is too small.
+     */
+    static void serializeBvh(btCollisionShape* shape, char* output, const int capacity);
+
+    /**
+     * Step the simulation and compute the collisions started and ended since the previous step.
+     * @param time Time elapsed since the last update, in milliseconds.
+     */
+    void update(const long time);
+
+    /**
+     * Write the id and transform of every dynamic and kinematic body.
+     * @param output Address to write the records to.
+     * @param capacity Maximum number of records to write.
+     * @param interpolated True to write the transforms interpolated between the last two fixed steps, as given to the
+     * motion states, false to write the transforms computed by the last fixed step.
+     * @return The number of bodies, only the capacity first ones are written if it is greater than the capacity.
+     */
+    int writeTransforms(char* output, const int capacity, const bool interpolated) const;
+
+    /**
+     * Set the fixed time step used by the simulation.
+     * @param step Duration of a simulation step, in seconds.
+     * @param maxSubSteps Maximum number of steps done in one update, the time exceeding it is dropped.
+     */
+    inline void setTimeStep(const float step, const int maxSubSteps) {
+        this->fixedTimeStep = step;
+        this->maxSubSteps = maxSubSteps;
+    }
+
+    /**
+     * Write the id and last transform of the bodies moved by the simulation during the last update, a body moved by
+     * several sub steps is written once.
+     * @param output Address to write the records to.
+     * @param capacity Maximum number of records to write.
+     * @return The number of moved bodies, only the capacity first ones are written if it is greater than the capacity.
+     */
+    int writeMovedTransforms(char* output, const int capacity) const;
+
+    /**
+     * Set the position and orientation of kinematic bodies and ghost objects.
+     * @param input Address of the records, each one containing the object pointer, its position and orientation.
+     * @param count Number of records to read.
+     */
+    void readTransforms(const char* input, const int count);
 
+    /**
+     * Size in bytes of a ray record: origin X, Y, Z and destination X, Y, Z as jfloat.
+     */
+    static const int RAY_RECORD_SIZE = 24;
+
+    /**
+     * Size in bytes of a hit record: id as jlong, hit point X, Y, Z, hit normal X, Y, Z and hit fraction as jfloat,
+     * then the hit flag as jint. The id of a miss is CollisionObjectId::NO_ID.
+     */
+    static const int HIT_RECORD_SIZE = 40;
+
+    /**
+     * Minimum number of rays in a batch to split it across the task scheduler threads.
+     */
+    static const int PARALLEL_RAYCAST_THRESHOLD = 256;
+
+    /**
+     * Throw many rays and write the closest hit of each one, large batches are split across the task scheduler threads.
+     * The world must not be modified while the rays are thrown.
+     * @param input Address of the ray records.
+     * @param count Number of rays to throw.
+     * @param output Address of the hit records, one per ray.
+     */
+    void rayCastBatch(const char* input, const int count, char* output) const;
+
+    /**
+     * Throw a ray and write its closest hit, it can be called from several threads at once.
+     * @param input Address of the ray record.
+     * @param output Address of the hit record.
+     */
+    void rayCast(const char* input, char* output) const;
+
+    /**
+     * Throw a ray.
+     * @param origin Ray origin.
+     * @param end Ray destination.
+     * @return The id of the closest hit object, -1 if nothing is hit.
+     */
     long rayCast(const btVector3& origin, const btVector3& end) const;
 
+    /**
+     * Throw a ray and write its closest hit accepted by a filter.
+     * @param origin Ray origin.
+     * @param end Ray destination.
+     * @param filter Objects the ray can hit.
+     * @param output Address of the hit record.
+     */
+    void rayCast(const btVector3& origin, const btVector3& end, const yz::RayFilter& filter, char* output) const;
+
+    /**
+     * Throw a ray and write all its hits accepted by a filter, sorted from the closest to the farthest.
+     * @param origin Ray origin.
+     * @param end Ray destination.
+     * @param filter Objects the ray can hit.
+     * @param output Address of the hit records.
+     * @param capacity Maximum number of records to write.
+     * @return The number of hits, only the capacity closest ones are written if it is greater than the capacity.
+     */
+    int rayCastAll(const btVector3& origin, const btVector3& end, const yz::RayFilter& filter, char* output, const int capacity) const;
+
+    /**
+     * Sweep a convex shape along many paths and write the closest hit of each one, large batches are split across the
+     * task scheduler threads. The world must not be modified while the shape is swept.
+     * @param shape Shape to sweep, it is not rotated along the paths.
+     * @param input Address of the ray records giving the paths.
+     * @param count Number of paths.
+     * @param output Address of the hit records, one per path.
+     */
+    void sweepBatch(const btConvexShape* shape, const char* input, const int count, char* output) const;
+
+    /**
+     * Sweep a convex shape and write its closest hit, it can be called from several threads at once.
+     * @param shape Shape to sweep.
+     * @param input Address of the ray record giving the path.
+     * @param output Address of the hit record.
+     */
+    void sweep(const btConvexShape* shape, const char* input, char* output) const;
+
+    /**
+     * Sweep a convex shape and write its closest hit accepted by a filter.
+     * @param shape Shape to sweep.
+     * @param origin Shape position at the beginning of the path.
+     * @param end Shape position at the end of the path.
+     * @param filter Objects the shape can hit.
+     * @param output Address of the hit record.
+     */
+    void sweep(const btConvexShape* shape, const btVector3& origin, const btVector3& end, const yz::RayFilter& filter,
+        char* output) const;
+
+    /**
+     * Find the objects overlapping an axis aligned box.
+     * @param min Box minimum values.
+     * @param max Box maximum values.
+     * @param exact True to test the object shapes, false to only test the broadphase bounding boxes.
+     * @param output Array receiving the object ids.
+     * @param capacity Maximum number of ids to write.
+     * @return The number of objects found, only the capacity first ones are written if it is greater than the capacity.
+     */
+    int queryAabb(const btVector3& min, const btVector3& max, const bool exact, jlong* output, const int capacity) const;
+
+    /**
+     * Find the objects overlapping a sphere.
+     * @param center Sphere center.
+     * @param radius Sphere radius.
+     * @param exact True to test the object shapes, false to only test the broadphase bounding boxes.
+     * @param output Array receiving the object ids.
+     * @param capacity Maximum number of ids to write.
+     * @return The number of objects found, only the capacity first ones are written if it is greater than the capacity.
+     */
+    int querySphere(const btVector3& center, const btScalar radius, const bool exact, jlong* output, const int capacity) const;
+
+    /**
+     * Find the objects touching an object.
+     * @param object Body or ghost object of this world.
+     * @param output Array receiving the object ids.
+     * @param capacity Maximum number of ids to write.
+     * @return The number of objects found, only the capacity first ones are written if it is greater than the capacity.
+     */
+    int contactTest(btCollisionObject* object, jlong* output, const int capacity) const;
+
+    /**
+     * Write the contact points between an object and all the objects it touches.
+     * @param object Body or ghost object of this world.
+     * @param output Address of the contact records, using the hit record layout.
+     * @param capacity Maximum number of records to write.
+     * @return The number of contact points, only the capacity first ones are written if it is greater than the capacity.
+     */
+    int contactTestPoints(btCollisionObject* object, char* output, const int capacity) const;
+
+    /**
+     * Write the contact points between two objects.
+     * @param object Body or ghost object of this world.
+     * @param other Other body or ghost object of this world.
+     * @param output Address of the contact records, using the hit record layout.
+     * @param capacity Maximum number of records to write.
+     * @return The number of contact points, only the capacity first ones are written if it is greater than the capacity.
+     */
+    int contactPairTest(btCollisionObject* object, btCollisionObject* other, char* output, const int capacity) const;
+
+    /**
+     * @param shape Shape to use in a sweep.
+     * @return The shape as a convex shape.
+     * @throws std::invalid_argument if the shape is not convex.
+     */
+    static const btConvexShape* toConvex(const btCollisionShape* shape);
+
+    /**
+     * Find the id of an object, read from the object itself so it can be called from several threads at once.
+     * @param object Body or ghost object.
+     * @return The object id, CollisionObjectId::NO_ID if it has none.
+     */
+    jlong findId(const btCollisionObject* object) const;
+
     long rayCast(
         const btVector3& origin,
         const btVector3& end,
         btCollisionWorld::ClosestRayResultCallback& result) const;
 
+    /**
+     * Throw a ray and retrieve its closest hit.
+     * @param origin Ray origin.
+     * @param end Ray destination.
+     * @param resultArray Array receiving the id of the hit object, -1 if nothing is hit, followed by the hit point X, Y
+     * and Z values, each one stored as the bits of a jfloat, so the values are exact.
+     */
     void rayCastPoint(
         const btVector3& origin,
         const btVector3& end,
-        float* resultArray) const;
+        jlong* resultArray) const;
 
     void removeGhost(btGhostObject* ghost);
 
@@ -98,13 +440,12 @@ public:
     }
 
     inline void addBody(btRigidBody* body, const long id) {
+        yz::CollisionObjectId::set(body, id, this);
         this->world->addRigidBody(body);
-        this->ids[body] = id;
     }
 
     inline void removeBody(btRigidBody* body) {
         this->world->removeRigidBody(body);
-        this->ids.erase(body);
         if (body->getMotionState()) {
             delete body->getMotionState();
         }
@@ -119,33 +460,126 @@ public:
         this->world->setDebugDrawer(drawer);
     }
 
-    btGhostObject* createGhostObject(btCollisionShape* shape, const long id, const float x, const float y, const float z);
+    /**
+     * Create a ghost object, its overlaps with the rigid bodies are reported by the ghost pair callback when they change.
+     * @param shape Shape to assign to the ghost.
+     * @param id Id to assign to the ghost.
+     * @param group Collision group bits of the ghost.
+     * @param mask Collision group bits the ghost can collide with.
+     * @return The created ghost.
+     */
+    btPairCachingGhostObject* createGhostObject(btCollisionShape* shape, const long id, const float x, const float y,
+        const float z, const int group, const int mask);
 
     /**
-     * @return The list of collisions occurred with ghost objects during the
-     * last world update.
+     * @return The collisions started and ended during the last world update: the header with the 4 pair counts,
+     * followed by the started collisions, the ended collisions, the started ghost collisions and the ended ghost collisions.
+     * Ghost collisions pairs are ordered as (ghost id, body id).
      */
-    inline std::vector<jlong> getGhostCollisionResult() const {
-        return this->ghostCollisionResult;
+    inline const std::vector<jlong>& getEvents() const {
+        return this->events;
     }
 
     inline long getIdFromObject(const btCollisionObject* object) {
-        long id = this->ids[object];
-        //FIXME URGENT what if entity id is 0???
-        return id == 0 ? -1L : id;
+        return yz::CollisionObjectId::get(object);
     }
 
 private:
 
+    /**
+     * Id pairs, sorted to compute differences in linear time, the storage is reused from one step to another.
+     */
+    typedef std::vector<std::pair<jlong, jlong> > CollisionPairs;
+
+    /**
+     * Append to the events the pairs present in the first list and not in the second one.
+     * @param first Sorted pairs to check.
+     * @param second Sorted pairs to compare with.
+     * @return The number of appended pairs.
+     */
+    jlong appendDifference(const CollisionPairs& first, const CollisionPairs& second);
+
+    /**
+     * Write a transform record.
+     * @param output Address of the record.
+     * @param id Id of the object.
+     * @param transform Transform of the object.
+     */
+    static void writeTransform(char* output, const jlong id, const btTransform& transform);
+
+    /**
+     * Find the objects touching a shape placed in the world.
+     * @param shape Shape to test.
+     * @param center Shape position.
+     * @param output Array receiving the object ids.
+     * @param capacity Maximum number of ids to write.
+     * @return The number of objects found.
+     */
+    int queryContacts(btCollisionShape* shape, const btVector3& center, jlong* output, const int capacity) const;
+
+    /**
+     * Write the ids of objects, without duplicates.
+     * @param objects Objects to write, ordered by the call.
+     * @param output Array receiving the object ids.
+     * @param capacity Maximum number of ids to write.
+     * @return The number of distinct ids.
+     */
+    int writeIds(std::vector<const btCollisionObject*>& objects, jlong* output, const int capacity) const;
+
+    /**
+     * Write contact points as hit records.
+     * @param contacts Contact points to write.
+     * @param output Address of the records.
+     * @param capacity Maximum number of records to write.
+     * @return The number of contact points.
+     */
+    int writeContacts(const std::vector<yz::Contact>& contacts, char* output, const int capacity) const;
+
+    /**
+     * Write a hit record.
+     * @param output Address of the record.
+     * @param id Id of the hit object.
+     * @param point Hit point.
+     * @param normal Normal of the hit surface.
+     * @param fraction Position of the hit point along the ray.
+     * @param hit False if nothing is hit.
+     */
+    static void writeHit(char* output, const jlong id, const btVector3& point, const btVector3& normal,
+        const btScalar fraction, const bool hit);
+
+    /**
+     * Sort the pairs and remove the duplicates.
+     * @param pairs Pairs to sort.
+     */
+    static void sortPairs(CollisionPairs& pairs);
+
     /**
      * Wrapped bullet world.
      */
     btDiscreteDynamicsWorld* world;
 
-    btOverlappingPairCallback* ghostPairCallback;
+    /**
+     * Ghost pair callback, also recording the ghost events between two updates.
+     */
+    yz::GhostEventCallback* ghostPairCallback;
 
     btSequentialImpulseConstraintSolver* solver;
 
+    /**
+     * Duration of a simulation step, in seconds.
+     */
+    btScalar fixedTimeStep;
+
+    /**
+     * Maximum number of simulation steps done in one update.
+     */
+    int maxSubSteps;
+
+    /**
+     * Solvers used by the multithreaded world, null for a single threaded world.
+     */
+    btConstraintSolverPoolMt* solverPool;
+
     btCollisionDispatcher* dispatcher;
 
     btDefaultCollisionConfiguration* collisionConfiguration;
@@ -153,13 +587,29 @@ private:
     btBroadphaseInterface* broadphase;
 
     /**
-     * Mapping between the collidable objects and their given ids.
+     * Broadphase filter using the collision table, null if no table is set.
      */
-    std::map<const btCollisionObject*, jlong> ids;
+    yz::CollisionMatrixFilter* matrixFilter;
 
-    std::map<btCollisionObject*, jlong> ghostIds;
+    /**
+     * Collision events computed during the last step, see getEvents.
+     */
+    std::vector<jlong> events;
+
+    /**
+     * Last transforms set by the simulation to the dynamic bodies during the last update.
+     */
+    yz::MovedBodies movedBodies;
 
-    std::vector<jlong> ghostCollisionResult;
+    /**
+     * Rigid body pairs colliding during the last step, ordered as (lowest id, highest id).
+     */
+    CollisionPairs collisions;
+
+    /**
+     * Rigid body pairs colliding during the current step.
+     */
+    CollisionPairs currentCollisions;
 
 };
 }
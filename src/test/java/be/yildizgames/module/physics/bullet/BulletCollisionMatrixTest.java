@@ -0,0 +1,82 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+package be.yildizgames.module.physics.bullet;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class BulletCollisionMatrixTest {
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void allGroupsCollide() {
+            var matrix = new BulletCollisionMatrix();
+            Assertions.assertTrue(matrix.isEnabled(0, 31));
+            Assertions.assertTrue(matrix.isEnabled(3, 3));
+        }
+    }
+
+    @Nested
+    class Disable {
+
+        @Test
+        void happyFlow() {
+            var matrix = new BulletCollisionMatrix().disable(2, 5);
+            Assertions.assertFalse(matrix.isEnabled(2, 5));
+            Assertions.assertFalse(matrix.isEnabled(5, 2));
+            Assertions.assertTrue(matrix.isEnabled(2, 2));
+            Assertions.assertEquals(~(1 << 5), matrix.getRows()[2]);
+        }
+
+        @Test
+        void enableAgain() {
+            var matrix = new BulletCollisionMatrix().disable(3, 3).enable(3, 3);
+            Assertions.assertTrue(matrix.isEnabled(3, 3));
+        }
+
+        @Test
+        void invalidGroup() {
+            var matrix = new BulletCollisionMatrix();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> matrix.disable(0, 32));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> matrix.disable(-1, 0));
+        }
+    }
+
+    @Nested
+    class GetRows {
+
+        @Test
+        void isACopy() {
+            var matrix = new BulletCollisionMatrix();
+            matrix.getRows()[0] = 0;
+            Assertions.assertTrue(matrix.isEnabled(0, 0));
+        }
+    }
+}
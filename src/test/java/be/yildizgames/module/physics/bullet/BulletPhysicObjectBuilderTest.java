@@ -105,6 +105,38 @@ class BulletPhysicObjectBuilderTest {
         }
     }
 
+    @Nested
+    class DefaultCollisionFilter {
+
+        @Test
+        void kinematicCollidesWithStatic() {
+            Assertions.assertTrue(collide(BulletPhysicObjectBuilder.KINEMATIC_GROUP, BulletPhysicObjectBuilder.KINEMATIC_MASK,
+                    BulletPhysicObjectBuilder.STATIC_GROUP, BulletPhysicObjectBuilder.STATIC_MASK));
+        }
+
+        @Test
+        void kinematicCollidesWithGhost() {
+            Assertions.assertTrue(collide(BulletPhysicObjectBuilder.KINEMATIC_GROUP, BulletPhysicObjectBuilder.KINEMATIC_MASK,
+                    BulletPhysicObjectBuilder.GHOST_GROUP, BulletPhysicObjectBuilder.GHOST_MASK));
+        }
+
+        @Test
+        void dynamicCollidesWithStatic() {
+            Assertions.assertTrue(collide(BulletPhysicObjectBuilder.DYNAMIC_GROUP, BulletPhysicObjectBuilder.DYNAMIC_MASK,
+                    BulletPhysicObjectBuilder.STATIC_GROUP, BulletPhysicObjectBuilder.STATIC_MASK));
+        }
+
+        @Test
+        void staticDoesNotCollideWithStatic() {
+            Assertions.assertFalse(collide(BulletPhysicObjectBuilder.STATIC_GROUP, BulletPhysicObjectBuilder.STATIC_MASK,
+                    BulletPhysicObjectBuilder.STATIC_GROUP, BulletPhysicObjectBuilder.STATIC_MASK));
+        }
+
+        private boolean collide(int group, int mask, int otherGroup, int otherMask) {
+            return (group & otherMask) != 0 && (otherGroup & mask) != 0;
+        }
+    }
+
     private static BulletPhysicObjectBuilder givenABuilder() {
         NativePointer p = NativePointer.create(5);
         BulletShapeProvider provider = new DummyBulletShapeProvider();
@@ -0,0 +1,250 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import be.yildizgames.common.geometry.Point3D;
+import be.yildizgames.common.shape.Box;
+import be.yildizgames.common.shape.Sphere;
+import be.yildizgames.module.physics.PhysicMesh;
+import be.yildizgames.module.physics.bullet.dummy.DummyBulletWorldImplementation;
+import be.yildizgames.module.physics.bullet.shape.BulletCapsule;
+import be.yildizgames.module.physics.bullet.shape.BulletCompoundShape;
+import be.yildizgames.module.physics.bullet.shape.BulletConvexHull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class BulletShapeRegistryTest {
+
+    @Nested
+    class Acquire {
+
+        @Test
+        void sameShapeIsShared() {
+            var registry = new BulletShapeRegistry(new DummyBulletWorldImplementation());
+            var first = registry.acquire(Box.cube(2));
+            var second = registry.acquire(Box.cube(2));
+            Assertions.assertSame(first, second);
+            var statistics = registry.getStatistics();
+            Assertions.assertEquals(1, statistics.getHits());
+            Assertions.assertEquals(1, statistics.getMisses());
+            Assertions.assertEquals(1, statistics.getLiveShapes());
+        }
+
+        @Test
+        void differentShapesAreNotShared() {
+            var registry = new BulletShapeRegistry(new DummyBulletWorldImplementation());
+            Assertions.assertNotSame(registry.acquire(Box.cube(2)), registry.acquire(Sphere.fromRadius(2)));
+            Assertions.assertEquals(2, registry.getStatistics().getLiveShapes());
+        }
+
+        @Test
+        void sameHullIsShared() {
+            var registry = new BulletShapeRegistry(new DummyBulletWorldImplementation());
+            var first = registry.acquire(BulletConvexHull.fromPoints(0, 0, 0, 1, 0, 0, 0, 1, 0));
+            var second = registry.acquire(BulletConvexHull.fromPoints(0, 0, 0, 1, 0, 0, 0, 1, 0));
+            Assertions.assertSame(first, second);
+        }
+
+        @Test
+        void sameCapsuleIsShared() {
+            var registry = new BulletShapeRegistry(new DummyBulletWorldImplementation());
+            Assertions.assertSame(registry.acquire(BulletCapsule.of(0.5f, 2)), registry.acquire(BulletCapsule.of(0.5f, 2)));
+            Assertions.assertNotSame(registry.acquire(BulletCapsule.of(0.5f, 2)), registry.acquire(BulletCapsule.of(0.5f, 1)));
+        }
+
+        @Test
+        void invalidHull() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> BulletConvexHull.fromPoints(0, 0));
+        }
+
+        @Test
+        void compoundSharesItsChildren() {
+            List<Long> added = new ArrayList<>();
+            var registry = new BulletShapeRegistry(new DummyBulletWorldImplementation() {
+                @Override
+                public long createBoxShape(float width, float height, float depth) {
+                    return 42;
+                }
+
+                @Override
+                public void addCompoundChild(long compound, long child, float x, float y, float z,
+                                             float orientationX, float orientationY, float orientationZ, float orientationW) {
+                    added.add(child);
+                }
+            });
+            var compound = BulletCompoundShape.builder()
+                    .withChild(Box.cube(1), Point3D.valueOf(0, 1, 0))
+                    .withChild(Box.cube(1), Point3D.valueOf(0, -1, 0))
+                    .build();
+            var shape = registry.acquire(compound);
+            Assertions.assertEquals(List.of(42L, 42L), added);
+            Assertions.assertEquals(2, registry.getStatistics().getLiveShapes());
+            registry.release(shape);
+            Assertions.assertEquals(0, registry.getStatistics().getLiveShapes());
+        }
+
+        @Test
+        void emptyCompound() {
+            Assertions.assertThrows(IllegalStateException.class, () -> BulletCompoundShape.builder().build());
+        }
+
+        @Test
+        void meshIsMappedOnce() throws IOException {
+            var file = Files.createTempFile("mesh", ".bullet");
+            Files.write(file, new byte[]{1, 2, 3, 4, 5});
+            try {
+                List<Integer> loaded = new ArrayList<>();
+                var registry = new BulletShapeRegistry(new DummyBulletWorldImplementation() {
+                    @Override
+                    public long deserializeMesh(ByteBuffer data, int size, ByteBuffer bvh, int bvhSize) {
+                        Assertions.assertTrue(data.isDirect());
+                        Assertions.assertEquals(3, data.get(2));
+                        loaded.add(size);
+                        return 42;
+                    }
+                });
+                var first = registry.acquire(new PhysicMesh(file.toString()));
+                var second = registry.acquire(new PhysicMesh(file.toAbsolutePath().toString()));
+                Assertions.assertSame(first, second);
+                Assertions.assertEquals(List.of(5), loaded);
+            } finally {
+                Files.delete(file);
+            }
+        }
+
+        @Test
+        void meshBvhIsCached() throws IOException {
+            var directory = Files.createTempDirectory("meshes");
+            var file = Files.write(directory.resolve("level.bullet"), new byte[]{1, 2, 3, 4, 5});
+            List<Integer> cached = new ArrayList<>();
+            var implementation = new DummyBulletWorldImplementation() {
+                @Override
+                public long deserializeMesh(ByteBuffer data, int size, ByteBuffer bvh, int bvhSize) {
+                    cached.add(bvhSize);
+                    return 42;
+                }
+
+                @Override
+                public int getMeshBvhSize(long shape) {
+                    return 8;
+                }
+
+                @Override
+                public void serializeMeshBvh(long shape, ByteBuffer output) {
+                    output.putLong(0, shape);
+                }
+            };
+            new BulletShapeRegistry(implementation).acquire(new PhysicMesh(file.toString()));
+            new BulletShapeRegistry(implementation).acquire(new PhysicMesh(file.toString()));
+            Assertions.assertEquals(List.of(0, 8), cached);
+            try (var content = Files.list(directory)) {
+                Assertions.assertEquals(2, content.count());
+            }
+        }
+
+        @Test
+        void meshNotExisting() {
+            var registry = new BulletShapeRegistry(new DummyBulletWorldImplementation());
+            Assertions.assertThrows(IllegalStateException.class, () -> registry.acquire(new PhysicMesh("notExisting.bullet")));
+        }
+    }
+
+    @Nested
+    class Precook {
+
+        @Test
+        void happyFlow() throws IOException {
+            var directory = Files.createTempDirectory("meshes");
+            Files.write(directory.resolve("first.bullet"), new byte[]{1, 2, 3});
+            Files.write(directory.resolve("second.bullet"), new byte[]{4, 5, 6});
+            Files.write(directory.resolve("other.txt"), new byte[]{7});
+            List<Long> deleted = new ArrayList<>();
+            var registry = new BulletShapeRegistry(new DummyBulletWorldImplementation() {
+                @Override
+                public long deserializeMesh(ByteBuffer data, int size, ByteBuffer bvh, int bvhSize) {
+                    return 42;
+                }
+
+                @Override
+                public int getMeshBvhSize(long shape) {
+                    return 8;
+                }
+
+                @Override
+                public void deleteShape(long shape) {
+                    deleted.add(shape);
+                }
+            });
+            Assertions.assertEquals(2, registry.precook(directory));
+            Assertions.assertEquals(0, registry.precook(directory));
+            Assertions.assertEquals(List.of(42L, 42L), deleted);
+        }
+    }
+
+    @Nested
+    class Release {
+
+        @Test
+        void deletedWhenNoLongerUsed() {
+            List<Long> deleted = new ArrayList<>();
+            var registry = new BulletShapeRegistry(new DummyBulletWorldImplementation() {
+                @Override
+                public long createBoxShape(float width, float height, float depth) {
+                    return 42;
+                }
+
+                @Override
+                public void deleteShape(long shape) {
+                    deleted.add(shape);
+                }
+            });
+            var shape = registry.acquire(Box.cube(2));
+            registry.acquire(Box.cube(2));
+            registry.release(shape);
+            Assertions.assertTrue(deleted.isEmpty());
+            registry.release(shape);
+            Assertions.assertEquals(List.of(42L), deleted);
+            Assertions.assertEquals(0, registry.getStatistics().getLiveShapes());
+        }
+
+        @Test
+        void notUsed() {
+            var registry = new BulletShapeRegistry(new DummyBulletWorldImplementation());
+            var shape = registry.acquire(Box.cube(2));
+            registry.release(shape);
+            Assertions.assertThrows(IllegalStateException.class, () -> registry.release(shape));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.physics.bullet;
+
+import be.yildizgames.module.physics.bullet.dummy.DummyBulletWorldImplementation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class BulletWorldSchedulerTest {
+
+    @Nested
+    class Schedule {
+
+        @Test
+        void happyFlow() throws InterruptedException {
+            var latch = new CountDownLatch(3);
+            var world = givenAWorld(latch);
+            try (var scheduler = new BulletWorldScheduler(2)) {
+                scheduler.schedule(world, 100);
+                Assertions.assertEquals(1, scheduler.getWorldCount());
+                Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            }
+        }
+
+        @Test
+        void rescheduleKeepsTicksSequential() throws InterruptedException {
+            var latch = new CountDownLatch(20);
+            var inside = new AtomicInteger();
+            var overlaps = new AtomicInteger();
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+                    if (inside.incrementAndGet() > 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    try {
+                        Thread.sleep(2);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    inside.decrementAndGet();
+                    latch.countDown();
+                    return 0;
+                }
+            });
+            try (var scheduler = new BulletWorldScheduler(4)) {
+                for (int i = 0; i < 20; i++) {
+                    scheduler.schedule(world, 1000);
+                    Thread.sleep(1);
+                }
+                Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+                Assertions.assertEquals(1, scheduler.getWorldCount());
+            }
+            Assertions.assertEquals(0, overlaps.get());
+        }
+
+        @Test
+        void multithreadWorldsSteppedOneAtATime() throws InterruptedException {
+            var latch = new CountDownLatch(20);
+            var inside = new AtomicInteger();
+            var overlaps = new AtomicInteger();
+            var worlds = new ArrayList<BulletWorld>();
+            for (int i = 0; i < 4; i++) {
+                var implementation = new DummyBulletWorldImplementation() {
+                    @Override
+                    public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+                        if (inside.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        try {
+                            Thread.sleep(2);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        inside.decrementAndGet();
+                        latch.countDown();
+                        return 0;
+                    }
+                };
+                worlds.add(new BulletWorld(implementation, new BulletShapeRegistry(implementation), true));
+            }
+            try (var scheduler = new BulletWorldScheduler(4)) {
+                worlds.forEach(w -> scheduler.schedule(w, 200));
+                Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            }
+            Assertions.assertEquals(0, overlaps.get());
+        }
+
+        @Test
+        void listenersNotifiedOnOneThread() throws InterruptedException {
+            var latch = new CountDownLatch(10);
+            var threads = ConcurrentHashMap.<String>newKeySet();
+            try (var scheduler = new BulletWorldScheduler(4)) {
+                for (int i = 0; i < 2; i++) {
+                    var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                        @Override
+                        public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+                            output.asLongBuffer().put(new long[]{1, 0, 0, 0, 5, 6});
+                            return 6;
+                        }
+                    });
+                    world.addPrimitiveCollisionListener((first, second) -> {
+                        threads.add(Thread.currentThread().getName());
+                        latch.countDown();
+                    });
+                    scheduler.schedule(world, 100);
+                }
+                Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            }
+            threads.remove(Thread.currentThread().getName());
+            Assertions.assertEquals(Set.of("bullet-world-listeners"), threads);
+        }
+
+        @Test
+        void invalidTickRate() {
+            try (var scheduler = new BulletWorldScheduler(1)) {
+                var world = givenAWorld(new CountDownLatch(1));
+                Assertions.assertThrows(IllegalArgumentException.class, () -> scheduler.schedule(world, 0));
+            }
+        }
+
+        @Test
+        void nullWorld() {
+            try (var scheduler = new BulletWorldScheduler(1)) {
+                Assertions.assertThrows(NullPointerException.class, () -> scheduler.schedule(null, 10));
+            }
+        }
+    }
+
+    @Nested
+    class Unschedule {
+
+        @Test
+        void happyFlow() {
+            try (var scheduler = new BulletWorldScheduler(1)) {
+                var world = givenAWorld(new CountDownLatch(1));
+                scheduler.schedule(world, 10);
+                scheduler.unschedule(world);
+                Assertions.assertEquals(0, scheduler.getWorldCount());
+            }
+        }
+    }
+
+    private static BulletWorld givenAWorld(CountDownLatch latch) {
+        return new BulletWorld(new DummyBulletWorldImplementation() {
+            @Override
+            public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+                latch.countDown();
+                return 0;
+            }
+        });
+    }
+}
@@ -23,12 +23,27 @@
  */
 package be.yildizgames.module.physics.bullet;
 
+import be.yildizgames.common.gameobject.CollisionListener;
+import be.yildizgames.common.gameobject.CollisionResult;
+import be.yildizgames.common.jni.Native;
+import be.yildizgames.common.jni.NativePointer;
+import be.yildizgames.common.model.EntityId;
 import be.yildizgames.module.physics.bullet.dummy.DummyBulletWorldImplementation;
+import be.yildizgames.module.physics.bullet.internal.BulletDynamicBodyImplementation;
+import be.yildizgames.module.physics.bullet.shape.BulletCapsule;
+import be.yildizgames.common.shape.Box;
+import be.yildizgames.common.shape.Sphere;
 import be.yildizgames.common.geometry.Point3D;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
 class BulletWorldTest {
 
     @Nested
@@ -73,6 +88,800 @@ class BulletWorldTest {
             Assertions.assertThrows(NullPointerException.class, () -> world.throwRay(Point3D.valueOf(1,2,3), null));
         }
 
+        @Test
+        void exactValues() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public long[] raycast(long pointerAddress, float beginX, float beginY, float beginZ, float endX, float endY, float endZ) {
+                    return new long[]{123456789012L, Float.floatToRawIntBits(1.5f), Float.floatToRawIntBits(-2.25f), Float.floatToRawIntBits(0.1f)};
+                }
+            });
+            var result = world.throwRay(Point3D.valueOf(1,2,3), Point3D.valueOf(4,5,6));
+            Assertions.assertEquals(123456789012L, result.getId().value);
+            Assertions.assertEquals(Point3D.valueOf(1.5f, -2.25f, 0.1f), result.getContact());
+        }
+
+        @Test
+        void reusedHolder() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public void raycastInto(long pointerAddress, float beginX, float beginY, float beginZ, float endX, float endY, float endZ, ByteBuffer output) {
+                    output.putLong(0, 123456789012L);
+                    output.putFloat(8, endX);
+                    output.putFloat(28, 1f);
+                    output.putFloat(32, 0.5f);
+                    output.putInt(36, endX > 0 ? 1 : 0);
+                }
+            });
+            var hit = new BulletRaycastHit();
+            Assertions.assertTrue(world.throwRay(Point3D.valueOf(0), Point3D.valueOf(4, 0, 0), hit));
+            Assertions.assertEquals(123456789012L, hit.getId());
+            Assertions.assertEquals(4f, hit.getX());
+            Assertions.assertEquals(1f, hit.getNormalZ());
+            Assertions.assertEquals(0.5f, hit.getFraction());
+            Assertions.assertFalse(world.throwRay(0, 0, 0, -4, 0, 0, hit));
+        }
+
+        @Test
+        void emptyHolderHasNoHitId() {
+            var hit = new BulletRaycastHit();
+            Assertions.assertFalse(hit.hasHit());
+            Assertions.assertEquals(BulletHitBuffer.NO_HIT, hit.getId());
+        }
+
+    }
+
+    @Nested
+    class Update {
+
+        @Test
+        void startedAndEndedCollisions() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+                    return write(output, 1, 1, 0, 0, 1, 2, 3, 4);
+                }
+            });
+            var listener = new RecordingListener();
+            world.addCollisionListener(listener);
+            world.update();
+            Assertions.assertEquals(List.of(new CollisionResult(EntityId.valueOf(1), EntityId.valueOf(2))), listener.started);
+            Assertions.assertEquals(List.of(new CollisionResult(EntityId.valueOf(3), EntityId.valueOf(4))), listener.ended);
+        }
+
+        @Test
+        void primitiveListener() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+                    return write(output, 2, 1, 0, 0, 1, 2, 7, 8, 3, 4);
+                }
+            });
+            List<Long> started = new ArrayList<>();
+            List<Long> ended = new ArrayList<>();
+            world.addPrimitiveCollisionListener(new PrimitiveCollisionListener() {
+                @Override
+                public void newCollision(long id1, long id2) {
+                    started.add(id1);
+                    started.add(id2);
+                }
+
+                @Override
+                public void lostCollision(long id1, long id2) {
+                    ended.add(id1);
+                    ended.add(id2);
+                }
+            });
+            world.update();
+            Assertions.assertEquals(List.of(1L, 2L, 7L, 8L), started);
+            Assertions.assertEquals(List.of(3L, 4L), ended);
+        }
+
+        @Test
+        void ghostCollisions() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+                    return write(output, 0, 0, 0, 1, 5, 6);
+                }
+            });
+            var listener = new RecordingListener();
+            world.addGhostCollisionListener(listener);
+            world.update();
+            Assertions.assertTrue(listener.started.isEmpty());
+            Assertions.assertEquals(List.of(new CollisionResult(EntityId.valueOf(5), EntityId.valueOf(6))), listener.ended);
+        }
+
+        @Test
+        void objectSpawnedInsideGhost() {
+            var steps = List.of(new long[]{0, 0, 1, 0, 5, 6}, new long[]{0, 0, 0, 0}, new long[]{0, 0, 0, 1, 5, 6});
+            var step = new int[]{-1};
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+                    return step[0] < 0 ? 0 : write(output, steps.get(step[0]));
+                }
+            });
+            var listener = new RecordingListener();
+            world.addGhostCollisionListener(listener);
+            for (step[0] = 0; step[0] < steps.size(); step[0]++) {
+                world.update();
+            }
+            var pair = List.of(new CollisionResult(EntityId.valueOf(5), EntityId.valueOf(6)));
+            Assertions.assertEquals(pair, listener.started);
+            Assertions.assertEquals(pair, listener.ended);
+        }
+    }
+
+    @Nested
+    class CollisionBuffer {
+
+        @Test
+        void tooSmall() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+                    return 5000;
+                }
+
+                @Override
+                public int getCollisionResult(long pointerAddress, ByteBuffer output) {
+                    Assertions.assertTrue(output.capacity() >= 5000 * Long.BYTES);
+                    return write(output, 1, 0, 0, 0, 1, 2);
+                }
+            });
+            var listener = new RecordingListener();
+            world.addCollisionListener(listener);
+            world.update();
+            Assertions.assertEquals(List.of(new CollisionResult(EntityId.valueOf(1), EntityId.valueOf(2))), listener.started);
+        }
+    }
+
+    @Nested
+    class ReadTransforms {
+
+        @Test
+        void happyFlow() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int getTransforms(long pointerAddress, ByteBuffer output, boolean interpolated) {
+                    if (output.capacity() < 2 * BulletTransformBuffer.RECORD_SIZE) {
+                        return 2;
+                    }
+                    output.putLong(BulletTransformBuffer.RECORD_SIZE, 12L);
+                    for (int i = 0; i < 7; i++) {
+                        output.putFloat(BulletTransformBuffer.RECORD_SIZE + Long.BYTES + i * Float.BYTES, i + 1);
+                    }
+                    return 2;
+                }
+            });
+            var transforms = new BulletTransformBuffer(1);
+            Assertions.assertEquals(2, world.readTransforms(transforms));
+            Assertions.assertEquals(2, transforms.size());
+            Assertions.assertEquals(12L, transforms.getId(1));
+            Assertions.assertEquals(1f, transforms.getX(1));
+            Assertions.assertEquals(3f, transforms.getZ(1));
+            Assertions.assertEquals(7f, transforms.getOrientationW(1));
+        }
+
+        @Test
+        void outOfBounds() {
+            var world = givenABulletWorld();
+            var transforms = new BulletTransformBuffer(1);
+            world.readTransforms(transforms);
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> transforms.getId(0));
+        }
+    }
+
+    @Nested
+    class SetTimeStep {
+
+        @Test
+        void happyFlow() {
+            var values = new ArrayList<Float>();
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public void setTimeStep(long pointerAddress, float step, int maxSubSteps) {
+                    values.add(step);
+                    values.add((float) maxSubSteps);
+                }
+            });
+            world.setTimeStep(1f / 30f, 2);
+            Assertions.assertEquals(List.of(1f / 30f, 2f), values);
+        }
+
+        @Test
+        void negativeStep() {
+            var world = givenABulletWorld();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> world.setTimeStep(-1f, 2));
+        }
+
+        @Test
+        void zeroSubSteps() {
+            var world = givenABulletWorld();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> world.setTimeStep(0.1f, 0));
+        }
+    }
+
+    @Nested
+    class ReadMovedTransforms {
+
+        @Test
+        void happyFlow() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int getMovedTransforms(long pointerAddress, ByteBuffer output) {
+                    output.putLong(0, 5L);
+                    output.putFloat(Long.BYTES, 2f);
+                    return 1;
+                }
+            });
+            var transforms = new BulletTransformBuffer(1);
+            Assertions.assertEquals(1, world.readMovedTransforms(transforms));
+            Assertions.assertEquals(5L, transforms.getId(0));
+            Assertions.assertEquals(2f, transforms.getX(0));
+        }
+
+        @Test
+        void noMovedBody() {
+            var world = givenABulletWorld();
+            var transforms = new BulletTransformBuffer(1);
+            Assertions.assertEquals(0, world.readMovedTransforms(transforms));
+            Assertions.assertEquals(0, transforms.size());
+        }
+    }
+
+    @Nested
+    class ThrowRayFiltered {
+
+        @Test
+        void filterIsSent() {
+            var excluded = new ArrayList<Long>();
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public void raycastFiltered(long pointerAddress, float beginX, float beginY, float beginZ, float endX, float endY, float endZ,
+                                            int group, int mask, ByteBuffer ids, int excludedCount, ByteBuffer output) {
+                    Assertions.assertEquals(2, group);
+                    Assertions.assertEquals(5, mask);
+                    for (int i = 0; i < excludedCount; i++) {
+                        excluded.add(ids.getLong(i * Long.BYTES));
+                    }
+                    output.putInt(36, 1);
+                }
+            });
+            var filter = new BulletRayFilter().setGroup(2).setMask(5);
+            for (long id = 1; id <= 6; id++) {
+                filter.exclude(id);
+            }
+            Assertions.assertTrue(world.throwRay(Point3D.valueOf(0), Point3D.valueOf(1), filter, new BulletRaycastHit()));
+            Assertions.assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), excluded);
+        }
+
+        @Test
+        void allHitsGrowsTheBuffer() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int raycastAll(long pointerAddress, float beginX, float beginY, float beginZ, float endX, float endY, float endZ,
+                                      int group, int mask, ByteBuffer excluded, int excludedCount, ByteBuffer output) {
+                    if (output.capacity() >= 3 * BulletHitBuffer.RECORD_SIZE) {
+                        output.putLong(2 * BulletHitBuffer.RECORD_SIZE, 9L);
+                    }
+                    return 3;
+                }
+            });
+            var hits = new BulletHitBuffer(1);
+            Assertions.assertEquals(3, world.throwRayAllHits(Point3D.valueOf(0), Point3D.valueOf(1), new BulletRayFilter(), hits));
+            Assertions.assertEquals(3, hits.size());
+            Assertions.assertEquals(9L, hits.getId(2));
+        }
+    }
+
+    @Nested
+    class ThrowRays {
+
+        @Test
+        void happyFlow() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public void raycastBatch(long pointerAddress, ByteBuffer rays, int count, ByteBuffer output) {
+                    Assertions.assertEquals(3f, rays.getFloat(BulletRayBatch.RECORD_SIZE + 12));
+                    output.putLong(BulletHitBuffer.RECORD_SIZE, 7L);
+                    output.putFloat(BulletHitBuffer.RECORD_SIZE + 8, 2f);
+                    output.putInt(BulletHitBuffer.RECORD_SIZE + 36, 1);
+                }
+            });
+            var rays = new BulletRayBatch(0);
+            rays.add(0, 0, 0, 1, 0, 0);
+            rays.add(0, 0, 0, 3, 0, 0);
+            var hits = new BulletHitBuffer(0);
+            Assertions.assertEquals(2, world.throwRays(rays, hits));
+            Assertions.assertEquals(2, hits.size());
+            Assertions.assertFalse(hits.hasHit(0));
+            Assertions.assertTrue(hits.hasHit(1));
+            Assertions.assertEquals(7L, hits.getId(1));
+            Assertions.assertEquals(2f, hits.getX(1));
+        }
+
+        @Test
+        void emptyBatchIsNotSent() {
+            var counts = new ArrayList<Integer>();
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public void raycastBatch(long pointerAddress, ByteBuffer rays, int count, ByteBuffer output) {
+                    counts.add(count);
+                }
+            });
+            Assertions.assertEquals(0, world.throwRays(new BulletRayBatch(0), new BulletHitBuffer(0)));
+            Assertions.assertTrue(counts.isEmpty());
+        }
+    }
+
+    @Nested
+    class Sweep {
+
+        @Test
+        void happyFlow() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public void sweep(long pointerAddress, long shape, float beginX, float beginY, float beginZ, float endX, float endY, float endZ,
+                                  int group, int mask, ByteBuffer excluded, int excludedCount, ByteBuffer output) {
+                    Assertions.assertEquals(5f, endX);
+                    Assertions.assertEquals(1, excludedCount);
+                    output.putLong(0, 4L);
+                    output.putFloat(8, 2.5f);
+                    output.putFloat(32, 0.5f);
+                    output.putInt(36, 1);
+                }
+            });
+            var shape = world.getSweepShape(BulletCapsule.of(0.5f, 1.8f));
+            var hit = new BulletRaycastHit();
+            Assertions.assertTrue(world.sweep(shape, Point3D.ZERO, Point3D.valueOf(5, 0, 0), new BulletRayFilter().exclude(3L), hit));
+            Assertions.assertEquals(4L, hit.getId());
+            Assertions.assertEquals(2.5f, hit.getX());
+            Assertions.assertEquals(0.5f, hit.getFraction());
+        }
+
+        @Test
+        void sameShapeIsReused() {
+            var world = givenABulletWorld();
+            Assertions.assertSame(world.getSweepShape(Sphere.fromRadius(1)), world.getSweepShape(Sphere.fromRadius(1)));
+            Assertions.assertNotSame(world.getSweepShape(Sphere.fromRadius(1)), world.getSweepShape(Box.cube(1)));
+        }
+
+        @Test
+        void batch() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public void sweepBatch(long pointerAddress, long shape, ByteBuffer paths, int count, ByteBuffer output) {
+                    Assertions.assertEquals(2, count);
+                    output.putLong(0, 9L);
+                    output.putInt(36, 1);
+                }
+            });
+            var paths = new BulletRayBatch(0);
+            paths.add(0, 0, 0, 1, 0, 0);
+            paths.add(0, 0, 0, 0, 1, 0);
+            var hits = new BulletHitBuffer(0);
+            Assertions.assertEquals(2, world.sweep(world.getSweepShape(Box.cube(1)), paths, hits));
+            Assertions.assertEquals(9L, hits.getId(0));
+            Assertions.assertFalse(hits.hasHit(1));
+        }
+    }
+
+    @Nested
+    class QueryRegion {
+
+        @Test
+        void box() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int queryAabb(long pointerAddress, float minX, float minY, float minZ, float maxX, float maxY, float maxZ, boolean exact, ByteBuffer output) {
+                    Assertions.assertTrue(exact);
+                    Assertions.assertEquals(4f, maxY);
+                    output.putLong(0, 5L);
+                    output.putLong(8, 8L);
+                    return 2;
+                }
+            });
+            var ids = new BulletIdBuffer(4);
+            Assertions.assertEquals(2, world.queryBox(Point3D.ZERO, Point3D.valueOf(4, 4, 4), true, ids));
+            Assertions.assertEquals(2, ids.size());
+            Assertions.assertEquals(8L, ids.getId(1));
+            Assertions.assertTrue(ids.contains(5L));
+            Assertions.assertFalse(ids.contains(6L));
+        }
+
+        @Test
+        void bufferTooSmall() {
+            var calls = new ArrayList<Integer>();
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int querySphere(long pointerAddress, float x, float y, float z, float radius, boolean exact, ByteBuffer output) {
+                    calls.add(output.capacity());
+                    if (output.capacity() >= 3 * Long.BYTES) {
+                        output.putLong(16, 12L);
+                    }
+                    return 3;
+                }
+            });
+            var ids = new BulletIdBuffer(1);
+            Assertions.assertEquals(3, world.querySphere(Point3D.ZERO, 10, false, ids));
+            Assertions.assertEquals(2, calls.size());
+            Assertions.assertEquals(12L, ids.getId(2));
+        }
+
+        @Test
+        void invalidRadius() {
+            var world = givenABulletWorld();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> world.querySphere(Point3D.ZERO, 0, false, new BulletIdBuffer(1)));
+        }
+    }
+
+    @Nested
+    class Contacts {
+
+        @Test
+        void ids() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int contactTest(long pointerAddress, long object, ByteBuffer output) {
+                    Assertions.assertEquals(42L, object);
+                    output.putLong(0, 6L);
+                    return 1;
+                }
+            });
+            var ids = new BulletIdBuffer(2);
+            Assertions.assertEquals(1, world.contactTest(givenANativeObject(42L), ids));
+            Assertions.assertEquals(6L, ids.getId(0));
+        }
+
+        @Test
+        void points() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int contactTestPoints(long pointerAddress, long object, ByteBuffer output) {
+                    if (output.capacity() < 2 * BulletContactBuffer.RECORD_SIZE) {
+                        return 2;
+                    }
+                    output.putLong(BulletContactBuffer.RECORD_SIZE, 3L);
+                    output.putFloat(BulletContactBuffer.RECORD_SIZE + 32, -0.1f);
+                    return 2;
+                }
+            });
+            var contacts = new BulletContactBuffer(0);
+            Assertions.assertEquals(2, world.contactTest(givenANativeObject(1L), contacts));
+            Assertions.assertEquals(3L, contacts.getId(1));
+            Assertions.assertEquals(-0.1f, contacts.getDistance(1));
+        }
+
+        @Test
+        void pair() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int contactPairTest(long pointerAddress, long object, long other, ByteBuffer output) {
+                    return other == 2L ? 1 : 0;
+                }
+            });
+            Assertions.assertTrue(world.contactPairTest(givenANativeObject(1L), givenANativeObject(2L)));
+            Assertions.assertFalse(world.contactPairTest(givenANativeObject(1L), givenANativeObject(3L)));
+        }
+    }
+
+    @Nested
+    class SetCollisionMatrix {
+
+        @Test
+        void happyFlow() {
+            var received = new ArrayList<int[]>();
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public void setCollisionMatrix(long pointerAddress, int[] rows) {
+                    received.add(rows);
+                }
+            });
+            world.setCollisionMatrix(new BulletCollisionMatrix().disable(1, 1));
+            world.removeCollisionMatrix();
+            Assertions.assertEquals(2, received.size());
+            Assertions.assertEquals(BulletCollisionMatrix.GROUPS, received.get(0).length);
+            Assertions.assertEquals(~2, received.get(0)[1]);
+            Assertions.assertNull(received.get(1));
+        }
+    }
+
+    @Nested
+    class ApplyTransforms {
+
+        @Test
+        void recordsSentAfterGrowth() {
+            var received = new ArrayList<long[]>();
+            var positions = new ArrayList<float[]>();
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public void setTransforms(long pointerAddress, ByteBuffer input, int count) {
+                    Assertions.assertEquals(3, count);
+                    Assertions.assertTrue(input.capacity() >= 3 * BulletTransformBuffer.RECORD_SIZE);
+                    for (int i = 0; i < count; i++) {
+                        int offset = i * BulletTransformBuffer.RECORD_SIZE;
+                        received.add(new long[]{input.getLong(offset)});
+                        float[] values = new float[7];
+                        for (int v = 0; v < 7; v++) {
+                            values[v] = input.getFloat(offset + Long.BYTES + v * Float.BYTES);
+                        }
+                        positions.add(values);
+                    }
+                }
+            });
+            var batch = new BulletTransformBatch(1);
+            for (int i = 0; i < 3; i++) {
+                var ghost = new BulletGhostObject(null, EntityId.valueOf(i), NativePointer.create(100L + i),
+                        NativePointer.create(1L), NativePointer.create(2L), null);
+                batch.add(ghost, i, i + 0.5f, -i, 0.1f * i, 0.2f, 0.3f, 0.4f);
+            }
+            Assertions.assertEquals(3, batch.size());
+            world.applyTransforms(batch);
+            Assertions.assertEquals(0, batch.size());
+            Assertions.assertEquals(3, received.size());
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertEquals(100L + i, received.get(i)[0]);
+                Assertions.assertArrayEquals(new float[]{i, i + 0.5f, -i, 0.1f * i, 0.2f, 0.3f, 0.4f}, positions.get(i));
+            }
+        }
+
+        @Test
+        void emptyBatchIsNotSent() {
+            var counts = new ArrayList<Integer>();
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public void setTransforms(long pointerAddress, ByteBuffer input, int count) {
+                    counts.add(count);
+                }
+            });
+            var batch = new BulletTransformBatch(0);
+            world.applyTransforms(batch);
+            Assertions.assertTrue(counts.isEmpty());
+        }
+    }
+
+    @Nested
+    class DeferredMode {
+
+        @Test
+        void gravityAppliedOnUpdate() {
+            var counts = new ArrayList<Integer>();
+            var gravityCalls = new ArrayList<Float>();
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+                    counts.add(commandCount);
+                    if (commandCount > 0) {
+                        gravityCalls.add(commands.getFloat(20));
+                    }
+                    return 0;
+                }
+
+                @Override
+                public void setGravity(long pointerAddress, float gravityX, float gravityY, float gravityZ) {
+                    gravityCalls.add(gravityY);
+                }
+            });
+            world.setDeferredMode(true);
+            world.setGravity(0, 9.8f, 0);
+            world.update();
+            world.update();
+            Assertions.assertEquals(List.of(0, 1, 0), counts);
+            Assertions.assertEquals(List.of(-9.8f), gravityCalls);
+        }
+
+        @Test
+        void disabledByDefault() {
+            var world = givenABulletWorld();
+            Assertions.assertFalse(world.isDeferredMode());
+        }
+
+        @Test
+        void followedByExistingObjects() {
+            var forces = new ArrayList<Float>();
+            var mode = new BulletWorldMode();
+            var commands = new BulletCommandBuffer(1);
+            var body = new BulletDynamicBodyDeferred(commands, mode, new RecordingDynamicBody(forces));
+            body.applyForce(1L, 2, 0, 0);
+            mode.setDeferred(true);
+            body.applyForce(1L, 3, 0, 0);
+            Assertions.assertEquals(List.of(2f), forces);
+            Assertions.assertEquals(1, commands.size());
+        }
+    }
+
+    @Nested
+    class UpdateAsync {
+
+        @Test
+        void listenersNotifiedOnCallingThread() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+                    return write(output, 1, 0, 0, 0, 5, 6);
+                }
+            });
+            var threads = new ArrayList<Thread>();
+            world.addPrimitiveCollisionListener((first, second) -> threads.add(Thread.currentThread()));
+            threads.clear();
+            var snapshot = world.updateAsync().join();
+            Assertions.assertTrue(threads.isEmpty());
+            world.updateAsync();
+            Assertions.assertEquals(List.of(Thread.currentThread()), threads);
+            Assertions.assertSame(snapshot, world.getSnapshot());
+        }
+
+        @Test
+        void switchesToDeferredMode() {
+            var world = givenABulletWorld();
+            world.updateAsync().join();
+            Assertions.assertTrue(world.isDeferredMode());
+        }
+
+        @Test
+        void commandsSentToStep() {
+            var counts = new ArrayList<Integer>();
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+                    counts.add(commandCount);
+                    return 0;
+                }
+            });
+            world.setDeferredMode(true);
+            world.setGravity(0, 9.8f, 0);
+            world.updateAsync().join();
+            world.updateAsync().join();
+            Assertions.assertEquals(List.of(0, 1, 0), counts);
+        }
+
+        @Test
+        void unrecordedCallsRejectedWhileStepping() throws InterruptedException {
+            var running = new CountDownLatch(1);
+            var release = new CountDownLatch(1);
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+                    if (Thread.currentThread().getName().equals("bullet-physics")) {
+                        running.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return 0;
+                }
+            });
+            var step = world.updateAsync();
+            running.await();
+            Assertions.assertThrows(IllegalStateException.class, () -> world.applyTransforms(new BulletTransformBatch(0)));
+            Assertions.assertThrows(IllegalStateException.class, world::createObject);
+            Assertions.assertThrows(IllegalStateException.class, world::removeCollisionMatrix);
+            release.countDown();
+            step.join();
+            world.applyTransforms(new BulletTransformBatch(0));
+        }
+
+        @Test
+        void bodyPositionRejectedWhileStepping() {
+            var mode = new BulletWorldMode();
+            var implementation = new BulletDynamicBodyDeferred(new BulletCommandBuffer(1), mode, new RecordingDynamicBody(new ArrayList<>()));
+            var body = new BulletDynamicBody(implementation, NativePointer.create(1L), NativePointer.create(2L), EntityId.valueOf(3L), 1,
+                    NativePointer.create(4L), null);
+            var step = new CompletableFuture<Void>();
+            mode.setStep(step);
+            Assertions.assertThrows(IllegalStateException.class, body::getPosition);
+            Assertions.assertThrows(IllegalStateException.class, body::getDirection);
+            step.complete(null);
+            Assertions.assertEquals(Point3D.valueOf(0, 0, 0), body.getPosition());
+        }
+
+        @Test
+        void eventsReadFromSnapshot() {
+            var world = new BulletWorld(new DummyBulletWorldImplementation() {
+                @Override
+                public int update(long pointerAddress, long time, ByteBuffer commands, int commandCount, ByteBuffer output) {
+                    return write(output, 1, 0, 0, 0, 5, 6);
+                }
+            });
+            var snapshot = world.updateAsync().join();
+            Assertions.assertEquals(6, snapshot.getCollisionSize());
+            Assertions.assertEquals(1, snapshot.getCollisionEvents().get(0));
+            Assertions.assertEquals(6, snapshot.getCollisionEvents().get(5));
+        }
+    }
+
+    private static int write(ByteBuffer output, long... values) {
+        output.asLongBuffer().put(values);
+        return values.length;
+    }
+
+    private static class RecordingDynamicBody implements BulletDynamicBodyImplementation {
+
+        private final List<Float> forces;
+
+        private RecordingDynamicBody(List<Float> forces) {
+            this.forces = forces;
+        }
+
+        @Override
+        public void applyForce(long pointerAddress, float x, float y, float z) {
+            this.forces.add(x);
+        }
+
+        @Override
+        public void setPosition(long pointerAddress, float x, float y, float z) {
+            //does nothing
+        }
+
+        @Override
+        public void setDirection(long pointerAddress, float x, float y, float z) {
+            //does nothing
+        }
+
+        @Override
+        public void setOrientation(long pointerAddress, float w, float x, float y, float z) {
+            //does nothing
+        }
+
+        @Override
+        public void setActivate(long pointerAddress, boolean activate) {
+            //does nothing
+        }
+
+        @Override
+        public void delete(long pointerAddress, long worldPointer) {
+            //does nothing
+        }
+
+        @Override
+        public void scale(long pointerAddress, float x, float y, float z) {
+            //does nothing
+        }
+
+        @Override
+        public float[] getPosition(long pointerAddress) {
+            return new float[3];
+        }
+
+        @Override
+        public float[] getDirection(long pointerAddress) {
+            return new float[3];
+        }
+    }
+
+    private static class RecordingListener implements CollisionListener {
+
+        private final List<CollisionResult> started = new ArrayList<>();
+
+        private final List<CollisionResult> ended = new ArrayList<>();
+
+        @Override
+        public void newCollision(CollisionResult result) {
+            this.started.add(result);
+        }
+
+        @Override
+        public void lostCollision(CollisionResult result) {
+            this.ended.add(result);
+        }
+    }
+
+    private static Native givenANativeObject(long address) {
+        return new Native() {
+            @Override
+            public NativePointer getPointer() {
+                return NativePointer.create(address);
+            }
+
+            @Override
+            public void delete() {
+                //does nothing
+            }
+        };
     }
 
     private static BulletWorld givenABulletWorld() {